@@ -0,0 +1,32 @@
+package org.example.cookingappbackend.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * Hands Hibernate a JCache manager of its own for the second-level cache.
+ * Hibernate closes the manager when the session factory shuts down, so the
+ * provider's shared default manager would be closed under any other context
+ * in the same JVM (test contexts, devtools restarts), and would let them read
+ * each other's cached rows. Regions are configured in application.conf.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // any URI without a config file extension resolves to application.conf
+        URI uri = URI.create(provider.getDefaultURI() + "-" + UUID.randomUUID());
+        CacheManager cacheManager = provider.getCacheManager(uri, provider.getDefaultClassLoader());
+        return properties -> properties.put("hibernate.javax.cache.cache_manager", cacheManager);
+    }
+}
@@ -1,6 +1,7 @@
 package org.example.cookingappbackend.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.example.cookingappbackend.dto.response.CursorPage;
 import org.example.cookingappbackend.dto.response.RecipeSummaryResponse;
 import org.example.cookingappbackend.model.User;
 import org.example.cookingappbackend.service.FavoriteService;
@@ -46,6 +47,14 @@ public class FavoriteController {
         return favoriteService.list(user.getId(), PageRequest.of(page, size));
     }
 
+    @GetMapping("/favorites/cursor")
+    public CursorPage<RecipeSummaryResponse> listAfter(@RequestParam(required = false) String after,
+                                                       @RequestParam(defaultValue = "20") int size,
+                                                       @AuthenticationPrincipal UserDetails principal) {
+        User user = userService.findByEmail(principal.getUsername());
+        return favoriteService.listAfter(user.getId(), after, size);
+    }
+
     @GetMapping("/favorites/ids")
     public List<Long> ids(@AuthenticationPrincipal UserDetails principal) {
         User user = userService.findByEmail(principal.getUsername());
@@ -2,10 +2,14 @@ package org.example.cookingappbackend.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.example.cookingappbackend.model.Ingredient;
-import org.example.cookingappbackend.repository.IngredientRepository;
+import org.example.cookingappbackend.service.IngredientAutocompleteIndex;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -13,22 +17,28 @@ import java.util.List;
 @RequiredArgsConstructor
 public class IngredientController {
 
-    private final IngredientRepository ingredientRepo;
+    private static final CacheControl CACHE = CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic();
+
+    private final IngredientAutocompleteIndex autocomplete;
 
     record IngredientDto(Long id, String name, String unit, String category) {}
 
     @GetMapping
     public ResponseEntity<List<IngredientDto>> search(
             @RequestParam(name = "query", required = false) String query,
-            @RequestParam(name = "limit", required = false, defaultValue = "20") int limit
+            @RequestParam(name = "limit", required = false, defaultValue = "20") int limit,
+            WebRequest request
     ) {
         if (query == null || query.isBlank()) {
             return ResponseEntity.ok(List.of());
         }
+        String etag = "W/\"i" + autocomplete.version() + "\"";
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CACHE).build();
+        }
         String q = query.trim().toLowerCase();
 
-        List<Ingredient> ranked = ingredientRepo.searchRanked(q);
-        if (ranked.size() > limit) ranked = ranked.subList(0, limit);
+        List<Ingredient> ranked = autocomplete.search(q, limit);
 
         List<IngredientDto> dto = ranked.stream()
                 .map(i -> new IngredientDto(
@@ -39,6 +49,6 @@ public class IngredientController {
                 ))
                 .toList();
 
-        return ResponseEntity.ok(dto);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CACHE).body(dto);
     }
 }
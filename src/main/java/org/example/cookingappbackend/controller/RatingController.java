@@ -2,6 +2,7 @@ package org.example.cookingappbackend.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.example.cookingappbackend.dto.request.RatingRequest;
+import org.example.cookingappbackend.dto.response.CursorPage;
 import org.example.cookingappbackend.dto.response.RatingResponse;
 import org.example.cookingappbackend.model.User;
 import org.example.cookingappbackend.service.RatingService;
@@ -26,6 +27,16 @@ public class RatingController {
         return ratingService.getRatings(recipeId, currentUser);
     }
 
+    @GetMapping("/cursor")
+    public CursorPage<RatingResponse> getRatingsAfter(
+            @PathVariable Long recipeId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        return ratingService.getRatingsAfter(recipeId, currentUser, after, size);
+    }
+
     @PostMapping
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void upsertRating(
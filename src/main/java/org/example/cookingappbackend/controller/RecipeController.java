@@ -5,39 +5,174 @@ import lombok.RequiredArgsConstructor;
 import org.example.cookingappbackend.dto.request.RecipeCreateRequest;
 import org.example.cookingappbackend.dto.response.*;
 import org.example.cookingappbackend.model.User;
+import org.example.cookingappbackend.repository.RecipeVersion;
+import org.example.cookingappbackend.service.CatalogSyncService;
+import org.example.cookingappbackend.service.RecipeExportService;
+import org.example.cookingappbackend.service.RecipeIngestService;
+import org.example.cookingappbackend.service.RecipeJsonCache;
+import org.example.cookingappbackend.service.RecipeLeaderboard;
 import org.example.cookingappbackend.service.RecipeService;
+import org.example.cookingappbackend.service.SearchTotal;
 import org.springframework.data.domain.*;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/recipes")
 @RequiredArgsConstructor
 public class RecipeController {
+    private static final CacheControl DETAIL_CACHE = CacheControl.maxAge(Duration.ofMinutes(1)).cachePublic();
+    private static final CacheControl LIST_CACHE = CacheControl.maxAge(Duration.ofSeconds(30)).cachePublic();
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final RecipeService recipeService;
+    private final RecipeJsonCache recipeJson;
+    private final RecipeExportService recipeExport;
+    private final CatalogSyncService catalogSync;
+    private final RecipeIngestService recipeIngest;
+    private final RecipeLeaderboard leaderboard;
     @PostMapping
     public ResponseEntity<RecipeResponse> create(@Valid @RequestBody RecipeCreateRequest req,
                                                  @AuthenticationPrincipal User currentUser) {
         return ResponseEntity.ok(recipeService.create(req, currentUser));
     }
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkIngestResponse> bulkCreate(InputStream body) throws IOException {
+        return ResponseEntity.ok(recipeIngest.ingest(body));
+    }
     @GetMapping
     public ResponseEntity<Page<RecipeSummaryResponse>> list(
-            @PageableDefault(size = 20, sort = "title") Pageable pageable
+            @PageableDefault(size = 20, sort = "title") Pageable pageable,
+            WebRequest request
+    ) {
+        Instant lastModified = recipeService.catalogLastModified().orElse(Instant.EPOCH);
+        String etag = "W/\"c" + lastModified.toEpochMilli() + "\"";
+        if (request.checkNotModified(etag, lastModified.toEpochMilli())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(LIST_CACHE).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(lastModified)
+                .cacheControl(LIST_CACHE)
+                .body(recipeService.list(pageable));
+    }
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<RecipeSummaryResponse>> listAfter(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(recipeService.listAfter(after, size));
+    }
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export() {
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(out -> recipeExport.exportNdjson(out));
+    }
+    @GetMapping("/changes")
+    public ResponseEntity<CatalogChangesResponse> changes(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "500") int limit
     ) {
-        return ResponseEntity.ok(recipeService.list(pageable));
+        return ResponseEntity.ok(catalogSync.changesSince(since, limit));
     }
     @GetMapping("/{id}")
-    public ResponseEntity<RecipeResponse> get(@PathVariable Long id) {
-        return ResponseEntity.ok(recipeService.get(id));
+    public ResponseEntity<byte[]> get(@PathVariable Long id,
+                                      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                      WebRequest request) {
+        RecipeJsonCache.Encoded body = recipeJson.getIfPresent(id);
+        String etag;
+        if (body != null) {
+            etag = recipeEtag(id, body.version());
+            if (request.checkNotModified(etag, lastModifiedMillis(body.updatedAt()))) return notModified(etag);
+        } else {
+            RecipeVersion v = recipeService.version(id);
+            etag = recipeEtag(id, v.version());
+            if (request.checkNotModified(etag, lastModifiedMillis(v.updatedAt()))) return notModified(etag);
+            body = recipeJson.get(id, () -> recipeService.get(id));
+            etag = recipeEtag(id, body.version());
+        }
+
+        boolean gzip = body.gzip() != null && acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(DETAIL_CACHE)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (body.updatedAt() != null) ok.lastModified(body.updatedAt());
+        if (gzip) ok.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return ok.body(gzip ? body.gzip() : body.json());
+    }
+
+    private static ResponseEntity<byte[]> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(DETAIL_CACHE).build();
+    }
+
+    /**
+     * Whether the Accept-Encoding header allows gzip: named as {@code gzip}
+     * or {@code x-gzip}, or covered by {@code *}, with a non-zero q-value.
+     * An explicit coding wins over {@code *}.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        Double gzipQ = null;
+        double anyQ = 0;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim().toLowerCase(Locale.ROOT);
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQ = Math.max(gzipQ != null ? gzipQ : 0, qValue(params));
+            } else if (coding.equals("*")) {
+                anyQ = qValue(params);
+            }
+        }
+        return (gzipQ != null ? gzipQ : anyQ) > 0;
+    }
+
+    /** The q parameter of one Accept-Encoding element; 1 when absent, 0 when malformed. */
+    private static double qValue(String[] params) {
+        for (int i = 1; i < params.length; i++) {
+            String p = params[i].trim();
+            if (p.length() < 2 || Character.toLowerCase(p.charAt(0)) != 'q' || p.charAt(1) != '=') continue;
+            try {
+                return Double.parseDouble(p.substring(2).trim());
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        return 1;
+    }
+
+    private static String recipeEtag(Long id, Long version) {
+        return "W/\"r" + id + "-" + (version != null ? version : 0) + "\"";
+    }
+
+    private static long lastModifiedMillis(Instant updatedAt) {
+        return updatedAt != null ? updatedAt.toEpochMilli() : -1;
     }
     @GetMapping("/search")
-    public ResponseEntity<Page<RecipeSummaryResponse>> search(
+    public ResponseEntity<Slice<RecipeSummaryResponse>> search(
             @RequestParam(required = false) String q,
             @RequestParam(name = "query", required = false) String queryAlias,
             @RequestParam(required = false) String ingredients,
             @RequestParam(required = false, defaultValue = "false") boolean inPantryOnly,
+            @RequestParam(required = false) Integer maxTimeMin,
+            @RequestParam(required = false) Double minRating,
+            @RequestParam(required = false, defaultValue = "exact") String total,
             @AuthenticationPrincipal User currentUser,
             @PageableDefault(size = 20) Pageable pageable
     ) {
@@ -45,7 +180,8 @@ public class RecipeController {
             q = queryAlias;
         }
         return ResponseEntity.ok(
-                recipeService.search(q, ingredients, inPantryOnly, currentUser, pageable)
+                recipeService.search(q, ingredients, inPantryOnly, maxTimeMin, minRating, currentUser, pageable,
+                        SearchTotal.parse(total))
         );
     }
     @GetMapping("/top-rated")
@@ -54,4 +190,18 @@ public class RecipeController {
     ) {
         return ResponseEntity.ok(recipeService.listTopRated(pageable));
     }
+    @GetMapping("/top-rated/cursor")
+    public ResponseEntity<CursorPage<RecipeSummaryResponse>> listTopRatedAfter(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(recipeService.listTopRatedAfter(after, size));
+    }
+    @GetMapping("/leaderboard")
+    public ResponseEntity<CursorPage<LeaderboardEntryResponse>> leaderboard(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(leaderboard.page(after, size));
+    }
 }
@@ -1,5 +1,6 @@
 package org.example.cookingappbackend.dto.request;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.*;
 import lombok.Data;
 import java.util.List;
@@ -15,10 +16,10 @@ public class RecipeCreateRequest {
     private Integer totalTimeMin;
 
     @NotNull @Size(min = 1)
-    private List<Item> ingredients;
+    private List<@NotNull @Valid Item> ingredients;
 
     @NotNull @Size(min = 1)
-    private List<Step> steps;
+    private List<@NotNull @Valid Step> steps;
 
     @Data
     public static class Item {
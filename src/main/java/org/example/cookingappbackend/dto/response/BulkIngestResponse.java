@@ -0,0 +1,14 @@
+package org.example.cookingappbackend.dto.response;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk recipe import. {@code failed} counts every rejected
+ * element; {@code errors} lists at most the first thousand of them.
+ * {@code index} is the element's position in the submitted array.
+ */
+public record BulkIngestResponse(int received, int created, int failed, List<ItemError> errors) {
+
+    public record ItemError(int index, String title, String message) {
+    }
+}
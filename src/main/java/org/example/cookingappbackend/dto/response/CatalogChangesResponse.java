@@ -0,0 +1,54 @@
+package org.example.cookingappbackend.dto.response;
+
+import org.example.cookingappbackend.enums.CatalogEntityType;
+import org.example.cookingappbackend.model.Ingredient;
+import org.example.cookingappbackend.model.Recipe;
+import org.example.cookingappbackend.model.RecipeIngredient;
+import org.example.cookingappbackend.model.RecipeStep;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Catalog rows changed after {@code since}, in their current state. Clients
+ * apply the rows and tombstones and ask again with {@code next} while
+ * {@code hasMore} is set.
+ */
+public record CatalogChangesResponse(long since,
+                                     long next,
+                                     boolean hasMore,
+                                     List<RecipeRow> recipes,
+                                     List<RecipeIngredientRow> recipeIngredients,
+                                     List<RecipeStepRow> recipeSteps,
+                                     List<IngredientRow> ingredients,
+                                     List<Tombstone> deleted) {
+
+    public record RecipeRow(Long id, String title, String description, Integer totalTimeMin,
+                            Double avgRating, Long version, Instant updatedAt) {
+        public static RecipeRow from(Recipe r) {
+            return new RecipeRow(r.getId(), r.getTitle(), r.getDescription(), r.getTotalTimeMin(),
+                    r.getAvgRating(), r.getVersion(), r.getUpdatedAt());
+        }
+    }
+
+    public record RecipeIngredientRow(Long id, Long recipeId, Long ingredientId, Double amount) {
+        public static RecipeIngredientRow from(RecipeIngredient ri) {
+            return new RecipeIngredientRow(ri.getId(), ri.getRecipe().getId(), ri.getIngredient().getId(), ri.getAmount());
+        }
+    }
+
+    public record RecipeStepRow(Long id, Long recipeId, Integer stepNo, String instruction, Integer timeMin) {
+        public static RecipeStepRow from(RecipeStep s) {
+            return new RecipeStepRow(s.getId(), s.getRecipe().getId(), s.getStepNo(), s.getInstruction(), s.getTimeMin());
+        }
+    }
+
+    public record IngredientRow(Long id, String name, String unit, String category) {
+        public static IngredientRow from(Ingredient i) {
+            return new IngredientRow(i.getId(), i.getName(), i.getUnit(),
+                    i.getCategory() != null ? i.getCategory().name() : "OTHER");
+        }
+    }
+
+    public record Tombstone(CatalogEntityType type, Long id, Long recipeId) {}
+}
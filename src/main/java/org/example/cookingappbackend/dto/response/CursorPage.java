@@ -0,0 +1,10 @@
+package org.example.cookingappbackend.dto.response;
+
+import java.util.List;
+
+/**
+ * One keyset page. Pass {@code nextCursor} back as {@code after} to fetch the
+ * following page; it is null on the last page.
+ */
+public record CursorPage<T>(List<T> content, int size, String nextCursor, boolean hasNext) {
+}
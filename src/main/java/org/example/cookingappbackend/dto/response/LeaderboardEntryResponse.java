@@ -0,0 +1,6 @@
+package org.example.cookingappbackend.dto.response;
+
+/** A recipe on the leaderboard; {@code score} is the Bayesian average it is ranked by. */
+public record LeaderboardEntryResponse(Long id, String title, Integer time, Double rating, long ratingCount,
+                                       double score) {
+}
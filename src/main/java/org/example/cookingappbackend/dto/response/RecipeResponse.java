@@ -1,6 +1,8 @@
 package org.example.cookingappbackend.dto.response;
 
 import lombok.Data;
+
+import java.time.Instant;
 import java.util.List;
 
 @Data
@@ -10,6 +12,11 @@ public class RecipeResponse {
     private String description;
     private Integer totalTimeMin;
     private Double avgRating;
+    private Long ratingCount;
+    /** Number of 1- to 5-star ratings, in that order. */
+    private List<Long> ratingHistogram;
+    private Long version;
+    private Instant updatedAt;
     private List<IngredientLine> ingredients;
     private List<StepLine> steps;
 
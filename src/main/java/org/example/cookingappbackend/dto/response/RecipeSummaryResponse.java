@@ -1,6 +1,7 @@
 package org.example.cookingappbackend.dto.response;
 
 import org.example.cookingappbackend.model.Recipe;
+import org.example.cookingappbackend.repository.RecipeSummaryRow;
 
 public record RecipeSummaryResponse(Long id, String title, Integer time, Double rating) {
     public static RecipeSummaryResponse from(Recipe r) {
@@ -11,4 +12,8 @@ public record RecipeSummaryResponse(Long id, String title, Integer time, Double
                 r.getAvgRating()
         );
     }
+
+    public static RecipeSummaryResponse from(RecipeSummaryRow r) {
+        return new RecipeSummaryResponse(r.id(), r.title(), r.totalTimeMin(), r.avgRating());
+    }
 }
@@ -0,0 +1,5 @@
+package org.example.cookingappbackend.enums;
+
+public enum CatalogEntityType {
+    RECIPE, RECIPE_INGREDIENT, RECIPE_STEP, INGREDIENT
+}
@@ -0,0 +1,37 @@
+package org.example.cookingappbackend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.example.cookingappbackend.enums.CatalogEntityType;
+
+import java.time.Instant;
+
+/**
+ * One row of the catalog changelog. The id is the change sequence clients
+ * sync from; a row with {@code deleted} set is a tombstone.
+ */
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Entity
+@Table(name = "catalog_changes")
+public class CatalogChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private CatalogEntityType entityType;
+
+    @Column(nullable = false)
+    private Long entityId;
+
+    /** Owning recipe of ingredient lines and steps, so tombstones can be applied without a lookup. */
+    private Long recipeId;
+
+    @Column(nullable = false)
+    private boolean deleted;
+
+    @Column(nullable = false)
+    private Instant changedAt;
+}
@@ -10,10 +10,13 @@ import java.time.Instant;
 @AllArgsConstructor @NoArgsConstructor
 @Entity
 @Table(name = "favorite",
-        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "recipe_id"}))
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "recipe_id"}),
+        indexes = @Index(name = "idx_favorite_user_created_id", columnList = "user_id, created_at, id"))
 public class Favorite {
 
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "favorite_seq")
+    @SequenceGenerator(name = "favorite_seq", sequenceName = "favorite_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
@@ -3,16 +3,23 @@ package org.example.cookingappbackend.model;
 import jakarta.persistence.*;
 import lombok.*;
 import org.example.cookingappbackend.enums.IngredientCategory;
+import org.example.cookingappbackend.service.CatalogChangeTracker;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Data
 @NoArgsConstructor @AllArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "ingredients")
+@EntityListeners(CatalogChangeTracker.class)
 @Table(name = "ingredients",
         uniqueConstraints = @UniqueConstraint(name = "uk_ingredient_name", columnNames = "name"))
 public class Ingredient {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ingredients_seq")
+    @SequenceGenerator(name = "ingredients_seq", sequenceName = "ingredients_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 120)
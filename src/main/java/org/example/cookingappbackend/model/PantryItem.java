@@ -13,7 +13,8 @@ import java.time.LocalDateTime;
 public class PantryItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pantry_items_seq")
+    @SequenceGenerator(name = "pantry_items_seq", sequenceName = "pantry_items_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -9,11 +9,13 @@ import java.time.LocalDateTime;
 @NoArgsConstructor @AllArgsConstructor
 @Entity
 @Table(name = "ratings",
-        uniqueConstraints = @UniqueConstraint(name = "uk_rating_recipe_user", columnNames = {"recipe_id", "user_id"}))
+        uniqueConstraints = @UniqueConstraint(name = "uk_rating_recipe_user", columnNames = {"recipe_id", "user_id"}),
+        indexes = @Index(name = "idx_rating_recipe_created_id", columnList = "recipe_id, created_at, id"))
 public class Rating {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ratings_seq")
+    @SequenceGenerator(name = "ratings_seq", sequenceName = "ratings_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -3,17 +3,30 @@ package org.example.cookingappbackend.model;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.*;
+import org.example.cookingappbackend.service.CatalogChangeTracker;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
 @Getter @Setter
 @NoArgsConstructor @AllArgsConstructor
 @Entity
-@Table(name = "recipes")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "recipes")
+@EntityListeners(CatalogChangeTracker.class)
+@Table(name = "recipes", indexes = {
+        @Index(name = "idx_recipes_title_id", columnList = "title, id"),
+        @Index(name = "idx_recipes_avg_rating_id", columnList = "avgRating, id"),
+        @Index(name = "idx_recipes_updated_at", columnList = "updatedAt")
+})
 public class Recipe {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recipes_seq")
+    @SequenceGenerator(name = "recipes_seq", sequenceName = "recipes_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 180)
@@ -26,13 +39,59 @@ public class Recipe {
 
     private Double avgRating;
 
+    /** Rating aggregates; RatingAggregateWriter keeps them and avgRating current in one statement. */
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long ratingCount;
+
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long ratingSum;
+
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long oneStarCount;
+
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long twoStarCount;
+
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long threeStarCount;
+
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long fourStarCount;
+
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long fiveStarCount;
+
+    /** Bumped on every update; used for optimistic locking and as the HTTP ETag. */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    @ColumnDefault("current_timestamp")
+    private Instant updatedAt;
+
     @OneToMany(mappedBy = "recipe", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("id ASC")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "recipe-ingredient-lists")
     @JsonManagedReference("recipe-ingredients")
     private List<RecipeIngredient> ingredients = new ArrayList<>();
 
     @OneToMany(mappedBy = "recipe", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("stepNo ASC")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "recipe-step-lists")
     @JsonManagedReference("recipe-steps")
     private List<RecipeStep> steps = new ArrayList<>();
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = Instant.now();
+    }
 }
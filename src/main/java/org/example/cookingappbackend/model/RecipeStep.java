@@ -3,16 +3,23 @@ package org.example.cookingappbackend.model;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 import lombok.*;
+import org.example.cookingappbackend.service.CatalogChangeTracker;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Getter @Setter
 @NoArgsConstructor @AllArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "recipe-steps")
+@EntityListeners(CatalogChangeTracker.class)
 @Table(name = "recipe_steps",
         indexes = @Index(name = "idx_recipe_steps_recipe_id_step_no", columnList = "recipe_id, stepNo"))
 public class RecipeStep {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recipe_steps_seq")
+    @SequenceGenerator(name = "recipe_steps_seq", sequenceName = "recipe_steps_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
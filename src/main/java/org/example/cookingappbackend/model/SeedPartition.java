@@ -0,0 +1,30 @@
+package org.example.cookingappbackend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * A partition of the seed file that a parallel seed run committed. Written in
+ * the partition's own transaction, so a rerun after a failure skips exactly
+ * the partitions whose recipes are already in.
+ */
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Entity
+@Table(name = "seed_partitions")
+public class SeedPartition {
+    @Id
+    private Integer partitionNo;
+
+    /** Position of the partition's first recipe in the seed file. */
+    @Column(nullable = false)
+    private Integer firstRecipe;
+
+    @Column(nullable = false)
+    private Integer recipeCount;
+
+    @Column(nullable = false)
+    private Instant completedAt;
+}
@@ -17,7 +17,8 @@ import java.util.List;
 public class ShoppingList {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shopping_lists_seq")
+    @SequenceGenerator(name = "shopping_lists_seq", sequenceName = "shopping_lists_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
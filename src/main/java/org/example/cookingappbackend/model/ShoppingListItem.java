@@ -14,7 +14,8 @@ import lombok.Setter;
 public class ShoppingListItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shopping_list_items_seq")
+    @SequenceGenerator(name = "shopping_list_items_seq", sequenceName = "shopping_list_items_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
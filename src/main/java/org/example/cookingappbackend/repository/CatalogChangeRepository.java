@@ -0,0 +1,18 @@
+package org.example.cookingappbackend.repository;
+
+import org.example.cookingappbackend.model.CatalogChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface CatalogChangeRepository extends JpaRepository<CatalogChange, Long> {
+
+    List<CatalogChange> findByIdGreaterThanAndIdLessThanEqualAndChangedAtBeforeOrderByIdAsc(
+            Long since, Long ceiling, Instant cutoff, Limit limit);
+
+    @Query("select coalesce(max(c.id), 0) from CatalogChange c")
+    long findMaxId();
+}
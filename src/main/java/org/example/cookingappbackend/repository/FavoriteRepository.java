@@ -1,12 +1,13 @@
 package org.example.cookingappbackend.repository;
 
 import org.example.cookingappbackend.model.Favorite;
-import org.example.cookingappbackend.model.Recipe;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
 
 public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
@@ -17,8 +18,36 @@ public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
     @Query("delete from Favorite f where f.userId = :userId and f.recipe.id = :recipeId")
     void deleteByUserIdAndRecipeId(@Param("userId") Long userId, @Param("recipeId") Long recipeId);
 
-    @Query("select f.recipe from Favorite f where f.userId = :userId order by f.createdAt desc")
-    Page<Recipe> findRecipesByUserId(@Param("userId") Long userId, Pageable pageable);
+    @Query(value = """
+        select new org.example.cookingappbackend.repository.RecipeSummaryRow(r.id, r.title, r.totalTimeMin, r.avgRating)
+        from Favorite f join f.recipe r
+        where f.userId = :userId
+        order by f.createdAt desc
+    """, countQuery = "select count(f) from Favorite f where f.userId = :userId")
+    Page<RecipeSummaryRow> findRecipesByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("""
+        select new org.example.cookingappbackend.repository.FavoriteSummaryRow(
+            f.id, f.createdAt, r.id, r.title, r.totalTimeMin, r.avgRating)
+        from Favorite f join f.recipe r
+        where f.userId = :userId
+        order by f.createdAt desc, f.id desc
+    """)
+    List<FavoriteSummaryRow> findFirstByUserId(@Param("userId") Long userId, Limit limit);
+
+    @Query("""
+        select new org.example.cookingappbackend.repository.FavoriteSummaryRow(
+            f.id, f.createdAt, r.id, r.title, r.totalTimeMin, r.avgRating)
+        from Favorite f join f.recipe r
+        where f.userId = :userId
+          and (f.createdAt < :afterCreatedAt
+               or (f.createdAt = :afterCreatedAt and f.id < :afterId))
+        order by f.createdAt desc, f.id desc
+    """)
+    List<FavoriteSummaryRow> findByUserIdAfter(@Param("userId") Long userId,
+                                               @Param("afterCreatedAt") Instant afterCreatedAt,
+                                               @Param("afterId") Long afterId,
+                                               Limit limit);
 
     @Query("select f.recipe.id from Favorite f where f.userId = :userId")
     List<Long> findRecipeIdsByUserId(@Param("userId") Long userId);
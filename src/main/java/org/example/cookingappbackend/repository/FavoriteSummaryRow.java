@@ -0,0 +1,16 @@
+package org.example.cookingappbackend.repository;
+
+import java.time.Instant;
+
+/** A favorite with the summary columns of its recipe, for keyset pages. */
+public record FavoriteSummaryRow(Long id,
+                                 Instant createdAt,
+                                 Long recipeId,
+                                 String title,
+                                 Integer totalTimeMin,
+                                 Double avgRating) {
+
+    public RecipeSummaryRow recipe() {
+        return new RecipeSummaryRow(recipeId, title, totalTimeMin, avgRating);
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface IngredientRepository extends JpaRepository<Ingredient, Long> {
@@ -19,4 +20,7 @@ public interface IngredientRepository extends JpaRepository<Ingredient, Long> {
           i.name asc
     """)
     List<Ingredient> searchRanked(@Param("q") String q);
+
+    @Query("select i.id from Ingredient i where i.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
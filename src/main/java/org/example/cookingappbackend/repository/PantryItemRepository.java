@@ -11,16 +11,13 @@ import java.util.Optional;
 
 public interface PantryItemRepository extends JpaRepository<PantryItem, Long> {
 
-    List<PantryItem> findByUserId(Long userId);
+    @Query("select pi from PantryItem pi join fetch pi.ingredient where pi.user.id = :userId")
+    List<PantryItem> findByUserId(@Param("userId") Long userId);
 
     Optional<PantryItem> findByUserIdAndIngredientId(Long userId, Long ingredientId);
 
-    @Query("""
-        select lower(i.name) from PantryItem pi
-        join pi.ingredient i
-        where pi.user.id = :userId
-    """)
-    List<String> findIngredientNamesByUserId(@Param("userId") Long userId);
+    @Query("select pi.ingredient.id from PantryItem pi where pi.user.id = :userId")
+    List<Long> findIngredientIdsByUserId(@Param("userId") Long userId);
 
     List<PantryItem> findByUser(User user);
 
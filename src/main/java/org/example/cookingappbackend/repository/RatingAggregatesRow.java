@@ -0,0 +1,14 @@
+package org.example.cookingappbackend.repository;
+
+/**
+ * Summary columns of a recipe with the rating aggregates the leaderboard ranks
+ * by, and the row version they were read at.
+ */
+public record RatingAggregatesRow(Long id,
+                                  String title,
+                                  Integer totalTimeMin,
+                                  Double avgRating,
+                                  long ratingCount,
+                                  long ratingSum,
+                                  long version) {
+}
@@ -1,18 +1,57 @@
 package org.example.cookingappbackend.repository;
 
+import jakarta.persistence.LockModeType;
 import org.example.cookingappbackend.model.Rating;
 import org.example.cookingappbackend.model.Recipe;
 import org.example.cookingappbackend.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface RatingRepository extends JpaRepository<Rating, Long> {
 
-    List<Rating> findByRecipeIdOrderByCreatedAtDesc(Long recipeId);
+    // the author is rendered with every rating, so it is fetched along,
+    // together with the roles User loads eagerly
+    @Query("""
+     select r from Rating r
+     join fetch r.user u
+     left join fetch u.roles
+     where r.recipe.id = :recipeId
+     order by r.createdAt desc
+  """)
+    List<Rating> findByRecipeIdOrderByCreatedAtDesc(@Param("recipeId") Long recipeId);
 
-    List<Rating> findByRecipeId(Long recipeId);
+    @Query("""
+     select new org.example.cookingappbackend.repository.RatingRow(
+         r.id, r.createdAt, r.stars, r.comment, u.id, u.name, u.surname, u.email)
+     from Rating r join r.user u
+     where r.recipe.id = :recipeId
+     order by r.createdAt desc, r.id desc
+  """)
+    List<RatingRow> findFirstByRecipeId(@Param("recipeId") Long recipeId, Limit limit);
 
+    @Query("""
+     select new org.example.cookingappbackend.repository.RatingRow(
+         r.id, r.createdAt, r.stars, r.comment, u.id, u.name, u.surname, u.email)
+     from Rating r join r.user u
+     where r.recipe.id = :recipeId
+       and (r.createdAt < :afterCreatedAt
+            or (r.createdAt = :afterCreatedAt and r.id < :afterId))
+     order by r.createdAt desc, r.id desc
+  """)
+    List<RatingRow> findByRecipeIdAfter(@Param("recipeId") Long recipeId,
+                                        @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                        @Param("afterId") Long afterId,
+                                        Limit limit);
+
+    // locked, so two writes of the same rating cannot both apply their delta
+    // to the recipe aggregates against the same old star value
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
     Optional<Rating> findByRecipeAndUser(Recipe recipe, User user);
 }
@@ -0,0 +1,14 @@
+package org.example.cookingappbackend.repository;
+
+import java.time.LocalDateTime;
+
+/** A rating with the display fields of its author, for keyset pages. */
+public record RatingRow(Long id,
+                        LocalDateTime createdAt,
+                        Integer stars,
+                        String comment,
+                        Long userId,
+                        String userName,
+                        String userSurname,
+                        String userEmail) {
+}
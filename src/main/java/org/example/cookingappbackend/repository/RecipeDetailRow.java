@@ -0,0 +1,31 @@
+package org.example.cookingappbackend.repository;
+
+import org.example.cookingappbackend.enums.IngredientCategory;
+
+import java.time.Instant;
+
+/**
+ * One row of the recipe detail read: the recipe columns repeated for every
+ * ingredient line. Ingredient columns are null when the recipe has none.
+ * Steps are read separately as {@link RecipeDetailStepRow}s.
+ */
+public record RecipeDetailRow(Long recipeId,
+                              String title,
+                              String description,
+                              Integer totalTimeMin,
+                              Double avgRating,
+                              long ratingCount,
+                              long oneStarCount,
+                              long twoStarCount,
+                              long threeStarCount,
+                              long fourStarCount,
+                              long fiveStarCount,
+                              Long version,
+                              Instant updatedAt,
+                              Long lineId,
+                              Long ingredientId,
+                              String ingredientName,
+                              String unit,
+                              IngredientCategory category,
+                              Double amount) {
+}
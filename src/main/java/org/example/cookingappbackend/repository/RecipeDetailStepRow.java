@@ -0,0 +1,7 @@
+package org.example.cookingappbackend.repository;
+
+/** One step of the recipe detail read. */
+public record RecipeDetailStepRow(Integer stepNo,
+                                  String instruction,
+                                  Integer timeMin) {
+}
@@ -1,28 +1,96 @@
 package org.example.cookingappbackend.repository;
 
 import org.example.cookingappbackend.model.Recipe;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import org.springframework.data.domain.Pageable;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface RecipeRepository extends JpaRepository<Recipe, Long> {
-    Page<Recipe> findByTitleContainingIgnoreCase(String title, Pageable pageable);
-    Page<Recipe> findAllByOrderByAvgRatingDesc(Pageable pageable);
+    // Summary reads select into RecipeSummaryRow: only the four summary
+    // columns are fetched and nothing is added to the persistence context.
+    Page<RecipeSummaryRow> findSummariesBy(Pageable pageable);
+    Page<RecipeSummaryRow> findByTitleContainingIgnoreCase(String title, Pageable pageable);
+    Page<RecipeSummaryRow> findAllByOrderByAvgRatingDesc(Pageable pageable);
+
+    List<RecipeSummaryRow> findAllByOrderByTitleAscIdAsc(Limit limit);
+    List<RecipeSummaryRow> findByAvgRatingNotNullOrderByAvgRatingDescIdDesc(Limit limit);
+    List<RecipeSummaryRow> findByAvgRatingNullOrderByIdDesc(Limit limit);
+
+    @Query("""
+        select new org.example.cookingappbackend.repository.RecipeSummaryRow(r.id, r.title, r.totalTimeMin, r.avgRating)
+        from Recipe r
+        where r.title > :afterTitle
+           or (r.title = :afterTitle and r.id > :afterId)
+        order by r.title asc, r.id asc
+    """)
+    List<RecipeSummaryRow> findByTitleAfter(@Param("afterTitle") String afterTitle, @Param("afterId") Long afterId, Limit limit);
+
+    @Query("""
+        select new org.example.cookingappbackend.repository.RecipeSummaryRow(r.id, r.title, r.totalTimeMin, r.avgRating)
+        from Recipe r
+        where r.avgRating is not null
+          and (r.avgRating < :afterRating
+               or (r.avgRating = :afterRating and r.id < :afterId))
+        order by r.avgRating desc, r.id desc
+    """)
+    List<RecipeSummaryRow> findRatedAfter(@Param("afterRating") Double afterRating, @Param("afterId") Long afterId, Limit limit);
 
     @Query("""
-        select r from Recipe r
+        select new org.example.cookingappbackend.repository.RecipeSummaryRow(r.id, r.title, r.totalTimeMin, r.avgRating)
+        from Recipe r
+        where r.avgRating is null
+          and r.id < :afterId
+        order by r.id desc
+    """)
+    List<RecipeSummaryRow> findUnratedAfter(@Param("afterId") Long afterId, Limit limit);
+
+    String BY_INGREDIENT_IDS = """
+        select new org.example.cookingappbackend.repository.RecipeSummaryRow(r.id, r.title, r.totalTimeMin, r.avgRating)
+        from Recipe r
         join r.ingredients ri
-        join ri.ingredient i
-        where lower(i.name) in :names
-        group by r
-        having count(distinct(i.name)) >= :minCount
+        where ri.ingredient.id in :ids
+        group by r.id, r.title, r.totalTimeMin, r.avgRating
+        having count(distinct ri.ingredient.id) >= :minCount
+    """;
+
+    String PANTRY_RANKED = """
+  select new org.example.cookingappbackend.repository.RecipeSummaryRow(r.id, r.title, r.totalTimeMin, r.avgRating)
+  from Recipe r
+  join r.ingredients ri
+  group by r.id, r.title, r.totalTimeMin, r.avgRating
+  having sum(case when ri.ingredient.id in :ids then 1 else 0 end) >= :minCount
+  order by
+    (count(ri) - sum(case when ri.ingredient.id in :ids then 1 else 0 end)) asc,
+    sum(case when ri.ingredient.id in :ids then 1 else 0 end) desc,
+    coalesce(r.avgRating, 0) desc,
+    coalesce(r.totalTimeMin, 2147483647) asc,
+    r.title asc
+""";
+
+    @Query(BY_INGREDIENT_IDS)
+    Page<RecipeSummaryRow> searchByIngredientIds(@Param("ids") List<Long> ingredientIds, @Param("minCount") long minCount, Pageable pageable);
+
+    /** Same as {@link #searchByIngredientIds} without the count query. */
+    @Query(BY_INGREDIENT_IDS)
+    Slice<RecipeSummaryRow> sliceByIngredientIds(@Param("ids") List<Long> ingredientIds, @Param("minCount") long minCount, Pageable pageable);
+
+    @Query("""
+        select count(r) from Recipe r
+        where r.id in (select x.recipe.id from RecipeIngredient x
+                       where x.ingredient.id in :ids
+                       group by x.recipe.id
+                       having count(distinct x.ingredient.id) >= :minCount)
     """)
-    Page<Recipe> searchByIngredientNames(@Param("names") List<String> namesLower, @Param("minCount") long minCount, Pageable pageable);
+    long countByIngredientIds(@Param("ids") List<Long> ingredientIds, @Param("minCount") long minCount);
     @Query("""
      select distinct r from Recipe r
      left join fetch r.ingredients ri
@@ -36,19 +104,81 @@ public interface RecipeRepository extends JpaRepository<Recipe, Long> {
      where r.id = :id
   """)
     Optional<Recipe> findByIdWithIngredients(@Param("id") Long id);
+
+    @Query("select r.id from Recipe r where r.id > :afterId order by r.id asc")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Limit limit);
+
     @Query("""
-  select r
-  from Recipe r
-  join r.ingredients ri
-  join ri.ingredient i
-  group by r
-  having sum(case when lower(i.name) in :names then 1 else 0 end) >= :minCount
-  order by
-    (count(ri) - sum(case when lower(i.name) in :names then 1 else 0 end)) asc,
-    sum(case when lower(i.name) in :names then 1 else 0 end) desc,
-    coalesce(r.avgRating, 0) desc,
-    coalesce(r.totalTimeMin, 2147483647) asc,
-    r.title asc
-""")
-    Page<Recipe> searchPantryRanked(@Param("names") List<String> namesLower, @Param("minCount") long minCount, Pageable pageable);
-}
\ No newline at end of file
+     select distinct r from Recipe r
+     left join fetch r.ingredients ri
+     left join fetch ri.ingredient
+     where r.id in :ids
+     order by r.id asc
+  """)
+    List<Recipe> findAllWithIngredientsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Recipe with its ingredient lines, one row per line; see
+     * {@link RecipeDetailRow}. Steps come from {@link #findStepRows}, since
+     * joining both lists would return lines x steps rows.
+     */
+    @Query("""
+     select new org.example.cookingappbackend.repository.RecipeDetailRow(
+         r.id, r.title, r.description, r.totalTimeMin, r.avgRating,
+         r.ratingCount, r.oneStarCount, r.twoStarCount, r.threeStarCount, r.fourStarCount, r.fiveStarCount,
+         r.version, r.updatedAt,
+         ri.id, i.id, i.name, i.unit, i.category, ri.amount)
+     from Recipe r
+     left join r.ingredients ri
+     left join ri.ingredient i
+     where r.id = :id
+     order by ri.id asc
+  """)
+    List<RecipeDetailRow> findDetailRows(@Param("id") Long id);
+
+    @Query("""
+     select new org.example.cookingappbackend.repository.RecipeDetailStepRow(s.stepNo, s.instruction, s.timeMin)
+     from RecipeStep s
+     where s.recipe.id = :recipeId
+     order by s.stepNo asc nulls last, s.id asc
+  """)
+    List<RecipeDetailStepRow> findStepRows(@Param("recipeId") Long recipeId);
+
+    @Query("""
+     select new org.example.cookingappbackend.repository.RatingAggregatesRow(
+         r.id, r.title, r.totalTimeMin, r.avgRating, r.ratingCount, r.ratingSum, r.version)
+     from Recipe r
+     where r.id = :id
+  """)
+    Optional<RatingAggregatesRow> findRatingAggregatesById(@Param("id") Long id);
+
+    @Query("""
+     select new org.example.cookingappbackend.repository.RatingAggregatesRow(
+         r.id, r.title, r.totalTimeMin, r.avgRating, r.ratingCount, r.ratingSum, r.version)
+     from Recipe r
+     where r.ratingCount > 0
+  """)
+    List<RatingAggregatesRow> findRatedAggregates();
+
+    @Query("select new org.example.cookingappbackend.repository.RecipeVersion(r.version, r.updatedAt) from Recipe r where r.id = :id")
+    Optional<RecipeVersion> findVersionById(@Param("id") Long id);
+
+    /** Latest change anywhere in the catalog; recipes are never deleted, so this also covers inserts. */
+    @Query("select max(r.updatedAt) from Recipe r")
+    Instant findLatestUpdate();
+    @Query(PANTRY_RANKED)
+    Page<RecipeSummaryRow> searchPantryRanked(@Param("ids") List<Long> ingredientIds, @Param("minCount") long minCount, Pageable pageable);
+
+    /** Same as {@link #searchPantryRanked} without the count query. */
+    @Query(PANTRY_RANKED)
+    Slice<RecipeSummaryRow> slicePantryRanked(@Param("ids") List<Long> ingredientIds, @Param("minCount") long minCount, Pageable pageable);
+
+    @Query("""
+        select count(r) from Recipe r
+        where r.id in (select x.recipe.id from RecipeIngredient x
+                       where x.ingredient.id in :ids
+                       group by x.recipe.id
+                       having count(x) >= :minCount)
+    """)
+    long countPantryMatches(@Param("ids") List<Long> ingredientIds, @Param("minCount") long minCount);
+}
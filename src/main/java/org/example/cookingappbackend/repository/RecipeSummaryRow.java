@@ -0,0 +1,8 @@
+package org.example.cookingappbackend.repository;
+
+/**
+ * Summary columns of a recipe, read as an unmanaged projection. Component
+ * names match the entity properties so derived queries can select into it.
+ */
+public record RecipeSummaryRow(Long id, String title, Integer totalTimeMin, Double avgRating) {
+}
@@ -0,0 +1,7 @@
+package org.example.cookingappbackend.repository;
+
+import java.time.Instant;
+
+/** Version columns of a recipe, read without loading the entity. */
+public record RecipeVersion(Long version, Instant updatedAt) {
+}
@@ -3,13 +3,24 @@ package org.example.cookingappbackend.repository;
 import org.example.cookingappbackend.model.ShoppingList;
 import org.example.cookingappbackend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface ShoppingListRepository extends JpaRepository<ShoppingList, Long> {
 
-    List<ShoppingList> findByUserOrderByCreatedAtDesc(User user);
+    /** The user's lists, newest first, with item counts computed by the database. */
+    @Query("""
+     select new org.example.cookingappbackend.repository.ShoppingListSummaryRow(l.id, l.name, count(i))
+     from ShoppingList l
+     left join l.items i
+     where l.user = :user
+     group by l.id, l.name, l.createdAt
+     order by l.createdAt desc
+  """)
+    List<ShoppingListSummaryRow> findSummariesByUser(@Param("user") User user);
 
     Optional<ShoppingList> findByIdAndUser(Long id, User user);
 
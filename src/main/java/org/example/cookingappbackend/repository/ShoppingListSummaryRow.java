@@ -0,0 +1,8 @@
+package org.example.cookingappbackend.repository;
+
+/**
+ * A shopping list with the number of its items, so listing does not load
+ * every item collection just to count it.
+ */
+public record ShoppingListSummaryRow(Long id, String name, long itemsCount) {
+}
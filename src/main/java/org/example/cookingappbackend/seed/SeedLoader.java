@@ -1,150 +1,376 @@
 package org.example.cookingappbackend.seed;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityManager;
-import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Locale;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
+import org.example.cookingappbackend.enums.IngredientCategory;
 import org.example.cookingappbackend.model.Ingredient;
 import org.example.cookingappbackend.model.Recipe;
 import org.example.cookingappbackend.model.RecipeIngredient;
 import org.example.cookingappbackend.model.RecipeStep;
+import org.example.cookingappbackend.model.SeedPartition;
+import org.example.cookingappbackend.service.IngredientAutocompleteIndex;
+import org.example.cookingappbackend.service.IngredientNameMatcher;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 
+/**
+ * Loads the recipe catalog from a JSON array on first start.
+ * <p>
+ * The file is read one recipe at a time, so its size does not matter.
+ * Ingredients are resolved through an in-memory map filled once from the
+ * database, and recipes are flushed and detached every {@code batchSize}
+ * entries to keep the persistence context small.
+ * <p>
+ * {@code app.seed.mode} picks how recipes are written. {@code serial} loads
+ * everything in one transaction. {@code parallel} first resolves the whole
+ * ingredient dictionary, then cuts the file into partitions of
+ * {@code partitionSize} recipes that fork-join workers load, each in its own
+ * transaction. Committed partitions are recorded in {@link SeedPartition},
+ * so a run that lost some partitions can simply be started again.
+ */
 @Component
 public class SeedLoader {
     private static final Logger log = LoggerFactory.getLogger(SeedLoader.class);
 
     private final EntityManager em;
+    private final IngredientAutocompleteIndex autocomplete;
+    private final IngredientNameMatcher nameMatcher;
+    private final TransactionTemplate tx;
+    private final Resource seedFile;
+    private final int batchSize;
+    private final boolean parallel;
+    private final int parallelism;
+    private final int partitionSize;
 
-    public SeedLoader(EntityManager em) {
+    public SeedLoader(EntityManager em, IngredientAutocompleteIndex autocomplete, IngredientNameMatcher nameMatcher,
+                      PlatformTransactionManager txManager,
+                      @Value("${app.seed.location:classpath:seeds/recipes_seed.json}") Resource seedFile,
+                      @Value("${app.seed.batch-size:200}") int batchSize,
+                      @Value("${app.seed.mode:serial}") String mode,
+                      @Value("${app.seed.parallelism:0}") int parallelism,
+                      @Value("${app.seed.partition-size:1000}") int partitionSize) {
+        if (batchSize < 1) throw new IllegalArgumentException("app.seed.batch-size must be positive");
+        if (!mode.equals("serial") && !mode.equals("parallel")) {
+            throw new IllegalArgumentException("app.seed.mode must be serial or parallel, was " + mode);
+        }
+        if (parallelism < 0) throw new IllegalArgumentException("app.seed.parallelism must not be negative");
+        if (partitionSize < 1) throw new IllegalArgumentException("app.seed.partition-size must be positive");
         this.em = em;
+        this.autocomplete = autocomplete;
+        this.nameMatcher = nameMatcher;
+        this.tx = new TransactionTemplate(txManager);
+        this.seedFile = seedFile;
+        this.batchSize = batchSize;
+        this.parallel = mode.equals("parallel");
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.partitionSize = partitionSize;
+    }
+
+    /**
+     * Ingredients are matched on their name as stored: trimmed, case kept.
+     * Names are unique in the table, so unit and category are not part of
+     * the key; the first mention of a name decides them.
+     */
+    private static String ingredientKey(String name) {
+        return name.trim();
     }
 
-    @Transactional
     public void runOnce() {
         try {
-            Long count = em.createQuery("select count(r.id) from Recipe r", Long.class).getSingleResult();
-            if (count != null && count > 0) {
+            if (parallel) runParallel();
+            else tx.executeWithoutResult(s -> runSerial());
+        } catch (Exception e) {
+            log.error("Seed: błąd podczas wstawiania danych", e);
+            throw new RuntimeException("Seeding failed", e);
+        }
+    }
+
+    private void runSerial() {
+        long count = recipeCount();
+        if (count > 0) {
+            log.info("Seed: recipes already present ({}), skipping.", count);
+            return;
+        }
+        requireSeedFile();
+
+        ObjectMapper om = mapper();
+        Map<String, Long> ingredientIds = loadIngredientIds();
+        int ingredientsBefore = ingredientIds.size();
+        int loaded = 0;
+
+        try (InputStream is = seedFile.getInputStream();
+             JsonParser parser = openArray(om, is)) {
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                em.persist(toRecipe(om.readValue(parser, RecipeSeedDto.class), ing -> ingredient(ing, ingredientIds)));
+                if (++loaded % batchSize == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read " + seedFile.getDescription(), e);
+        }
+
+        em.flush();
+        em.clear();
+        autocomplete.refresh();
+        nameMatcher.refresh();
+        log.info("Seed: załadowano {} przepisów, {} nowych składników.", loaded, ingredientIds.size() - ingredientsBefore);
+    }
+
+    /** The ingredient dictionary of the whole file, and how many recipes it holds. */
+    private record Dictionary(Map<String, Long> ingredientIds, int recipes) {}
+
+    private void runParallel() throws IOException, InterruptedException {
+        Map<Integer, SeedPartition> done = tx.execute(s -> completedPartitions());
+        if (done.isEmpty()) {
+            long count = tx.execute(s -> recipeCount());
+            if (count > 0) {
                 log.info("Seed: recipes already present ({}), skipping.", count);
                 return;
             }
+        }
+        requireSeedFile();
 
-            ClassPathResource res = new ClassPathResource("seeds/recipes_seed.json");
-            if (!res.exists()) {
-                throw new IllegalStateException("Nie znaleziono pliku resources/seeds/recipes_seed.json");
+        long started = System.nanoTime();
+        ObjectMapper om = mapper();
+        Dictionary dictionary = tx.execute(s -> resolveDictionary(om));
+        int partitions = (dictionary.recipes() + partitionSize - 1) / partitionSize;
+        for (SeedPartition p : done.values()) {
+            if (p.getFirstRecipe() != p.getPartitionNo() * partitionSize) {
+                throw new IllegalStateException("app.seed.partition-size changed since partition "
+                        + p.getPartitionNo() + " was loaded");
             }
+        }
+        if (done.size() >= partitions) {
+            log.info("Seed: all {} partitions already loaded, skipping.", partitions);
+            return;
+        }
 
-            ObjectMapper om = new ObjectMapper()
-                    .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            try (InputStream is = new ClassPathResource("seeds/recipes_seed.json").getInputStream()) {
-                RecipeSeedDto[] arr = om.readValue(is, RecipeSeedDto[].class);
-                List<RecipeSeedDto> seeds = Arrays.asList(arr);
-
-                for (RecipeSeedDto s : seeds) {
-                    Recipe r = new Recipe();
-                    safeSet(r, "setTitle", String.class, s.title);
-                    safeSet(r, "setDescription", String.class, s.description);
-                    safeSet(r, "setTotalTimeMin", Integer.class, s.totalTimeMin);
-                    safeSet(r, "setAvgRating", Double.class, s.avgRating);
-                    em.persist(r);
-
-                    for (Ing ing : s.ingredients) {
-                        Object categoryValue = resolveCategoryValue(ing.category);
-                        Ingredient ingredient = findOrCreateIngredient(ing.ingredientName, ing.unit, categoryValue);
-
-                        RecipeIngredient ri = new RecipeIngredient();
-                        safeSet(ri, "setRecipe", Recipe.class, r);
-                        safeSet(ri, "setIngredient", Ingredient.class, ingredient);
-                        // amount = double
-                        safeSet(ri, "setAmount", Double.class, ing.amount != null ? ing.amount : 0.0);
-                        em.persist(ri);
-                    }
+        int toLoad = dictionary.recipes() - done.values().stream().mapToInt(SeedPartition::getRecipeCount).sum();
+        log.info("Seed: {} recipes in {} partitions, {} already loaded; {} left for {} workers.",
+                dictionary.recipes(), partitions, done.size(), toLoad, parallelism);
 
-                    for (Step st : s.steps) {
-                        RecipeStep step = new RecipeStep();
-                        safeSet(step, "setRecipe", Recipe.class, r);
-                        safeSet(step, "setStepNo", Integer.class, st.stepNo);
-                        safeSet(step, "setInstruction", String.class, st.instruction);
-                        safeSet(step, "setTimeMin", Integer.class, st.timeMin);
-                        em.persist(step);
-                    }
+        Map<String, Long> ingredientIds = Map.copyOf(dictionary.ingredientIds());
+        AtomicInteger loaded = new AtomicInteger();
+        List<Integer> failed = Collections.synchronizedList(new ArrayList<>());
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        // bounds how many parsed partitions wait in memory for a worker
+        Semaphore inFlight = new Semaphore(parallelism * 2);
+
+        try (InputStream is = seedFile.getInputStream();
+             JsonParser parser = openArray(om, is)) {
+            int index = 0;
+            List<RecipeSeedDto> partition = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                int partitionNo = index / partitionSize;
+                if (done.containsKey(partitionNo)) parser.skipChildren();
+                else partition.add(om.readValue(parser, RecipeSeedDto.class));
+                index++;
+
+                boolean last = index % partitionSize == 0;
+                if (last && !partition.isEmpty()) {
+                    submit(pool, inFlight, partitionNo, partition, ingredientIds, loaded, toLoad, started, failed);
+                    partition = new ArrayList<>();
                 }
+            }
+            if (!partition.isEmpty()) {
+                submit(pool, inFlight, (index - 1) / partitionSize, partition, ingredientIds, loaded, toLoad, started, failed);
+            }
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+
+        if (!failed.isEmpty()) {
+            List<Integer> sorted = failed.stream().sorted().toList();
+            throw new IllegalStateException("Seed partitions " + sorted + " failed; run the seed again to load them");
+        }
+        autocomplete.refresh();
+        nameMatcher.refresh();
+        log.info("Seed: załadowano {} przepisów w {} ms.", loaded.get(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
 
-                log.info("Seed: załadowano {} przepisów.", seeds.size());
+    private void submit(ForkJoinPool pool, Semaphore inFlight, int partitionNo, List<RecipeSeedDto> recipes,
+                        Map<String, Long> ingredientIds, AtomicInteger loaded, int toLoad, long started,
+                        List<Integer> failed) throws InterruptedException {
+        inFlight.acquire();
+        pool.execute(() -> {
+            try {
+                loadPartition(partitionNo, recipes, ingredientIds);
+                int total = loaded.addAndGet(recipes.size());
+                long ms = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+                log.info("Seed: partition {} loaded, {}/{} recipes ({} recipes/s).",
+                        partitionNo, total, toLoad, total * 1000L / ms);
+            } catch (RuntimeException e) {
+                failed.add(partitionNo);
+                log.error("Seed: partition {} failed and will be retried on the next run", partitionNo, e);
+            } finally {
+                inFlight.release();
             }
-        } catch (Exception e) {
-            log.error("Seed: błąd podczas wstawiania danych", e);
-            throw new RuntimeException("Seeding failed", e);
+        });
+    }
+
+    /** Runs on a worker thread, in a transaction and entity manager of its own. */
+    private void loadPartition(int partitionNo, List<RecipeSeedDto> recipes, Map<String, Long> ingredientIds) {
+        tx.executeWithoutResult(s -> {
+            int n = 0;
+            for (RecipeSeedDto dto : recipes) {
+                em.persist(toRecipe(dto, ing -> reference(ing, ingredientIds)));
+                if (++n % batchSize == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            em.persist(new SeedPartition(partitionNo, partitionNo * partitionSize, recipes.size(), Instant.now()));
+        });
+    }
+
+    /** Reads the file once to insert every ingredient it mentions that is not stored yet. */
+    private Dictionary resolveDictionary(ObjectMapper om) {
+        Map<String, Long> ingredientIds = loadIngredientIds();
+        int before = ingredientIds.size();
+        int recipes = 0;
+
+        try (InputStream is = seedFile.getInputStream();
+             JsonParser parser = openArray(om, is)) {
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                RecipeSeedDto s = om.readValue(parser, RecipeSeedDto.class);
+                recipes++;
+                if (s.ingredients == null) continue;
+                for (Ing ing : s.ingredients) {
+                    int known = ingredientIds.size();
+                    ingredient(ing, ingredientIds);
+                    if (ingredientIds.size() > known && (ingredientIds.size() - before) % batchSize == 0) {
+                        em.flush();
+                        em.clear();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read " + seedFile.getDescription(), e);
         }
+        log.info("Seed: {} składników w słowniku, {} nowych.", ingredientIds.size(), ingredientIds.size() - before);
+        return new Dictionary(ingredientIds, recipes);
     }
 
+    private Map<Integer, SeedPartition> completedPartitions() {
+        Map<Integer, SeedPartition> done = new HashMap<>();
+        for (SeedPartition p : em.createQuery("select p from SeedPartition p", SeedPartition.class).getResultList()) {
+            done.put(p.getPartitionNo(), p);
+        }
+        return done;
+    }
 
-    private void safeSet(Object target, String setterName, Class<?> argType, Object value) {
-        try {
-            Method m = target.getClass().getMethod(setterName, argType);
-            m.invoke(target, value);
-        } catch (NoSuchMethodException ignored) {
-        } catch (Exception ex) {
-            throw new RuntimeException("Nie udało się wywołać " + setterName + " na " + target.getClass().getSimpleName(), ex);
+    private long recipeCount() {
+        Long count = em.createQuery("select count(r.id) from Recipe r", Long.class).getSingleResult();
+        return count != null ? count : 0;
+    }
+
+    private void requireSeedFile() {
+        if (!seedFile.exists()) {
+            throw new IllegalStateException("Nie znaleziono pliku " + seedFile.getDescription());
         }
     }
 
-    private Object resolveCategoryValue(String catStr) {
-        try {
-            Field f = Ingredient.class.getDeclaredField("category");
-            Class<?> type = f.getType();
-            if (type.isEnum()) {
-                @SuppressWarnings({"rawtypes", "unchecked"})
-                Object enumVal = Enum.valueOf((Class<Enum>) type, catStr.toUpperCase(Locale.ROOT));
-                return enumVal;
-            } else {
-                return catStr;
-            }
-        } catch (Exception e) {
-            return catStr;
+    private static ObjectMapper mapper() {
+        return new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    private static JsonParser openArray(ObjectMapper om, InputStream is) throws IOException {
+        JsonParser parser = om.getFactory().createParser(is);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            parser.close();
+            throw new IllegalStateException("Seed file must contain a JSON array of recipes");
         }
+        return parser;
     }
 
-    private Ingredient findOrCreateIngredient(String name, String unit, Object categoryValue) {
-        List<Ingredient> list = em.createQuery(
-                        "select i from Ingredient i where lower(i.name)=:n and i.unit=:u and i.category=:c", Ingredient.class)
-                .setParameter("n", name.trim().toLowerCase())
-                .setParameter("u", unit)
-                .setParameter("c", categoryValue)
-                .getResultList();
+    private Map<String, Long> loadIngredientIds() {
+        Map<String, Long> ids = new HashMap<>();
+        for (Ingredient i : em.createQuery("select i from Ingredient i", Ingredient.class).getResultList()) {
+            ids.put(i.getName(), i.getId());
+        }
+        em.clear();
+        return ids;
+    }
 
-        if (!list.isEmpty()) return list.get(0);
+    private Recipe toRecipe(RecipeSeedDto s, Function<Ing, Ingredient> ingredients) {
+        Recipe r = new Recipe();
+        r.setTitle(s.title);
+        r.setDescription(s.description);
+        r.setTotalTimeMin(s.totalTimeMin);
+        r.setAvgRating(s.avgRating);
 
-        Ingredient i = new Ingredient();
-        safeSet(i, "setName", String.class, name.trim());
-        safeSet(i, "setUnit", String.class, unit);
-        try {
-            Method m;
-            try {
-                m = i.getClass().getMethod("setCategory", categoryValue.getClass());
-            } catch (NoSuchMethodException e) {
-                m = i.getClass().getMethod("setCategory", String.class);
-                categoryValue = categoryValue.toString();
+        if (s.ingredients != null) {
+            for (Ing ing : s.ingredients) {
+                RecipeIngredient ri = new RecipeIngredient();
+                ri.setRecipe(r);
+                ri.setIngredient(ingredients.apply(ing));
+                ri.setAmount(ing.amount != null ? ing.amount : 0.0);
+                r.getIngredients().add(ri);
             }
-            m.invoke(i, categoryValue);
-        } catch (Exception ex) {
-            throw new RuntimeException("Nie udało się ustawić kategorii na Ingredient", ex);
         }
+
+        if (s.steps != null) {
+            for (Step st : s.steps) {
+                RecipeStep step = new RecipeStep();
+                step.setRecipe(r);
+                step.setStepNo(st.stepNo);
+                step.setInstruction(st.instruction);
+                step.setTimeMin(st.timeMin);
+                r.getSteps().add(step);
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Returns a reference to the matching ingredient, inserting it on first
+     * use. Only the id is kept between batches, since entities are detached
+     * by every {@link EntityManager#clear()}.
+     */
+    private Ingredient ingredient(Ing ing, Map<String, Long> ingredientIds) {
+        String key = ingredientKey(ing.ingredientName);
+
+        Long id = ingredientIds.get(key);
+        if (id != null) return em.getReference(Ingredient.class, id);
+
+        Ingredient i = new Ingredient();
+        i.setName(key);
+        i.setUnit(ing.unit);
+        i.setCategory(IngredientCategory.valueOf(ing.category.trim().toUpperCase(Locale.ROOT)));
         em.persist(i);
+        ingredientIds.put(key, i.getId());
         return i;
     }
 
+    /** Lookup only, for workers sharing the dictionary resolved up front. */
+    private Ingredient reference(Ing ing, Map<String, Long> ingredientIds) {
+        Long id = ingredientIds.get(ingredientKey(ing.ingredientName));
+        if (id == null) throw new IllegalStateException("Ingredient missing from the seed dictionary: " + ing.ingredientName);
+        return em.getReference(Ingredient.class, id);
+    }
+
     public static class RecipeSeedDto {
         public String title;
         public String description;
@@ -0,0 +1,69 @@
+package org.example.cookingappbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.cookingappbackend.dto.response.RecipeSummaryResponse;
+import org.example.cookingappbackend.repository.PantryItemRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Pantry ranking computed from the ingredient bitmaps kept in
+ * {@link RecipeIngredientIndex}; only the pantry ids are read from the database.
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.pantry-engine", havingValue = "bitmap")
+@RequiredArgsConstructor
+public class BitmapPantryMatchEngine implements PantryMatchEngine {
+
+    static final Comparator<Candidate> RANKING = Comparator
+            .comparingInt(Candidate::missing)
+            .thenComparing(Comparator.comparingInt(Candidate::matched).reversed())
+            .thenComparing(Comparator.comparingDouble(Candidate::rating).reversed())
+            .thenComparingInt(Candidate::time)
+            .thenComparing(Candidate::title, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final RecipeIngredientIndex index;
+    private final PantryItemRepository pantryRepo;
+
+    record Candidate(RecipeIngredientIndex.IndexedRecipe recipe, int matched, int missing) {
+        double rating() {
+            return recipe.avgRating() != null ? recipe.avgRating() : 0d;
+        }
+
+        int time() {
+            return recipe.totalTimeMin() != null ? recipe.totalTimeMin() : Integer.MAX_VALUE;
+        }
+
+        String title() {
+            return recipe.title();
+        }
+    }
+
+    @Override
+    public Page<RecipeSummaryResponse> searchPantryRanked(Long userId, Pageable pageable) {
+        List<Long> pantryIds = pantryRepo.findIngredientIdsByUserId(userId);
+        if (pantryIds.isEmpty()) return Page.empty(pageable);
+
+        long[] pantryBits = index.toBits(pantryIds);
+        int offset = Math.toIntExact(pageable.getOffset());
+        TopK<Candidate> top = new TopK<>(offset + pageable.getPageSize(), RANKING);
+
+        for (RecipeIngredientIndex.IndexedRecipe r : index.recipes()) {
+            int matched = r.matchedCount(pantryBits);
+            if (matched == 0) continue;
+            top.offer(new Candidate(r, matched, r.ingredientCount() - matched));
+        }
+
+        List<RecipeSummaryResponse> content = top.sorted(offset).stream()
+                .map(c -> new RecipeSummaryResponse(
+                        c.recipe().id(), c.recipe().title(), c.recipe().totalTimeMin(), c.recipe().avgRating()))
+                .toList();
+        return new PageImpl<>(content, pageable, top.offered());
+    }
+}
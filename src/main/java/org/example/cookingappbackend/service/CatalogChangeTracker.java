@@ -0,0 +1,157 @@
+package org.example.cookingappbackend.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.extern.slf4j.Slf4j;
+import org.example.cookingappbackend.enums.CatalogEntityType;
+import org.example.cookingappbackend.model.*;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JPA entity listener feeding the catalog changelog ({@link CatalogChange}).
+ * Changes are collected per transaction, one per row (the last one wins),
+ * and inserted by Hibernate right before the transaction completes, after
+ * the final flush. The sequences taken stay in flight on the
+ * {@link CatalogChangeWatermark} until the transaction has completed, so
+ * {@link CatalogSyncService} does not serve past them before they are visible.
+ * <p>
+ * Hibernate creates its own instances through Spring while the entity
+ * manager factory is still being built, hence the lazy factory lookup.
+ */
+@Slf4j
+@Component
+public class CatalogChangeTracker {
+
+    private static final String INSERT = "insert into catalog_changes "
+            + "(entity_type, entity_id, recipe_id, deleted, changed_at) values (?, ?, ?, ?, ?)";
+
+    private final ObjectProvider<EntityManagerFactory> emf;
+    private final CatalogChangeWatermark watermark;
+
+    public CatalogChangeTracker(ObjectProvider<EntityManagerFactory> emf, CatalogChangeWatermark watermark) {
+        this.emf = emf;
+        this.watermark = watermark;
+    }
+
+    private record Key(CatalogEntityType type, Long id) {}
+
+    private record Change(Long recipeId, boolean deleted) {}
+
+    @PostPersist
+    @PostUpdate
+    void onSaved(Object entity) {
+        collect(entity, false);
+    }
+
+    @PostRemove
+    void onRemoved(Object entity) {
+        collect(entity, true);
+    }
+
+    private void collect(Object entity, boolean deleted) {
+        if (entity instanceof Recipe r) {
+            track(CatalogEntityType.RECIPE, r.getId(), r.getId(), deleted);
+        } else if (entity instanceof RecipeIngredient ri) {
+            track(CatalogEntityType.RECIPE_INGREDIENT, ri.getId(), recipeId(ri.getRecipe()), deleted);
+        } else if (entity instanceof RecipeStep s) {
+            track(CatalogEntityType.RECIPE_STEP, s.getId(), recipeId(s.getRecipe()), deleted);
+        } else if (entity instanceof Ingredient i) {
+            track(CatalogEntityType.INGREDIENT, i.getId(), null, deleted);
+        }
+    }
+
+    /**
+     * Records a change made without going through an entity callback, e.g.
+     * by a bulk JPQL update. Must run inside the writing transaction.
+     */
+    public void track(CatalogEntityType type, Long id, Long recipeId, boolean deleted) {
+        if (id == null) return;
+        EntityManager em = EntityManagerFactoryUtils.getTransactionalEntityManager(emf.getObject());
+        if (em == null) {
+            log.warn("Catalog change of {} {} outside a transaction is not tracked", type, id);
+            return;
+        }
+
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(session);
+        if (pending == null) {
+            pending = new Pending(session, watermark);
+            TransactionSynchronizationManager.bindResource(session, pending);
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) pending);
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) pending);
+        }
+        pending.changes.put(new Key(type, id), new Change(recipeId, deleted));
+    }
+
+    private static Long recipeId(Recipe r) {
+        return r != null ? r.getId() : null;
+    }
+
+    private static final class Pending implements BeforeTransactionCompletionProcess, AfterTransactionCompletionProcess {
+        private final SessionImplementor owner;
+        private final CatalogChangeWatermark watermark;
+        private final Map<Key, Change> changes = new LinkedHashMap<>();
+        private CatalogChangeWatermark.Slot slot;
+
+        private Pending(SessionImplementor owner, CatalogChangeWatermark watermark) {
+            this.owner = owner;
+            this.watermark = watermark;
+        }
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            if (changes.isEmpty()) return;
+            Timestamp now = Timestamp.from(Instant.now());
+            slot = watermark.open();
+            session.doWork(connection -> {
+                try (PreparedStatement ps = connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+                    for (Map.Entry<Key, Change> e : changes.entrySet()) {
+                        ps.setString(1, e.getKey().type().name());
+                        ps.setLong(2, e.getKey().id());
+                        if (e.getValue().recipeId() != null) ps.setLong(3, e.getValue().recipeId());
+                        else ps.setNull(3, Types.BIGINT);
+                        ps.setBoolean(4, e.getValue().deleted());
+                        ps.setTimestamp(5, now);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    long first = Long.MAX_VALUE;
+                    long last = Long.MIN_VALUE;
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        while (keys.next()) {
+                            first = Math.min(first, keys.getLong(1));
+                            last = Math.max(last, keys.getLong(1));
+                        }
+                    }
+                    if (first <= last) watermark.inserted(slot, first, last);
+                }
+            });
+            changes.clear();
+        }
+
+        @Override
+        public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+            if (slot != null) watermark.close(slot);
+            TransactionSynchronizationManager.unbindResourceIfPossible(owner);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.cookingappbackend.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Commit-ordered watermark over the change sequences written by this node.
+ * <p>
+ * {@link CatalogChangeTracker} opens a slot before inserting a transaction's
+ * changes and closes it once the transaction has completed. While a slot is
+ * open, its sequences may be taken but not yet visible, so
+ * {@link CatalogSyncService} serves nothing at or above the lowest of them.
+ * A slot opened before its insert does not know its sequences yet and
+ * holds readers at the highest sequence issued so far; every sequence the
+ * insert takes is above that.
+ */
+@Component
+public class CatalogChangeWatermark {
+
+    private static final long UNKNOWN = -1;
+
+    /** Highest sequence known to be taken, or {@link #UNKNOWN} until this node has written or read one. */
+    private final AtomicLong issued = new AtomicLong(UNKNOWN);
+    private final Set<Slot> inFlight = ConcurrentHashMap.newKeySet();
+
+    static final class Slot {
+        /** Every sequence of the slot is above this. */
+        private volatile long floor;
+
+        private Slot(long floor) {
+            this.floor = floor;
+        }
+    }
+
+    Slot open() {
+        Slot slot = new Slot(issued.get());
+        inFlight.add(slot);
+        return slot;
+    }
+
+    /** The slot's insert took sequences {@code first..last}. */
+    void inserted(Slot slot, long first, long last) {
+        slot.floor = first - 1;
+        issued.accumulateAndGet(last, Math::max);
+    }
+
+    void close(Slot slot) {
+        inFlight.remove(slot);
+    }
+
+    /**
+     * Highest sequence a reader may serve: every sequence up to it is either
+     * committed or rolled back. Must be taken before the changelog is read.
+     * {@code committedMax} seeds the watermark on a node that has not
+     * written a change yet.
+     */
+    public long ceiling(LongSupplier committedMax) {
+        long ceiling = issued.get();
+        if (ceiling == UNKNOWN) {
+            ceiling = committedMax.getAsLong();
+            issued.accumulateAndGet(ceiling, Math::max);
+        }
+        for (Slot slot : inFlight) ceiling = Math.min(ceiling, slot.floor);
+        return ceiling;
+    }
+}
@@ -0,0 +1,144 @@
+package org.example.cookingappbackend.service;
+
+import org.example.cookingappbackend.dto.response.CatalogChangesResponse;
+import org.example.cookingappbackend.dto.response.CatalogChangesResponse.*;
+import org.example.cookingappbackend.enums.CatalogEntityType;
+import org.example.cookingappbackend.model.*;
+import org.example.cookingappbackend.repository.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Serves catalog deltas from the changelog written by {@link CatalogChangeTracker}.
+ * <p>
+ * Change sequences are taken just before commit, but two transactions can
+ * still commit out of sequence order. Nothing at or above a sequence still in
+ * flight on this node is served ({@link CatalogChangeWatermark}), so a client
+ * never moves past a sequence that a slower local transaction is about to
+ * fill in. Writers on other nodes are not visible to the watermark; for them,
+ * changes younger than {@code app.catalog.changes.settle} are held back, which
+ * is best-effort: a remote transaction taking longer than that to commit
+ * after its changelog insert can be skipped. Raise the window if several
+ * nodes write the catalog; 0 is exact on a single node.
+ */
+@Service
+public class CatalogSyncService {
+
+    public static final int MAX_BATCH = 1000;
+
+    private final CatalogChangeRepository changeRepo;
+    private final RecipeRepository recipeRepo;
+    private final RecipeIngredientRepository recipeIngredientRepo;
+    private final RecipeStepRepository recipeStepRepo;
+    private final IngredientRepository ingredientRepo;
+    private final CatalogChangeWatermark watermark;
+    private final Duration settle;
+    private final Clock clock;
+
+    @Autowired
+    public CatalogSyncService(CatalogChangeRepository changeRepo,
+                              RecipeRepository recipeRepo,
+                              RecipeIngredientRepository recipeIngredientRepo,
+                              RecipeStepRepository recipeStepRepo,
+                              IngredientRepository ingredientRepo,
+                              CatalogChangeWatermark watermark,
+                              @Value("${app.catalog.changes.settle:2s}") Duration settle) {
+        this(changeRepo, recipeRepo, recipeIngredientRepo, recipeStepRepo, ingredientRepo, watermark, settle,
+                Clock.systemUTC());
+    }
+
+    CatalogSyncService(CatalogChangeRepository changeRepo,
+                       RecipeRepository recipeRepo,
+                       RecipeIngredientRepository recipeIngredientRepo,
+                       RecipeStepRepository recipeStepRepo,
+                       IngredientRepository ingredientRepo,
+                       CatalogChangeWatermark watermark,
+                       Duration settle,
+                       Clock clock) {
+        this.changeRepo = changeRepo;
+        this.recipeRepo = recipeRepo;
+        this.recipeIngredientRepo = recipeIngredientRepo;
+        this.recipeStepRepo = recipeStepRepo;
+        this.ingredientRepo = ingredientRepo;
+        this.watermark = watermark;
+        this.settle = settle;
+        this.clock = clock;
+    }
+
+    /**
+     * Rows changed after {@code since}, reading at most {@code limit} changelog
+     * entries. A row changed several times in the batch is returned once.
+     */
+    @Transactional(readOnly = true)
+    public CatalogChangesResponse changesSince(long since, int limit) {
+        if (since < 0) throw new IllegalArgumentException("since must not be negative");
+        if (limit < 1 || limit > MAX_BATCH) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_BATCH);
+        }
+
+        long ceiling = watermark.ceiling(changeRepo::findMaxId);
+        List<CatalogChange> changes = changeRepo.findByIdGreaterThanAndIdLessThanEqualAndChangedAtBeforeOrderByIdAsc(
+                since, ceiling, clock.instant().minus(settle), Limit.of(limit + 1));
+        boolean hasMore = changes.size() > limit;
+        if (hasMore) changes = changes.subList(0, limit);
+        if (changes.isEmpty()) {
+            return new CatalogChangesResponse(since, since, false, List.of(), List.of(), List.of(), List.of(), List.of());
+        }
+
+        Map<CatalogEntityType, Map<Long, CatalogChange>> latest = new EnumMap<>(CatalogEntityType.class);
+        for (CatalogChange c : changes) {
+            latest.computeIfAbsent(c.getEntityType(), t -> new LinkedHashMap<>()).put(c.getEntityId(), c);
+        }
+
+        List<Tombstone> deleted = new ArrayList<>();
+        List<RecipeRow> recipes = current(latest, CatalogEntityType.RECIPE, recipeRepo::findAllById,
+                Recipe::getId, RecipeRow::from, deleted);
+        List<RecipeIngredientRow> lines = current(latest, CatalogEntityType.RECIPE_INGREDIENT, recipeIngredientRepo::findAllById,
+                RecipeIngredient::getId, RecipeIngredientRow::from, deleted);
+        List<RecipeStepRow> steps = current(latest, CatalogEntityType.RECIPE_STEP, recipeStepRepo::findAllById,
+                RecipeStep::getId, RecipeStepRow::from, deleted);
+        List<IngredientRow> ingredients = current(latest, CatalogEntityType.INGREDIENT, ingredientRepo::findAllById,
+                Ingredient::getId, IngredientRow::from, deleted);
+
+        long next = changes.get(changes.size() - 1).getId();
+        return new CatalogChangesResponse(since, next, hasMore, recipes, lines, steps, ingredients, deleted);
+    }
+
+    /**
+     * Loads the live rows of one entity type. Rows whose last change is a
+     * deletion, or which are gone by now, become tombstones.
+     */
+    private static <E, R> List<R> current(Map<CatalogEntityType, Map<Long, CatalogChange>> latest,
+                                          CatalogEntityType type,
+                                          Function<List<Long>, List<E>> load,
+                                          Function<E, Long> idOf,
+                                          Function<E, R> mapper,
+                                          List<Tombstone> deleted) {
+        Map<Long, CatalogChange> byId = latest.getOrDefault(type, Map.of());
+        List<Long> live = new ArrayList<>();
+        for (CatalogChange c : byId.values()) {
+            if (c.isDeleted()) deleted.add(new Tombstone(type, c.getEntityId(), c.getRecipeId()));
+            else live.add(c.getEntityId());
+        }
+        if (live.isEmpty()) return List.of();
+
+        Map<Long, E> found = new HashMap<>();
+        for (E e : load.apply(live)) found.put(idOf.apply(e), e);
+
+        List<R> out = new ArrayList<>(found.size());
+        for (Long id : live) {
+            E e = found.get(id);
+            if (e != null) out.add(mapper.apply(e));
+            else deleted.add(new Tombstone(type, id, byId.get(id).getRecipeId()));
+        }
+        return out;
+    }
+}
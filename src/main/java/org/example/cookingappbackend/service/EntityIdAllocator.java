@@ -0,0 +1,35 @@
+package org.example.cookingappbackend.service;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.Generator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out entity ids for rows inserted with plain JDBC. Ids come from the
+ * entity's own Hibernate generator, so they are drawn from the same pooled
+ * sequence blocks as ids assigned on persist and never collide with them.
+ * Must be called inside a transaction.
+ */
+@Component
+public class EntityIdAllocator {
+
+    private final EntityManager em;
+
+    public EntityIdAllocator(EntityManager em) {
+        this.em = em;
+    }
+
+    public long next(Class<?> entityType) {
+        SharedSessionContractImplementor session = em.unwrap(SharedSessionContractImplementor.class);
+        Generator generator = session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(entityType)
+                .getGenerator();
+        if (!(generator instanceof BeforeExecutionGenerator before)) {
+            throw new IllegalStateException(entityType.getSimpleName() + " ids are assigned by the database");
+        }
+        return ((Number) before.generate(session, null, null, EventType.INSERT)).longValue();
+    }
+}
@@ -3,13 +3,18 @@ package org.example.cookingappbackend.service;
 import lombok.RequiredArgsConstructor;
 import org.example.cookingappbackend.model.Recipe;
 import org.example.cookingappbackend.repository.FavoriteRepository;
+import org.example.cookingappbackend.repository.FavoriteSummaryRow;
 import org.example.cookingappbackend.repository.RecipeRepository;
+import org.example.cookingappbackend.dto.response.CursorPage;
 import org.example.cookingappbackend.dto.response.RecipeSummaryResponse;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 @Service @RequiredArgsConstructor
@@ -37,6 +42,28 @@ public class FavoriteService {
                 .map(RecipeSummaryResponse::from);
     }
 
+    /** Keyset variant of {@link #list(Long, Pageable)}, newest favorite first. */
+    @Transactional(readOnly = true)
+    public CursorPage<RecipeSummaryResponse> listAfter(Long userId, String after, int size) {
+        KeysetCursor.checkPageSize(size);
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        Limit limit = Limit.of(size + 1);
+        List<FavoriteSummaryRow> rows = cursor == null
+                ? favoriteRepo.findFirstByUserId(userId, limit)
+                : favoriteRepo.findByUserIdAfter(userId, parseInstant(cursor.key()), cursor.id(), limit);
+        return KeysetCursor.page(rows, size,
+                f -> new KeysetCursor(f.createdAt().toString(), f.id()),
+                f -> RecipeSummaryResponse.from(f.recipe()));
+    }
+
+    private static Instant parseInstant(String key) {
+        try {
+            return Instant.parse(key);
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
     @Transactional(readOnly = true)
     public List<Long> ids(Long userId) {
         return favoriteRepo.findRecipeIdsByUserId(userId);
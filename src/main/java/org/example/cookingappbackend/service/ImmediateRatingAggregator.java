@@ -0,0 +1,19 @@
+package org.example.cookingappbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/** Updates the aggregates in the rating's own transaction; reads see them as soon as it commits. */
+@Component
+@ConditionalOnProperty(name = "app.ratings.aggregation", havingValue = "immediate", matchIfMissing = true)
+@RequiredArgsConstructor
+public class ImmediateRatingAggregator implements RatingAggregator {
+
+    private final RatingAggregateWriter writer;
+
+    @Override
+    public void record(Long recipeId, RatingDelta delta) {
+        writer.apply(recipeId, delta);
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.cookingappbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.cookingappbackend.model.Ingredient;
+import org.example.cookingappbackend.repository.IngredientRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Ingredient autocomplete served from a sorted array of lowercase names.
+ * A prefix query is a binary-searched range of that array; substring matches
+ * are only scanned for when the prefix range cannot fill the limit.
+ * Ranking matches {@code IngredientRepository.searchRanked}: prefix matches
+ * first, then shorter names, then alphabetical.
+ * <p>
+ * The array and its version are replaced together, never modified, so a
+ * reader always sees one consistent snapshot.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IngredientAutocompleteIndex {
+
+    private static final Comparator<Entry> RANKING = Comparator
+            .comparingInt((Entry e) -> e.key().length())
+            .thenComparing(e -> e.ingredient().getName());
+
+    private final IngredientRepository ingredientRepo;
+
+    private volatile Snapshot snapshot = new Snapshot(new Entry[0], 0);
+
+    private record Entry(String key, Ingredient ingredient) {}
+
+    private record Snapshot(Entry[] sorted, long version) {}
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void refresh() {
+        List<Ingredient> all = ingredientRepo.findAll();
+        Entry[] next = all.stream()
+                .filter(i -> i.getName() != null)
+                .map(IngredientAutocompleteIndex::entry)
+                .sorted(Comparator.comparing(Entry::key))
+                .toArray(Entry[]::new);
+        snapshot = new Snapshot(next, nextVersion());
+        log.info("Ingredient autocomplete: {} ingredients", next.length);
+    }
+
+    public synchronized void add(Ingredient ingredient) {
+        if (ingredient == null || ingredient.getName() == null) return;
+
+        Entry e = entry(ingredient);
+        Entry[] current = snapshot.sorted();
+        int pos = lowerBound(current, e.key());
+        Entry[] next = new Entry[current.length + 1];
+        System.arraycopy(current, 0, next, 0, pos);
+        next[pos] = e;
+        System.arraycopy(current, pos, next, pos + 1, current.length - pos);
+        snapshot = new Snapshot(next, nextVersion());
+    }
+
+    /**
+     * Changes whenever the indexed ingredients change, and across restarts,
+     * so it can serve as the ETag of autocomplete responses.
+     */
+    public long version() {
+        return snapshot.version();
+    }
+
+    public List<Ingredient> search(String query, int limit) {
+        if (query == null || limit < 1) return List.of();
+        String q = query.trim().toLowerCase();
+        if (q.isEmpty()) return List.of();
+
+        Entry[] sorted = snapshot.sorted();
+        int from = lowerBound(sorted, q);
+        int to = lowerBound(sorted, q + Character.MAX_VALUE);
+
+        TopK<Entry> prefix = new TopK<>(limit, RANKING);
+        for (int i = from; i < to; i++) prefix.offer(sorted[i]);
+
+        List<Ingredient> out = new ArrayList<>(limit);
+        prefix.sorted(0).forEach(e -> out.add(e.ingredient()));
+        if (out.size() >= limit) return out;
+
+        TopK<Entry> infix = new TopK<>(limit - out.size(), RANKING);
+        for (int i = 0; i < sorted.length; i++) {
+            if (i >= from && i < to) continue;
+            if (sorted[i].key().contains(q)) infix.offer(sorted[i]);
+        }
+        infix.sorted(0).forEach(e -> out.add(e.ingredient()));
+        return out;
+    }
+
+    private long nextVersion() {
+        return Math.max(snapshot.version() + 1, System.currentTimeMillis());
+    }
+
+    private static Entry entry(Ingredient i) {
+        Ingredient copy = new Ingredient(i.getId(), i.getName(), i.getUnit(), i.getCategory());
+        return new Entry(i.getName().toLowerCase(), copy);
+    }
+
+    private static int lowerBound(Entry[] arr, String key) {
+        int lo = 0, hi = arr.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (arr[mid].key().compareTo(key) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
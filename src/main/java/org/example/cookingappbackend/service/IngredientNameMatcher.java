@@ -0,0 +1,152 @@
+package org.example.cookingappbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.cookingappbackend.model.Ingredient;
+import org.example.cookingappbackend.repository.IngredientRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves free-text ingredient tokens ("ziemniaki", "ziemnaki", "ZIEMNIAK")
+ * to ingredient ids. Names are folded (lowercase, Polish diacritics removed),
+ * candidates are looked up through a trigram index and verified with a
+ * bounded Levenshtein distance.
+ * <p>
+ * A refresh builds a new {@link Index} aside and publishes it in one write,
+ * so lookups never see it half filled; {@link #add} extends the live one.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IngredientNameMatcher {
+
+    private final IngredientRepository ingredientRepo;
+
+    private volatile Index index = new Index();
+
+    private record Index(Map<String, Long> exact, Map<String, Set<Long>> trigrams, Map<Long, String> folded) {
+        Index() {
+            this(new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        }
+
+        void add(Ingredient ingredient) {
+            if (ingredient == null || ingredient.getId() == null || ingredient.getName() == null) return;
+
+            String key = fold(ingredient.getName());
+            if (key.isEmpty()) return;
+            folded.put(ingredient.getId(), key);
+            exact.merge(key, ingredient.getId(), Math::min);
+            for (String g : grams(key)) {
+                trigrams.computeIfAbsent(g, k -> ConcurrentHashMap.newKeySet()).add(ingredient.getId());
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void refresh() {
+        Index next = new Index();
+        ingredientRepo.findAll().forEach(next::add);
+        index = next;
+        log.info("Ingredient name matcher: {} ingredients, {} trigrams", next.folded().size(), next.trigrams().size());
+    }
+
+    public synchronized void add(Ingredient ingredient) {
+        index.add(ingredient);
+    }
+
+    /** Best matching ingredient id for a single token, if any is close enough. */
+    public Optional<Long> resolve(String token) {
+        if (token == null) return Optional.empty();
+        String q = fold(token);
+        if (q.isEmpty()) return Optional.empty();
+
+        Index idx = index;
+        Long hit = idx.exact().get(q);
+        if (hit != null) return Optional.of(hit);
+
+        Map<Long, Integer> shared = new HashMap<>();
+        for (String g : grams(q)) {
+            Set<Long> ids = idx.trigrams().get(g);
+            if (ids == null) continue;
+            for (Long id : ids) shared.merge(id, 1, Integer::sum);
+        }
+
+        int maxDistance = maxDistance(q);
+        Long best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        int bestShared = 0;
+        for (Map.Entry<Long, Integer> e : shared.entrySet()) {
+            String name = idx.folded().get(e.getKey());
+            if (name == null || Math.abs(name.length() - q.length()) > maxDistance) continue;
+            int d = distance(q, name, maxDistance);
+            if (d > maxDistance) continue;
+            if (d < bestDistance
+                    || (d == bestDistance && e.getValue() > bestShared)
+                    || (d == bestDistance && e.getValue() == bestShared && e.getKey() < best)) {
+                best = e.getKey();
+                bestDistance = d;
+                bestShared = e.getValue();
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    /**
+     * Resolves each token, keeping token order and dropping duplicates.
+     * Tokens without a match are collected into {@code unresolved} when given.
+     */
+    public List<Long> resolveAll(Collection<String> tokens, Collection<String> unresolved) {
+        LinkedHashSet<Long> ids = new LinkedHashSet<>();
+        for (String t : tokens) {
+            Optional<Long> id = resolve(t);
+            if (id.isPresent()) ids.add(id.get());
+            else if (unresolved != null) unresolved.add(t);
+        }
+        return new ArrayList<>(ids);
+    }
+
+    static String fold(String s) {
+        String lower = s.trim().toLowerCase(Locale.ROOT).replace('ł', 'l');
+        String stripped = Normalizer.normalize(lower, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return stripped.replaceAll("\\s+", " ");
+    }
+
+    private static int maxDistance(String q) {
+        if (q.length() <= 3) return 0;
+        if (q.length() <= 5) return 1;
+        return 2;
+    }
+
+    private static Set<String> grams(String s) {
+        String padded = "  " + s + " ";
+        Set<String> out = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) out.add(padded.substring(i, i + 3));
+        return out;
+    }
+
+    /** Levenshtein distance, giving up (returning max + 1) once it exceeds {@code max}. */
+    static int distance(String a, String b, int max) {
+        int[] prev = new int[b.length() + 1];
+        int[] cur = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) prev[j] = j;
+
+        for (int i = 1; i <= a.length(); i++) {
+            cur[0] = i;
+            int rowMin = cur[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                cur[j] = Math.min(Math.min(cur[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+                rowMin = Math.min(rowMin, cur[j]);
+            }
+            if (rowMin > max) return max + 1;
+            int[] t = prev; prev = cur; cur = t;
+        }
+        return prev[b.length()];
+    }
+}
@@ -14,6 +14,8 @@ import java.util.List;
 public class IngredientService {
 
     private final IngredientRepository repo;
+    private final IngredientAutocompleteIndex autocomplete;
+    private final IngredientNameMatcher nameMatcher;
 
     public IngredientResponse create(IngredientResponse dto) {
         Ingredient ing = new Ingredient();
@@ -24,6 +26,8 @@ public class IngredientService {
         } catch (DataIntegrityViolationException e) {
             throw new IllegalArgumentException("Ingredient with this name already exists");
         }
+        autocomplete.add(ing);
+        nameMatcher.add(ing);
         dto.setId(ing.getId());
         return dto;
     }
@@ -0,0 +1,54 @@
+package org.example.cookingappbackend.service;
+
+import org.example.cookingappbackend.dto.response.CursorPage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Opaque keyset pagination token: the sort key and id of the last row of a
+ * page. {@code key} is null when the last row had no sort value
+ * (e.g. an unrated recipe).
+ */
+public record KeysetCursor(String key, long id) {
+
+    static final int MAX_PAGE_SIZE = 100;
+
+    public String encode() {
+        String raw = key == null ? Long.toString(id) : id + ":" + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Returns null for a missing token; throws IllegalArgumentException for a malformed one. */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            return sep < 0
+                    ? new KeysetCursor(null, Long.parseLong(raw))
+                    : new KeysetCursor(raw.substring(sep + 1), Long.parseLong(raw.substring(0, sep)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    static void checkPageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    /**
+     * Builds a page from up to {@code size + 1} rows; the extra row only
+     * signals that another page exists.
+     */
+    static <E, T> CursorPage<T> page(List<E> rows, int size, Function<E, KeysetCursor> cursorOf, Function<E, T> mapper) {
+        boolean hasNext = rows.size() > size;
+        List<E> content = hasNext ? rows.subList(0, size) : rows;
+        String next = hasNext ? cursorOf.apply(content.get(content.size() - 1)).encode() : null;
+        return new CursorPage<>(content.stream().map(mapper).toList(), content.size(), next, hasNext);
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.cookingappbackend.service;
+
+import org.example.cookingappbackend.dto.response.RecipeSummaryResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+/**
+ * Ranks recipes against a user's pantry: fewest missing ingredients first,
+ * then most matched, avgRating, totalTimeMin and title.
+ * Selected with {@code app.search.pantry-engine} ({@code sql} or {@code bitmap}).
+ */
+public interface PantryMatchEngine {
+
+    Page<RecipeSummaryResponse> searchPantryRanked(Long userId, Pageable pageable);
+
+    /** Engines whose total is cheap ignore {@code total} and always return a full page. */
+    default Slice<RecipeSummaryResponse> searchPantryRanked(Long userId, Pageable pageable, SearchTotal total) {
+        return searchPantryRanked(userId, pageable);
+    }
+}
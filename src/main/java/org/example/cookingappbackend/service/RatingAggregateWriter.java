@@ -0,0 +1,80 @@
+package org.example.cookingappbackend.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.example.cookingappbackend.enums.CatalogEntityType;
+import org.example.cookingappbackend.model.Recipe;
+import org.example.cookingappbackend.repository.RatingAggregatesRow;
+import org.example.cookingappbackend.repository.RecipeRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Writes a {@link RatingDelta} to the recipe row and brings the in-memory
+ * indexes and caches along. Must be called inside a transaction; the indexes
+ * are updated, and cache listeners see the {@link RatingChangedEvent}, once
+ * it commits.
+ * <p>
+ * The delta is added in a single UPDATE, so concurrent writers never lose an
+ * update and the row lock lasts one statement. It goes through JDBC rather
+ * than a Hibernate bulk update, because Hibernate empties the entity's whole
+ * second-level cache region on any bulk statement; instead only this
+ * recipe's entry is evicted, once right away and once after commit, so a
+ * reader that loaded the old row in between cannot leave it cached.
+ */
+@Component
+@RequiredArgsConstructor
+public class RatingAggregateWriter {
+
+    private static final String APPLY_DELTA = "update recipes set "
+            + "rating_count = rating_count + ?, "
+            + "rating_sum = rating_sum + ?, "
+            + "one_star_count = one_star_count + ?, "
+            + "two_star_count = two_star_count + ?, "
+            + "three_star_count = three_star_count + ?, "
+            + "four_star_count = four_star_count + ?, "
+            + "five_star_count = five_star_count + ?, "
+            + "avg_rating = case when rating_count + ? = 0 then 0.0 "
+            + "else cast(rating_sum + ? as double precision) / (rating_count + ?) end, "
+            + "version = version + 1, "
+            + "updated_at = ? "
+            + "where id = ?";
+
+    private final JdbcTemplate jdbc;
+    private final EntityManagerFactory emf;
+    private final RecipeRepository recipeRepository;
+    private final RecipeIngredientIndex ingredientIndex;
+    private final RecipeLeaderboard leaderboard;
+    private final CatalogChangeTracker changeTracker;
+    private final ApplicationEventPublisher events;
+
+    public void apply(Long recipeId, RatingDelta delta) {
+        if (delta.isZero()) return;
+        int updated = jdbc.update(APPLY_DELTA, delta.count(), delta.sum(), delta.oneStar(), delta.twoStar(),
+                delta.threeStar(), delta.fourStar(), delta.fiveStar(), delta.count(), delta.sum(), delta.count(),
+                Timestamp.from(Instant.now()), recipeId);
+        if (updated == 0) return; // recipe deleted since the rating was written
+        // plain JDBC bypasses the entity listener and the second-level cache
+        changeTracker.track(CatalogEntityType.RECIPE, recipeId, recipeId, false);
+        evict(recipeId);
+
+        Optional<RatingAggregatesRow> aggregates = recipeRepository.findRatingAggregatesById(recipeId);
+        if (aggregates.isEmpty()) return;
+        RatingAggregatesRow row = aggregates.get();
+        AfterCommit.run(() -> {
+            evict(recipeId);
+            ingredientIndex.updateAvgRating(recipeId, row.avgRating(), row.version());
+            leaderboard.update(row);
+        });
+        events.publishEvent(new RatingChangedEvent(recipeId));
+    }
+
+    private void evict(Long recipeId) {
+        emf.getCache().evict(Recipe.class, recipeId);
+    }
+}
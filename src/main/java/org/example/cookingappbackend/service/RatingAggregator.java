@@ -0,0 +1,12 @@
+package org.example.cookingappbackend.service;
+
+/**
+ * Folds rating writes into the recipe's rating aggregates (count, sum,
+ * histogram and avgRating). Selected with {@code app.ratings.aggregation}
+ * ({@code immediate} or {@code write-behind}).
+ */
+public interface RatingAggregator {
+
+    /** Called inside the transaction that wrote the rating. */
+    void record(Long recipeId, RatingDelta delta);
+}
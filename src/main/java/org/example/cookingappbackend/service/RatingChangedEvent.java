@@ -0,0 +1,5 @@
+package org.example.cookingappbackend.service;
+
+/** Published when a rating of the recipe is added, changed or removed. */
+public record RatingChangedEvent(Long recipeId) {
+}
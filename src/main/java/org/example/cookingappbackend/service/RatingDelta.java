@@ -0,0 +1,37 @@
+package org.example.cookingappbackend.service;
+
+/**
+ * Change to a recipe's rating aggregates. Deltas are additive, so any number
+ * of them can be combined with {@link #plus} and applied in one update.
+ */
+public record RatingDelta(long count, long sum,
+                          long oneStar, long twoStar, long threeStar, long fourStar, long fiveStar) {
+
+    public static final RatingDelta ZERO = new RatingDelta(0, 0, 0, 0, 0, 0, 0);
+
+    /** One rating replaced by another; star values, 0 when none was added or removed. */
+    public static RatingDelta of(int added, int removed) {
+        return new RatingDelta(
+                (added > 0 ? 1 : 0) - (removed > 0 ? 1 : 0),
+                added - removed,
+                star(1, added, removed),
+                star(2, added, removed),
+                star(3, added, removed),
+                star(4, added, removed),
+                star(5, added, removed));
+    }
+
+    public RatingDelta plus(RatingDelta other) {
+        return new RatingDelta(count + other.count, sum + other.sum,
+                oneStar + other.oneStar, twoStar + other.twoStar, threeStar + other.threeStar,
+                fourStar + other.fourStar, fiveStar + other.fiveStar);
+    }
+
+    public boolean isZero() {
+        return equals(ZERO);
+    }
+
+    private static long star(int value, int added, int removed) {
+        return (added == value ? 1 : 0) - (removed == value ? 1 : 0);
+    }
+}
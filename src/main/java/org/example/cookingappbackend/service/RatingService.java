@@ -2,18 +2,22 @@ package org.example.cookingappbackend.service;
 
 import lombok.RequiredArgsConstructor;
 import org.example.cookingappbackend.dto.request.RatingRequest;
+import org.example.cookingappbackend.dto.response.CursorPage;
 import org.example.cookingappbackend.dto.response.RatingResponse;
 import org.example.cookingappbackend.model.Rating;
 import org.example.cookingappbackend.model.Recipe;
 import org.example.cookingappbackend.model.User;
 import org.example.cookingappbackend.repository.RatingRepository;
+import org.example.cookingappbackend.repository.RatingRow;
 import org.example.cookingappbackend.repository.RecipeRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 @Service
@@ -22,6 +26,7 @@ public class RatingService {
 
     private final RatingRepository ratingRepository;
     private final RecipeRepository recipeRepository;
+    private final RatingAggregator aggregator;
 
     @Transactional(readOnly = true)
     public List<RatingResponse> getRatings(Long recipeId, User currentUser) {
@@ -36,6 +41,43 @@ public class RatingService {
                 .toList();
     }
 
+    /**
+     * Keyset page of a recipe's ratings, newest first, authors included. The
+     * recipe is only looked up when the page comes back empty, to tell an
+     * unrated recipe from a missing one.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<RatingResponse> getRatingsAfter(Long recipeId, User currentUser, String after, int size) {
+        KeysetCursor.checkPageSize(size);
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        Limit limit = Limit.of(size + 1);
+        List<RatingRow> rows = cursor == null
+                ? ratingRepository.findFirstByRecipeId(recipeId, limit)
+                : ratingRepository.findByRecipeIdAfter(recipeId, parseCreatedAt(cursor.key()), cursor.id(), limit);
+        if (rows.isEmpty() && !recipeRepository.existsById(recipeId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Recipe not found");
+        }
+
+        Long currentUserId = currentUser != null ? currentUser.getId() : null;
+        return KeysetCursor.page(rows, size,
+                r -> new KeysetCursor(r.createdAt().toString(), r.id()),
+                r -> new RatingResponse(
+                        r.id(),
+                        displayName(r.userName(), r.userSurname(), r.userEmail()),
+                        r.stars(),
+                        r.comment(),
+                        r.createdAt(),
+                        r.userId().equals(currentUserId)));
+    }
+
+    private static LocalDateTime parseCreatedAt(String key) {
+        try {
+            return LocalDateTime.parse(key);
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
     @Transactional
     public void upsertRating(Long recipeId, User currentUser, RatingRequest req) {
         if (currentUser == null) {
@@ -57,11 +99,12 @@ public class RatingService {
                     return r;
                 });
 
+        int previousStars = rating.getStars() != null ? rating.getStars() : 0;
         rating.setStars(req.getStars());
         rating.setComment(req.getComment());
         ratingRepository.save(rating);
 
-        recalcAvg(recipeId, recipe);
+        aggregator.record(recipeId, RatingDelta.of(req.getStars(), previousStars));
     }
 
     @Transactional
@@ -78,35 +121,13 @@ public class RatingService {
 
         ratingRepository.delete(rating);
 
-        recalcAvg(recipeId, recipe);
-    }
-
-    private void recalcAvg(Long recipeId, Recipe recipe) {
-        List<Rating> all = ratingRepository.findByRecipeId(recipeId);
-
-        double avg = all.stream()
-                .mapToInt(Rating::getStars)
-                .average()
-                .orElse(0.0);
-
-        recipe.setAvgRating(avg);
-        recipeRepository.save(recipe);
+        aggregator.record(recipeId, RatingDelta.of(0, rating.getStars()));
     }
 
     private RatingResponse toResponse(Rating rating, Long currentUserId) {
-        String displayName = "Użytkownik";
-        if (rating.getUser() != null) {
-            String n = rating.getUser().getName();
-            String s = rating.getUser().getSurname();
-            if (n != null || s != null) {
-                displayName =
-                        (n != null ? n : "") +
-                                ((n != null && s != null) ? " " : "") +
-                                (s != null ? s : "");
-            } else if (rating.getUser().getEmail() != null) {
-                displayName = rating.getUser().getEmail();
-            }
-        }
+        String displayName = rating.getUser() != null
+                ? displayName(rating.getUser().getName(), rating.getUser().getSurname(), rating.getUser().getEmail())
+                : "Użytkownik";
 
         boolean mine = currentUserId != null
                 && rating.getUser() != null
@@ -121,4 +142,13 @@ public class RatingService {
                 mine
         );
     }
+
+    private static String displayName(String n, String s, String email) {
+        if (n != null || s != null) {
+            return (n != null ? n : "") +
+                    ((n != null && s != null) ? " " : "") +
+                    (s != null ? s : "");
+        }
+        return email != null ? email : "Użytkownik";
+    }
 }
@@ -0,0 +1,5 @@
+package org.example.cookingappbackend.service;
+
+/** Published when a recipe is created or its content changes. */
+public record RecipeChangedEvent(Long recipeId) {
+}
@@ -0,0 +1,60 @@
+package org.example.cookingappbackend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.cookingappbackend.dto.response.RecipeResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Recipe detail responses by id. Cached responses are shared between
+ * requests: their lists are unmodifiable and callers must not modify them.
+ * An entry is dropped after commit of any change to the recipe or its
+ * ratings; metrics are published with {@code cache=recipe.detail}.
+ */
+@Component
+public class RecipeDetailCache {
+
+    private final Cache<Long, RecipeResponse> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    public RecipeDetailCache(@Value("${app.recipes.detail-cache.max-size:10000}") long maxSize,
+                             MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "recipe.detail");
+    }
+
+    public RecipeResponse get(Long id, Supplier<RecipeResponse> loader) {
+        RecipeResponse hit = cache.getIfPresent(id);
+        if (hit != null) return hit;
+
+        long gen = generation.get();
+        RecipeResponse value = loader.get();
+        if (generation.get() == gen) cache.put(id, value);
+        return value;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        evict(event.recipeId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRatingChanged(RatingChangedEvent event) {
+        evict(event.recipeId());
+    }
+
+    public void evict(Long id) {
+        generation.incrementAndGet();
+        if (id != null) cache.invalidate(id);
+    }
+}
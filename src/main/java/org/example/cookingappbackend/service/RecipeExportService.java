@@ -0,0 +1,86 @@
+package org.example.cookingappbackend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.example.cookingappbackend.model.Recipe;
+import org.example.cookingappbackend.repository.RecipeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the whole catalog as newline-delimited JSON, one recipe (with its
+ * ingredient lines) per line. Recipes are read in fixed-size id ranges, each
+ * in its own read-only transaction, so at most one chunk of entities is
+ * attached and in memory at any time regardless of catalog size.
+ */
+@Slf4j
+@Service
+public class RecipeExportService {
+
+    private static final byte NEWLINE = '\n';
+
+    private final RecipeRepository recipeRepo;
+    private final TransactionTemplate readOnlyTx;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public RecipeExportService(RecipeRepository recipeRepo,
+                               PlatformTransactionManager txManager,
+                               ObjectMapper objectMapper,
+                               @Value("${app.recipes.export.chunk-size:500}") int chunkSize) {
+        if (chunkSize < 1) throw new IllegalArgumentException("chunk-size must be positive");
+        this.recipeRepo = recipeRepo;
+        this.readOnlyTx = new TransactionTemplate(txManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    /** Encoded lines of one id range and the last id it covered. */
+    private record Chunk(List<byte[]> lines, long lastId) {}
+
+    /** Streams every recipe to {@code out}; returns the number written. Does not close {@code out}. */
+    public long exportNdjson(OutputStream out) throws IOException {
+        long written = 0;
+        long afterId = 0;
+        while (true) {
+            long from = afterId;
+            Chunk chunk = readOnlyTx.execute(status -> readChunk(from));
+            if (chunk == null || chunk.lines().isEmpty()) break;
+
+            for (byte[] line : chunk.lines()) {
+                out.write(line);
+                out.write(NEWLINE);
+            }
+            out.flush();
+            written += chunk.lines().size();
+            afterId = chunk.lastId();
+        }
+        log.info("Recipe export: {} recipes", written);
+        return written;
+    }
+
+    private Chunk readChunk(long afterId) {
+        List<Long> ids = recipeRepo.findIdsAfter(afterId, Limit.of(chunkSize));
+        if (ids.isEmpty()) return new Chunk(List.of(), afterId);
+
+        List<byte[]> lines = new ArrayList<>(ids.size());
+        for (Recipe r : recipeRepo.findAllWithIngredientsByIdIn(ids)) {
+            try {
+                lines.add(objectMapper.writeValueAsBytes(RecipeService.toResponseWithoutSteps(r)));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Cannot serialize recipe " + r.getId(), e);
+            }
+        }
+        return new Chunk(lines, ids.get(ids.size() - 1));
+    }
+}
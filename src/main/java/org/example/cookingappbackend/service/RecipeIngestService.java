@@ -0,0 +1,326 @@
+package org.example.cookingappbackend.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.example.cookingappbackend.dto.request.RecipeCreateRequest;
+import org.example.cookingappbackend.dto.response.BulkIngestResponse;
+import org.example.cookingappbackend.dto.response.BulkIngestResponse.ItemError;
+import org.example.cookingappbackend.enums.CatalogEntityType;
+import org.example.cookingappbackend.model.Ingredient;
+import org.example.cookingappbackend.model.Recipe;
+import org.example.cookingappbackend.model.RecipeIngredient;
+import org.example.cookingappbackend.model.RecipeStep;
+import org.example.cookingappbackend.repository.IngredientRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Imports a JSON array of recipes without holding the whole array in memory.
+ * Elements are parsed one at a time and written in chunks, each chunk in its
+ * own transaction: one lookup resolves the chunk's ingredient ids, then
+ * recipes, ingredient lines and steps go in as three JDBC batches. Row ids
+ * are taken from the entities' pooled sequences up front.
+ * <p>
+ * Bad elements are reported by index and skipped. A chunk that fails to
+ * write, whether the database rejects it or binding a row throws, is
+ * retried item by item, so one bad row costs only itself.
+ */
+@Slf4j
+@Service
+public class RecipeIngestService {
+
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String INSERT_RECIPE = "insert into recipes "
+            + "(id, title, description, total_time_min, version, updated_at) values (?, ?, ?, ?, 0, ?)";
+    private static final String INSERT_LINE = "insert into recipe_ingredients "
+            + "(id, recipe_id, ingredient_id, amount) values (?, ?, ?, ?)";
+    private static final String INSERT_STEP = "insert into recipe_steps "
+            + "(id, recipe_id, step_no, instruction, time_min) values (?, ?, ?, ?, ?)";
+
+    private final IngredientRepository ingredientRepo;
+    private final JdbcTemplate jdbc;
+    private final EntityIdAllocator ids;
+    private final CatalogChangeTracker changeTracker;
+    private final RecipeIngredientIndex ingredientIndex;
+    private final ApplicationEventPublisher events;
+    private final TransactionTemplate tx;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int chunkSize;
+
+    public RecipeIngestService(IngredientRepository ingredientRepo,
+                               JdbcTemplate jdbc,
+                               EntityIdAllocator ids,
+                               CatalogChangeTracker changeTracker,
+                               RecipeIngredientIndex ingredientIndex,
+                               ApplicationEventPublisher events,
+                               PlatformTransactionManager txManager,
+                               ObjectMapper objectMapper,
+                               Validator validator,
+                               @Value("${app.recipes.ingest.chunk-size:500}") int chunkSize) {
+        if (chunkSize < 1) throw new IllegalArgumentException("chunk-size must be positive");
+        this.ingredientRepo = ingredientRepo;
+        this.jdbc = jdbc;
+        this.ids = ids;
+        this.changeTracker = changeTracker;
+        this.ingredientIndex = ingredientIndex;
+        this.events = events;
+        this.tx = new TransactionTemplate(txManager);
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+    }
+
+    /** One parsed array element and its position in the request. */
+    private record Item(int index, RecipeCreateRequest req) {}
+
+    /** What a committed chunk produced: the stored recipes and the items it turned away. */
+    private record Written(List<Recipe> created, List<ItemError> rejected) {}
+
+    private static final class Outcome {
+        int received;
+        int created;
+        int failed;
+        final List<ItemError> errors = new ArrayList<>();
+
+        void reject(ItemError error) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) errors.add(error);
+        }
+
+        void reject(int index, String title, String message) {
+            reject(new ItemError(index, title, message));
+        }
+    }
+
+    public BulkIngestResponse ingest(InputStream in) throws IOException {
+        Outcome outcome = new Outcome();
+        List<Item> chunk = new ArrayList<>(chunkSize);
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (nextToken(parser) != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of recipes");
+            }
+            while (true) {
+                JsonNode node;
+                try {
+                    JsonToken token = parser.nextToken();
+                    if (token == null || token == JsonToken.END_ARRAY) break;
+                    node = parser.readValueAsTree();
+                } catch (JsonProcessingException e) {
+                    outcome.reject(outcome.received, null, "Malformed JSON, import stopped: " + e.getOriginalMessage());
+                    break;
+                }
+
+                int index = outcome.received++;
+                Item item = toItem(index, node, outcome);
+                if (item == null) continue;
+
+                chunk.add(item);
+                if (chunk.size() == chunkSize) {
+                    write(chunk, outcome);
+                    chunk.clear();
+                }
+            }
+        }
+        write(chunk, outcome);
+
+        log.info("Bulk import: {} received, {} created, {} failed", outcome.received, outcome.created, outcome.failed);
+        return new BulkIngestResponse(outcome.received, outcome.created, outcome.failed, outcome.errors);
+    }
+
+    private static JsonToken nextToken(JsonParser parser) throws IOException {
+        try {
+            return parser.nextToken();
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private Item toItem(int index, JsonNode node, Outcome outcome) {
+        String title = node.path("title").isTextual() ? node.get("title").asText() : null;
+        RecipeCreateRequest req;
+        try {
+            req = objectMapper.treeToValue(node, RecipeCreateRequest.class);
+        } catch (JsonProcessingException e) {
+            outcome.reject(index, title, "Unreadable recipe: " + e.getOriginalMessage());
+            return null;
+        }
+
+        Set<ConstraintViolation<RecipeCreateRequest>> violations = validator.validate(req);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            outcome.reject(index, title, message);
+            return null;
+        }
+        return new Item(index, req);
+    }
+
+    private void write(List<Item> chunk, Outcome outcome) {
+        if (chunk.isEmpty()) return;
+
+        Written written;
+        try {
+            written = tx.execute(status -> insert(chunk));
+        } catch (RuntimeException e) {
+            if (chunk.size() == 1) {
+                Item item = chunk.get(0);
+                outcome.reject(item.index(), item.req().getTitle(),
+                        "Could not be stored: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                return;
+            }
+            log.warn("Bulk import chunk of {} rejected, retrying one by one: {}", chunk.size(), e.getMessage());
+            for (Item item : chunk) write(List.of(item), outcome);
+            return;
+        }
+
+        written.rejected().forEach(outcome::reject);
+        written.created().forEach(ingredientIndex::add);
+        outcome.created += written.created().size();
+    }
+
+    private Written insert(List<Item> chunk) {
+        Set<Long> wanted = new HashSet<>();
+        for (Item item : chunk) {
+            for (var line : item.req().getIngredients()) wanted.add(line.getIngredientId());
+        }
+        Set<Long> known = new HashSet<>(ingredientRepo.findExistingIds(wanted));
+
+        List<Item> accepted = new ArrayList<>(chunk.size());
+        List<ItemError> rejected = new ArrayList<>();
+        for (Item item : chunk) {
+            List<Long> missing = item.req().getIngredients().stream()
+                    .map(RecipeCreateRequest.Item::getIngredientId)
+                    .filter(id -> !known.contains(id))
+                    .distinct()
+                    .toList();
+            if (missing.isEmpty()) accepted.add(item);
+            else rejected.add(new ItemError(item.index(), item.req().getTitle(), "Ingredient not found: " + missing));
+        }
+        if (accepted.isEmpty()) return new Written(List.of(), rejected);
+
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Long> recipeIds = insertBatch(INSERT_RECIPE, Recipe.class, accepted, (ps, item) -> {
+            RecipeCreateRequest req = item.req();
+            ps.setString(2, req.getTitle());
+            ps.setString(3, req.getDescription());
+            setInteger(ps, 4, req.getTotalTimeMin());
+            ps.setTimestamp(5, now);
+        });
+
+        record Line(Long recipeId, RecipeCreateRequest.Item line) {}
+        record Step(Long recipeId, RecipeCreateRequest.Step step) {}
+        List<Line> lines = new ArrayList<>();
+        List<Step> steps = new ArrayList<>();
+        for (int i = 0; i < accepted.size(); i++) {
+            Long recipeId = recipeIds.get(i);
+            accepted.get(i).req().getIngredients().forEach(l -> lines.add(new Line(recipeId, l)));
+            accepted.get(i).req().getSteps().forEach(s -> steps.add(new Step(recipeId, s)));
+        }
+
+        List<Long> lineIds = insertBatch(INSERT_LINE, RecipeIngredient.class, lines, (ps, l) -> {
+            ps.setLong(2, l.recipeId());
+            ps.setLong(3, l.line().getIngredientId());
+            ps.setDouble(4, l.line().getAmount());
+        });
+        List<Long> stepIds = insertBatch(INSERT_STEP, RecipeStep.class, steps, (ps, s) -> {
+            ps.setLong(2, s.recipeId());
+            ps.setInt(3, s.step().getStepNo());
+            ps.setString(4, s.step().getInstruction());
+            setInteger(ps, 5, s.step().getTimeMin());
+        });
+
+        // plain JDBC bypasses the entity listener, so the changelog is fed by hand
+        recipeIds.forEach(id -> changeTracker.track(CatalogEntityType.RECIPE, id, id, false));
+        for (int i = 0; i < lines.size(); i++) {
+            changeTracker.track(CatalogEntityType.RECIPE_INGREDIENT, lineIds.get(i), lines.get(i).recipeId(), false);
+        }
+        for (int i = 0; i < steps.size(); i++) {
+            changeTracker.track(CatalogEntityType.RECIPE_STEP, stepIds.get(i), steps.get(i).recipeId(), false);
+        }
+
+        List<Recipe> created = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            Recipe r = indexEntry(recipeIds.get(i), accepted.get(i).req());
+            created.add(r);
+            events.publishEvent(new RecipeChangedEvent(r.getId()));
+        }
+        return new Written(created, rejected);
+    }
+
+    private interface RowSetter<T> {
+        void set(PreparedStatement ps, T row) throws SQLException;
+    }
+
+    /**
+     * Inserts all rows as one JDBC batch and returns their ids, in order.
+     * The id is bound as the first parameter; the setter binds the rest.
+     */
+    private <T> List<Long> insertBatch(String sql, Class<?> entityType, List<T> rows, RowSetter<T> setter) {
+        if (rows.isEmpty()) return List.of();
+        List<Long> rowIds = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) rowIds.add(ids.next(entityType));
+
+        jdbc.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, rowIds.get(i));
+                setter.set(ps, rows.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+        return rowIds;
+    }
+
+    private static void setInteger(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value != null) ps.setInt(index, value);
+        else ps.setNull(index, Types.INTEGER);
+    }
+
+    /** Just what {@link RecipeIngredientIndex#add} reads. */
+    private static Recipe indexEntry(Long id, RecipeCreateRequest req) {
+        Recipe r = new Recipe();
+        r.setId(id);
+        r.setTitle(req.getTitle());
+        r.setTotalTimeMin(req.getTotalTimeMin());
+        r.setVersion(0L);
+        for (var line : req.getIngredients()) {
+            Ingredient ingredient = new Ingredient();
+            ingredient.setId(line.getIngredientId());
+            RecipeIngredient ri = new RecipeIngredient();
+            ri.setIngredient(ingredient);
+            r.getIngredients().add(ri);
+        }
+        return r;
+    }
+}
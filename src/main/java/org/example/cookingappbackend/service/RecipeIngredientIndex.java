@@ -0,0 +1,169 @@
+package org.example.cookingappbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.cookingappbackend.model.Recipe;
+import org.example.cookingappbackend.model.RecipeIngredient;
+import org.example.cookingappbackend.repository.RecipeRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory ingredient id -> recipe id posting lists, plus a bitmap of
+ * ingredients per recipe. Bit positions are dense ordinals handed out as
+ * ingredients are first indexed, so bitmaps stay as small as the number of
+ * indexed ingredients however sparse or large the database ids are.
+ * Built once at startup and updated on every recipe write, so ingredient
+ * searches only visit recipes sharing at least one ingredient with the query.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RecipeIngredientIndex {
+
+    private final RecipeRepository recipeRepo;
+
+    private final Map<Long, Set<Long>> postings = new ConcurrentHashMap<>();
+    private final Map<Long, IndexedRecipe> recipes = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> ordinals = new ConcurrentHashMap<>();
+    private final AtomicInteger nextOrdinal = new AtomicInteger();
+
+    public record IndexedRecipe(Long id,
+                                String title,
+                                Integer totalTimeMin,
+                                Double avgRating,
+                                int ingredientCount,
+                                long[] ingredientBits,
+                                long version) {
+
+        IndexedRecipe withAvgRating(Double avg, long atVersion) {
+            return new IndexedRecipe(id, title, totalTimeMin, avg, ingredientCount, ingredientBits, atVersion);
+        }
+
+        /** Number of distinct ingredients shared with a bitmap from {@link #toBits}. */
+        public int matchedCount(long[] bits) {
+            int n = Math.min(ingredientBits.length, bits.length);
+            int count = 0;
+            for (int i = 0; i < n; i++) count += Long.bitCount(ingredientBits[i] & bits[i]);
+            return count;
+        }
+    }
+
+    public record Hit(IndexedRecipe recipe, int matchedCount) {
+        public int missingCount() {
+            return Math.max(0, recipe.ingredientCount() - matchedCount);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        postings.clear();
+        recipes.clear();
+        ordinals.clear();
+        nextOrdinal.set(0);
+        List<Recipe> all = recipeRepo.findAllWithIngredients();
+        all.forEach(this::add);
+        log.info("Recipe ingredient index: {} recipes, {} ingredients", recipes.size(), postings.size());
+    }
+
+    public void add(Recipe r) {
+        if (r == null || r.getId() == null) return;
+
+        Set<Long> ingredientIds = new HashSet<>();
+        for (RecipeIngredient ri : r.getIngredients()) {
+            if (ri.getIngredient() == null || ri.getIngredient().getId() == null) continue;
+            ingredientIds.add(ri.getIngredient().getId());
+        }
+
+        BitSet bits = new BitSet();
+        for (Long ingredientId : ingredientIds) {
+            bits.set(ordinals.computeIfAbsent(ingredientId, k -> nextOrdinal.getAndIncrement()));
+        }
+
+        recipes.put(r.getId(), new IndexedRecipe(
+                r.getId(), r.getTitle(), r.getTotalTimeMin(), r.getAvgRating(), ingredientIds.size(), bits.toLongArray(),
+                r.getVersion() != null ? r.getVersion() : 0));
+        ingredientIds.forEach(ingredientId ->
+                postings.computeIfAbsent(ingredientId, k -> ConcurrentHashMap.newKeySet()).add(r.getId()));
+    }
+
+    /**
+     * Sets the average read at the given row version. After-commit callbacks
+     * of concurrent ratings can run in any order, so an average older than
+     * the one held is ignored.
+     */
+    public void updateAvgRating(Long recipeId, Double avgRating, long version) {
+        recipes.computeIfPresent(recipeId, (id, r) -> version > r.version() ? r.withAvgRating(avgRating, version) : r);
+    }
+
+    /**
+     * Returns every indexed recipe containing at least one of the given
+     * ingredient ids, together with its matched count.
+     */
+    public List<Hit> search(Collection<Long> ingredientIds) {
+        Map<Long, Integer> matched = new HashMap<>();
+        for (Long ingredientId : ingredientIds) {
+            Set<Long> ids = postings.get(ingredientId);
+            if (ids == null) continue;
+            for (Long id : ids) matched.merge(id, 1, Integer::sum);
+        }
+
+        List<Hit> hits = new ArrayList<>(matched.size());
+        for (Map.Entry<Long, Integer> e : matched.entrySet()) {
+            IndexedRecipe r = recipes.get(e.getKey());
+            if (r != null) hits.add(new Hit(r, e.getValue()));
+        }
+        return hits;
+    }
+
+    /** Number of recipes containing the ingredient. */
+    public int postingSize(Long ingredientId) {
+        Set<Long> ids = postings.get(ingredientId);
+        return ids == null ? 0 : ids.size();
+    }
+
+    /** Ids of recipes containing every one of the given ingredients. */
+    public Set<Long> recipesContainingAll(Collection<Long> ingredientIds) {
+        List<Set<Long>> lists = new ArrayList<>();
+        for (Long id : ingredientIds) {
+            Set<Long> ids = postings.get(id);
+            if (ids == null) return Set.of();
+            lists.add(ids);
+        }
+        if (lists.isEmpty()) return Set.of();
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        Set<Long> out = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !out.isEmpty(); i++) out.retainAll(lists.get(i));
+        return out;
+    }
+
+    public Collection<IndexedRecipe> recipes() {
+        return Collections.unmodifiableCollection(recipes.values());
+    }
+
+    public int size() {
+        return recipes.size();
+    }
+
+    /**
+     * Bitmap of the given ingredient ids in this index's ordinals. Ids no
+     * recipe contains have no ordinal and could not match anyway, so they are
+     * left out.
+     */
+    public long[] toBits(Collection<Long> ingredientIds) {
+        BitSet bits = new BitSet();
+        for (Long id : ingredientIds) {
+            Integer ordinal = id != null ? ordinals.get(id) : null;
+            if (ordinal != null) bits.set(ordinal);
+        }
+        return bits.toLongArray();
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.cookingappbackend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.cookingappbackend.dto.response.RecipeResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Recipe detail responses kept as already-encoded JSON, plus a gzip copy for
+ * bodies large enough to benefit, so hot reads skip Jackson entirely.
+ * Bounded by the total number of bytes held; entries are dropped after
+ * commit of any change to the recipe or its ratings.
+ */
+@Component
+public class RecipeJsonCache {
+
+    static final int MIN_GZIP_SIZE = 1024;
+
+    /** Encoded body and the validators it was built from. {@code gzip} is null for small bodies. */
+    public record Encoded(byte[] json, byte[] gzip, Long version, Instant updatedAt) {
+        int weight() {
+            return json.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Cache<Long, Encoded> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    public RecipeJsonCache(ObjectMapper objectMapper,
+                           @Value("${app.recipes.json-cache.max-size:64MB}") DataSize maxSize,
+                           MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Long id, Encoded e) -> e.weight())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "recipe.json");
+    }
+
+    public Encoded getIfPresent(Long id) {
+        return cache.getIfPresent(id);
+    }
+
+    public Encoded get(Long id, Supplier<RecipeResponse> loader) {
+        Encoded hit = cache.getIfPresent(id);
+        if (hit != null) return hit;
+
+        long gen = generation.get();
+        Encoded value = encode(loader.get());
+        if (generation.get() == gen) cache.put(id, value);
+        return value;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        evict(event.recipeId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRatingChanged(RatingChangedEvent event) {
+        evict(event.recipeId());
+    }
+
+    public void evict(Long id) {
+        generation.incrementAndGet();
+        if (id != null) cache.invalidate(id);
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    Encoded encode(RecipeResponse res) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(res);
+            return new Encoded(json, json.length >= MIN_GZIP_SIZE ? gzip(json) : null, res.getVersion(), res.getUpdatedAt());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize recipe " + res.getId(), e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 3);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,142 @@
+package org.example.cookingappbackend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.cookingappbackend.dto.response.CursorPage;
+import org.example.cookingappbackend.dto.response.LeaderboardEntryResponse;
+import org.example.cookingappbackend.repository.RatingAggregatesRow;
+import org.example.cookingappbackend.repository.RecipeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Rated recipes ranked by Bayesian average: each recipe's ratings are pooled
+ * with {@code priorWeight} virtual ratings at the catalog-wide mean, so a
+ * single 5-star vote no longer outranks hundreds of 4.9s.
+ *
+ * <p>Built once at startup and moved one entry at a time on every rating
+ * change, so a page costs O(log n + page size) and no query. The prior mean
+ * is taken at build time and held until the next rebuild; moving it would
+ * re-rank every recipe. Updates carry the row version their aggregates were
+ * read at, and one older than the last applied for that recipe is dropped:
+ * after-commit callbacks of concurrent ratings, or a write-behind flush and a
+ * request-thread fallback, can arrive in either order.
+ *
+ * <p>Only recipes with at least one stored rating are ranked, and only they
+ * feed the prior mean. Seeded recipes come with an {@code avgRating} but no
+ * ratings rows, so their {@code ratingCount} is 0 and they stay off the board
+ * until rated: a seeded average does not say how many votes it stands for,
+ * which is what the score weighs. {@code /top-rated} orders by
+ * {@code avgRating} and does list them, so the two rankings differ for such
+ * recipes.
+ */
+@Slf4j
+@Component
+public class RecipeLeaderboard {
+
+    static final double DEFAULT_PRIOR_MEAN = 3.0;
+
+    private static final Comparator<Entry> RANKING = Comparator.comparingDouble(Entry::score).reversed()
+            .thenComparing(Entry::id, Comparator.reverseOrder());
+
+    private final RecipeRepository recipeRepo;
+    private final double priorWeight;
+    private volatile double priorMean = DEFAULT_PRIOR_MEAN;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final NavigableSet<Entry> ranking = new ConcurrentSkipListSet<>(RANKING);
+    /** Last applied row version per recipe, kept after a recipe leaves the board. */
+    private final Map<Long, Long> versions = new HashMap<>();
+
+    public record Entry(Long id, String title, Integer totalTimeMin, Double avgRating, long ratingCount,
+                        double score) {
+
+        LeaderboardEntryResponse toResponse() {
+            return new LeaderboardEntryResponse(id, title, totalTimeMin, avgRating, ratingCount, score);
+        }
+    }
+
+    public RecipeLeaderboard(RecipeRepository recipeRepo,
+                             @Value("${app.recipes.leaderboard.prior-weight:10}") double priorWeight) {
+        this.recipeRepo = recipeRepo;
+        this.priorWeight = priorWeight;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        List<RatingAggregatesRow> rows = recipeRepo.findRatedAggregates();
+        long count = 0;
+        long sum = 0;
+        for (RatingAggregatesRow row : rows) {
+            count += row.ratingCount();
+            sum += row.ratingSum();
+        }
+        priorMean = count == 0 ? DEFAULT_PRIOR_MEAN : (double) sum / count;
+
+        entries.clear();
+        ranking.clear();
+        versions.clear();
+        rows.forEach(this::put);
+        log.info("Recipe leaderboard: {} rated recipes, prior mean {}", entries.size(), priorMean);
+    }
+
+    /** Moves the recipe to the rank its aggregates earn; it leaves the board with its last rating. */
+    public synchronized void update(RatingAggregatesRow row) {
+        Long applied = versions.get(row.id());
+        if (applied != null && row.version() <= applied) return;
+        versions.put(row.id(), row.version());
+        Entry previous = entries.remove(row.id());
+        if (previous != null) ranking.remove(previous);
+        if (row.ratingCount() > 0) put(row);
+    }
+
+    /** Keyset page, best first; the cursor carries the score and id of the last entry. */
+    public CursorPage<LeaderboardEntryResponse> page(String after, int size) {
+        KeysetCursor.checkPageSize(size);
+        KeysetCursor cursor = KeysetCursor.decode(after);
+
+        Iterator<Entry> it = cursor == null
+                ? ranking.iterator()
+                : ranking.tailSet(probe(parseScore(cursor.key()), cursor.id()), false).iterator();
+        List<Entry> rows = new ArrayList<>(size + 1);
+        while (rows.size() <= size && it.hasNext()) rows.add(it.next());
+
+        return KeysetCursor.page(rows, size,
+                e -> new KeysetCursor(Double.toString(e.score()), e.id()), Entry::toResponse);
+    }
+
+    public double score(long ratingSum, long ratingCount) {
+        return (priorWeight * priorMean + ratingSum) / (priorWeight + ratingCount);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void put(RatingAggregatesRow row) {
+        Entry e = new Entry(row.id(), row.title(), row.totalTimeMin(), row.avgRating(), row.ratingCount(),
+                score(row.ratingSum(), row.ratingCount()));
+        entries.put(e.id(), e);
+        ranking.add(e);
+        versions.put(e.id(), row.version());
+    }
+
+    private static Entry probe(double score, long id) {
+        return new Entry(id, null, null, null, 0, score);
+    }
+
+    private static double parseScore(String key) {
+        try {
+            return Double.parseDouble(key);
+        } catch (NumberFormatException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.cookingappbackend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of search and listing results (Caffeine, W-TinyLFU eviction),
+ * weighted by the number of rows held. Entries are dropped after commit of
+ * the writes that can change them: any recipe creation, and rating changes
+ * for entries whose order or filter depends on ratings or that show the
+ * rated recipe. Hit/miss counters are published as {@code cache.*} metrics
+ * with {@code cache=recipe.search}.
+ */
+@Component
+public class RecipeSearchCache {
+
+    /** How an entry depends on recipe ratings. */
+    public enum RatingDependency {
+        /** Result does not show or use ratings. */
+        NONE,
+        /** Result shows ratings of the recipes it contains. */
+        CONTENT,
+        /** Ratings decide which recipes are in the result or their order. */
+        ORDER
+    }
+
+    private record Entry(Object value, Set<Long> recipeIds, RatingDependency ratingDependency) {}
+
+    private final Cache<String, Entry> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    public RecipeSearchCache(@Value("${app.search.result-cache.max-weight:50000}") long maxWeight,
+                             MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((String key, Entry e) -> 1 + e.recipeIds().size())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "recipe.search");
+    }
+
+    /**
+     * Returns the cached value for {@code key} or loads it. A value loaded
+     * while an invalidation ran is returned but not stored, so a read racing
+     * a write never re-caches the old state.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key,
+                     RatingDependency ratingDependency,
+                     Function<T, Collection<Long>> recipeIds,
+                     Supplier<T> loader) {
+        Entry hit = cache.getIfPresent(key);
+        if (hit != null) return (T) hit.value();
+
+        long gen = generation.get();
+        T value = loader.get();
+        if (generation.get() == gen) {
+            cache.put(key, new Entry(value, Set.copyOf(recipeIds.apply(value)), ratingDependency));
+        }
+        return value;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRatingChanged(RatingChangedEvent event) {
+        generation.incrementAndGet();
+        cache.asMap().values().removeIf(e -> switch (e.ratingDependency()) {
+            case NONE -> false;
+            case CONTENT -> e.recipeIds().contains(event.recipeId());
+            case ORDER -> true;
+        });
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+}
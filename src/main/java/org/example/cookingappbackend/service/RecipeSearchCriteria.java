@@ -0,0 +1,53 @@
+package org.example.cookingappbackend.service;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Filters of a combined recipe search. Empty/null fields are not applied.
+ * {@code ingredientIds} must all be present in a recipe; {@code pantryUserId}
+ * restricts to recipes sharing at least one pantry ingredient and ranks them
+ * like the pantry search.
+ */
+public record RecipeSearchCriteria(String title,
+                                   List<Long> ingredientIds,
+                                   Long pantryUserId,
+                                   Integer maxTimeMin,
+                                   Double minRating) {
+
+    public RecipeSearchCriteria {
+        title = title == null || title.isBlank() ? null : title.trim();
+        ingredientIds = ingredientIds == null ? List.of() : List.copyOf(ingredientIds);
+    }
+
+    public boolean hasTitle() {
+        return title != null;
+    }
+
+    public boolean hasIngredients() {
+        return !ingredientIds.isEmpty();
+    }
+
+    public boolean hasPantry() {
+        return pantryUserId != null;
+    }
+
+    public int filterCount() {
+        int n = 0;
+        if (hasTitle()) n++;
+        if (hasIngredients()) n++;
+        if (hasPantry()) n++;
+        if (maxTimeMin != null) n++;
+        if (minRating != null) n++;
+        return n;
+    }
+
+    /** Normalized form of the filter (pantry given by its ingredient ids), for caching counts. */
+    public String cacheKey(List<Long> pantryIds) {
+        return "title=" + (hasTitle() ? title.toLowerCase(Locale.ROOT) : "")
+                + "|ingredients=" + SearchCountCache.idsKey(ingredientIds)
+                + "|pantry=" + (hasPantry() ? SearchCountCache.idsKey(pantryIds) : "")
+                + "|maxTimeMin=" + (maxTimeMin != null ? maxTimeMin : "")
+                + "|minRating=" + (minRating != null ? minRating : "");
+    }
+}
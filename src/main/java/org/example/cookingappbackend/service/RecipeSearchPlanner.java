@@ -0,0 +1,168 @@
+package org.example.cookingappbackend.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.example.cookingappbackend.repository.PantryItemRepository;
+import org.example.cookingappbackend.repository.RecipeSummaryRow;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Turns a {@link RecipeSearchCriteria} into a single JPQL query.
+ * Filters are ordered by an estimated cardinality taken from
+ * {@link RecipeIngredientIndex}; when the ingredient filter is selective
+ * enough it is resolved in memory and pushed down as an id list.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecipeSearchPlanner {
+
+    static final int MAX_INLINE_CANDIDATES = 1000;
+
+    private static final Set<String> SORTABLE = Set.of("title", "totalTimeMin", "avgRating");
+    private static final String SUMMARY_COLUMNS = "r.id, r.title, r.totalTimeMin, r.avgRating";
+    private static final String SELECT_SUMMARY =
+            "select new org.example.cookingappbackend.repository.RecipeSummaryRow(" + SUMMARY_COLUMNS + ") from Recipe r";
+    private static final String PANTRY_MATCHES = "sum(case when ri.ingredient.id in :pantryIds then 1 else 0 end)";
+
+    private final EntityManager em;
+    private final RecipeIngredientIndex index;
+    private final PantryItemRepository pantryRepo;
+    private final SearchCountCache countCache;
+
+    record Filter(long estimate, String jpql) {}
+
+    record Plan(String select, String count, Map<String, Object> params, boolean empty) {
+        static Plan none() {
+            return new Plan(null, null, Map.of(), true);
+        }
+    }
+
+    /** Runs the planned query; for {@code APPROX}/{@code NONE} the page is read as a slice without a count. */
+    public Slice<RecipeSummaryRow> search(RecipeSearchCriteria criteria, Pageable pageable, SearchTotal total) {
+        List<Long> pantryIds = criteria.hasPantry()
+                ? pantryRepo.findIngredientIdsByUserId(criteria.pantryUserId())
+                : List.of();
+
+        Plan plan = plan(criteria, pantryIds, pageable.getSort());
+        if (plan.empty()) return Page.empty(pageable);
+
+        if (total == SearchTotal.EXACT) {
+            List<RecipeSummaryRow> content = select(plan, pageable, pageable.getPageSize());
+            return PageableExecutionUtils.getPage(content, pageable, () -> count(plan));
+        }
+
+        List<RecipeSummaryRow> rows = select(plan, pageable, pageable.getPageSize() + 1);
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        Slice<RecipeSummaryRow> slice = new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+        return countCache.complete(slice, total, "planner:" + criteria.cacheKey(pantryIds), () -> count(plan));
+    }
+
+    private List<RecipeSummaryRow> select(Plan plan, Pageable pageable, int maxResults) {
+        TypedQuery<RecipeSummaryRow> select = em.createQuery(plan.select(), RecipeSummaryRow.class);
+        plan.params().forEach(select::setParameter);
+        select.setFirstResult(Math.toIntExact(pageable.getOffset()));
+        select.setMaxResults(maxResults);
+        return select.getResultList();
+    }
+
+    private long count(Plan plan) {
+        TypedQuery<Long> count = em.createQuery(plan.count(), Long.class);
+        plan.params().forEach(count::setParameter);
+        return count.getSingleResult();
+    }
+
+    Plan plan(RecipeSearchCriteria c, List<Long> pantryIds, Sort sort) {
+        if (c.hasPantry() && pantryIds.isEmpty()) return Plan.none();
+
+        long total = Math.max(1, index.size());
+        Map<String, Object> params = new HashMap<>();
+        List<Filter> filters = new ArrayList<>();
+
+        if (c.hasIngredients()) {
+            long smallest = c.ingredientIds().stream().mapToLong(index::postingSize).min().orElse(0);
+            if (smallest == 0 && index.size() > 0) return Plan.none();
+            if (smallest <= MAX_INLINE_CANDIDATES && index.size() > 0) {
+                Set<Long> candidates = index.recipesContainingAll(c.ingredientIds());
+                if (candidates.isEmpty()) return Plan.none();
+                params.put("candidateIds", candidates);
+                filters.add(new Filter(candidates.size(), "r.id in :candidateIds"));
+            } else {
+                params.put("ingredientIds", c.ingredientIds());
+                params.put("ingredientCount", (long) c.ingredientIds().size());
+                filters.add(new Filter(smallest, """
+                        r.id in (select x.recipe.id from RecipeIngredient x
+                                 where x.ingredient.id in :ingredientIds
+                                 group by x.recipe.id
+                                 having count(distinct x.ingredient.id) >= :ingredientCount)"""));
+            }
+        }
+        if (c.hasTitle()) {
+            params.put("title", "%" + escapeLike(c.title().toLowerCase()) + "%");
+            filters.add(new Filter(total / 20, "lower(r.title) like :title escape '\\'"));
+        }
+        if (c.maxTimeMin() != null) {
+            params.put("maxTimeMin", c.maxTimeMin());
+            filters.add(new Filter(total / 2, "r.totalTimeMin <= :maxTimeMin"));
+        }
+        if (c.minRating() != null) {
+            params.put("minRating", c.minRating());
+            filters.add(new Filter(total / 2, "r.avgRating >= :minRating"));
+        }
+        if (c.hasPantry()) {
+            params.put("pantryIds", pantryIds);
+            long union = pantryIds.stream().mapToLong(index::postingSize).sum();
+            filters.add(new Filter(Math.min(union, total), """
+                    exists (select 1 from RecipeIngredient p
+                            where p.recipe = r and p.ingredient.id in :pantryIds)"""));
+        }
+        filters.sort(Comparator.comparingLong(Filter::estimate));
+
+        String where = filters.isEmpty() ? "" : " where " + String.join(" and ", filters.stream().map(Filter::jpql).toList());
+        String count = "select count(r) from Recipe r" + where;
+        String select = c.hasPantry()
+                ? SELECT_SUMMARY + " join r.ingredients ri" + where + " group by " + SUMMARY_COLUMNS + " order by " + pantryOrder()
+                : SELECT_SUMMARY + where + " order by " + defaultOrder(sort);
+        return new Plan(select, count, params, false);
+    }
+
+    private static String pantryOrder() {
+        return "(count(ri) - " + PANTRY_MATCHES + ") asc, "
+                + PANTRY_MATCHES + " desc, "
+                + "coalesce(r.avgRating, 0) desc, coalesce(r.totalTimeMin, 2147483647) asc, r.title asc, r.id asc";
+    }
+
+    private static String defaultOrder(Sort sort) {
+        List<String> parts = new ArrayList<>();
+        for (Sort.Order o : sort) {
+            if (!SORTABLE.contains(o.getProperty())) continue;
+            parts.add("r." + o.getProperty() + (o.isAscending() ? " asc" : " desc"));
+        }
+        if (parts.isEmpty()) {
+            parts.add("coalesce(r.avgRating, 0) desc");
+            parts.add("r.title asc");
+        }
+        parts.add("r.id asc");
+        return String.join(", ", parts);
+    }
+
+    /** Whether the planned order puts ratings first, i.e. no whitelisted sort was requested or it sorts by rating. */
+    static boolean ordersByRating(Sort sort) {
+        for (Sort.Order o : sort) {
+            if (SORTABLE.contains(o.getProperty())) return o.getProperty().equals("avgRating");
+        }
+        return true;
+    }
+
+    private static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
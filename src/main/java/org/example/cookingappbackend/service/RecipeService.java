@@ -2,16 +2,22 @@ package org.example.cookingappbackend.service;
 
 import lombok.RequiredArgsConstructor;
 import org.example.cookingappbackend.dto.request.RecipeCreateRequest;
+import org.example.cookingappbackend.dto.response.CursorPage;
 import org.example.cookingappbackend.dto.response.RecipeResponse;
 import org.example.cookingappbackend.dto.response.RecipeSearchResultResponse;
 import org.example.cookingappbackend.dto.response.RecipeSummaryResponse;
 import org.example.cookingappbackend.model.*;
 import org.example.cookingappbackend.repository.*;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -19,9 +25,21 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class RecipeService {
 
+    private static final Comparator<RecipeIngredientIndex.Hit> INGREDIENT_HIT_RANKING = Comparator
+            .comparingInt(RecipeIngredientIndex.Hit::matchedCount).reversed()
+            .thenComparingInt(RecipeIngredientIndex.Hit::missingCount)
+            .thenComparing(hit -> hit.recipe().id());
+
     private final RecipeRepository recipeRepo;
     private final IngredientRepository ingredientRepo;
-    private final PantryItemRepository pantryRepo;
+    private final RecipeIngredientIndex ingredientIndex;
+    private final PantryMatchEngine pantryEngine;
+    private final IngredientNameMatcher nameMatcher;
+    private final RecipeSearchPlanner searchPlanner;
+    private final SearchCountCache countCache;
+    private final RecipeSearchCache searchCache;
+    private final RecipeDetailCache detailCache;
+    private final ApplicationEventPublisher events;
 
 
     @Transactional
@@ -32,9 +50,13 @@ public class RecipeService {
         r.setTotalTimeMin(req.getTotalTimeMin());
 
         if (req.getIngredients() != null) {
+            // one query for all lines instead of a lookup per line
+            Map<Long, Ingredient> byId = new HashMap<>();
+            ingredientRepo.findAllById(req.getIngredients().stream().map(RecipeCreateRequest.Item::getIngredientId).toList())
+                    .forEach(i -> byId.put(i.getId(), i));
             for (var it : req.getIngredients()) {
-                Ingredient ing = ingredientRepo.findById(it.getIngredientId())
-                        .orElseThrow(() -> new NoSuchElementException("Ingredient not found: " + it.getIngredientId()));
+                Ingredient ing = byId.get(it.getIngredientId());
+                if (ing == null) throw new NoSuchElementException("Ingredient not found: " + it.getIngredientId());
                 RecipeIngredient ri = new RecipeIngredient();
                 ri.setRecipe(r);
                 ri.setIngredient(ing);
@@ -55,124 +77,163 @@ public class RecipeService {
             r.getSteps().sort(Comparator.comparing(RecipeStep::getStepNo));
         }
 
-        r = recipeRepo.save(r);
-        return toResponse(r);
+        Recipe saved = recipeRepo.save(r);
+        AfterCommit.run(() -> ingredientIndex.add(saved));
+        events.publishEvent(new RecipeChangedEvent(saved.getId()));
+        return toResponse(saved);
     }
 
 
+    /** Cheap version lookup for conditional requests; does not load the recipe. */
     @Transactional(readOnly = true)
-    public List<RecipeResponse> list() {
-        return recipeRepo.findAllWithIngredients()
-                .stream()
-                .map(this::toResponseWithoutSteps)
-                .toList();
+    public RecipeVersion version(Long id) {
+        return recipeRepo.findVersionById(id)
+                .orElseThrow(() -> new NoSuchElementException("Recipe not found"));
     }
 
     @Transactional(readOnly = true)
+    public Optional<Instant> catalogLastModified() {
+        return Optional.ofNullable(recipeRepo.findLatestUpdate());
+    }
+
+    /**
+     * Not transactional: a cache hit must not open a session or take a
+     * connection. On a miss the lines and steps queries each run in their own
+     * read-only transaction; an edit landing between them bumps the cache
+     * generation, so the mixed result is returned but not cached. The rows are
+     * projections, so nothing loads lazily afterwards.
+     */
     public RecipeResponse get(Long id) {
-        Recipe r = recipeRepo.findByIdWithIngredients(id)
-                .orElseThrow(() -> new NoSuchElementException("Recipe not found"));
-        r.getSteps().size();
-        return toResponse(r);
+        return detailCache.get(id, () -> {
+            List<RecipeDetailRow> rows = recipeRepo.findDetailRows(id);
+            if (rows.isEmpty()) throw new NoSuchElementException("Recipe not found");
+            return toResponse(rows, recipeRepo.findStepRows(id));
+        });
     }
 
 
-    @Transactional(readOnly = true)
-    public List<RecipeSearchResultResponse> searchByIngredients(List<String> names) {
+    public List<RecipeSearchResultResponse> searchByIngredients(List<String> names, int limit, int offset) {
+        if (limit < 1) throw new IllegalArgumentException("limit must be positive");
+        if (offset < 0) throw new IllegalArgumentException("offset must not be negative");
         if (names == null || names.isEmpty()) return List.of();
 
-        Set<String> want = names.stream()
+        List<Long> want = nameMatcher.resolveAll(names.stream()
                 .filter(Objects::nonNull)
-                .map(s -> s.trim().toLowerCase())
                 .filter(s -> !s.isBlank())
-                .collect(Collectors.toSet());
-
-        List<Recipe> recipes = recipeRepo.findAllWithIngredients();
-        List<RecipeSearchResultResponse> results = new ArrayList<>();
-
-        for (Recipe r : recipes) {
-            Set<String> recipeIngs = r.getIngredients().stream()
-                    .map(ri -> ri.getIngredient().getName().toLowerCase())
-                    .collect(Collectors.toSet());
-            int matched = 0;
-            for (String w : want) if (recipeIngs.contains(w)) matched++;
-            int missing = Math.max(0, recipeIngs.size() - matched);
-            if (matched > 0) {
-                results.add(new RecipeSearchResultResponse(r.getId(), r.getTitle(), matched, missing));
-            }
-        }
+                .toList(), null);
 
-        results.sort(Comparator
-                .comparingInt(RecipeSearchResultResponse::getMatchedCount).reversed()
-                .thenComparingInt(RecipeSearchResultResponse::getMissingCount));
-        return results;
+        String key = "byIngredients|" + SearchCountCache.idsKey(want) + "|limit=" + limit + "|offset=" + offset;
+        return searchCache.get(key, RecipeSearchCache.RatingDependency.NONE,
+                hits -> hits.stream().map(RecipeSearchResultResponse::getId).toList(),
+                () -> rankByIngredients(want, limit, offset));
+    }
+
+    private List<RecipeSearchResultResponse> rankByIngredients(List<Long> want, int limit, int offset) {
+        TopK<RecipeIngredientIndex.Hit> top = new TopK<>(Math.addExact(offset, limit), INGREDIENT_HIT_RANKING);
+        ingredientIndex.search(want).forEach(top::offer);
+
+        return top.sorted(offset).stream()
+                .map(hit -> new RecipeSearchResultResponse(
+                        hit.recipe().id(), hit.recipe().title(), hit.matchedCount(), hit.missingCount()))
+                .toList();
     }
 
 
     @Transactional(readOnly = true)
     public Page<RecipeSummaryResponse> list(Pageable pageable) {
-        return recipeRepo.findAll(pageable).map(RecipeSummaryResponse::from);
+        return recipeRepo.findSummariesBy(pageable).map(RecipeSummaryResponse::from);
     }
 
+    /**
+     * Combined search. A single active filter keeps its dedicated query;
+     * any combination goes through {@link RecipeSearchPlanner} as one query.
+     */
     @Transactional(readOnly = true)
-    public Page<RecipeSummaryResponse> search(String q,
-                                              String ingredientsCsv,
-                                              boolean inPantryOnly,
-                                              User currentUser,
-                                              Pageable pageable) {
-        if (q != null && !q.isBlank()) {
-            return recipeRepo.findByTitleContainingIgnoreCase(q.trim(), pageable)
-                    .map(RecipeSummaryResponse::from);
-        }
-
+    public Slice<RecipeSummaryResponse> search(String q,
+                                               String ingredientsCsv,
+                                               boolean inPantryOnly,
+                                               Integer maxTimeMin,
+                                               Double minRating,
+                                               User currentUser,
+                                               Pageable pageable,
+                                               SearchTotal total) {
+        List<Long> ingredientIds = List.of();
         if (ingredientsCsv != null && !ingredientsCsv.isBlank()) {
             List<String> names = Arrays.stream(ingredientsCsv.split(","))
-                    .map(s -> s.trim().toLowerCase())
+                    .map(String::trim)
                     .filter(s -> !s.isEmpty())
                     .toList();
             if (names.isEmpty()) return Page.empty(pageable);
 
-            return recipeRepo.searchByIngredientNames(names, names.size(), pageable)
-                    .map(RecipeSummaryResponse::from);
+            List<String> unresolved = new ArrayList<>();
+            ingredientIds = nameMatcher.resolveAll(names, unresolved);
+            if (ingredientIds.isEmpty() || !unresolved.isEmpty()) return Page.empty(pageable);
         }
 
-        if (inPantryOnly) {
-            if (currentUser == null) return Page.empty(pageable);
-            List<String> namesLower = pantryRepo.findIngredientNamesByUserId(currentUser.getId());
-            if (namesLower.isEmpty()) return Page.empty(pageable);
+        if (inPantryOnly && currentUser == null) return Page.empty(pageable);
+
+        RecipeSearchCriteria criteria = new RecipeSearchCriteria(
+                q, ingredientIds, inPantryOnly ? currentUser.getId() : null, maxTimeMin, minRating);
+
+        if (criteria.filterCount() == 0) return Page.empty(pageable);
+        // pantry results depend on the user's pantry, which is not tracked by the cache
+        if (criteria.hasPantry()) return runSearch(criteria, pageable, total);
+
+        String key = "search|" + criteria.cacheKey(List.of()) + "|" + pageKey(pageable) + "|total=" + total;
+        return searchCache.get(key, ratingDependency(criteria, pageable.getSort()), RecipeService::ids,
+                () -> runSearch(criteria, pageable, total));
+    }
 
-            long minCount = 1L;
-            return recipeRepo.searchPantryRanked(namesLower, minCount, pageable)
-                    .map(RecipeSummaryResponse::from);
+    private Slice<RecipeSummaryResponse> runSearch(RecipeSearchCriteria criteria, Pageable pageable, SearchTotal total) {
+        if (criteria.filterCount() == 1) {
+            if (criteria.hasTitle()) {
+                return recipeRepo.findByTitleContainingIgnoreCase(criteria.title(), pageable)
+                        .map(RecipeSummaryResponse::from);
+            }
+            if (criteria.hasIngredients()) {
+                return searchByIngredientIds(criteria.ingredientIds(), pageable, total);
+            }
+            if (criteria.hasPantry()) {
+                return pantryEngine.searchPantryRanked(criteria.pantryUserId(), pageable, total);
+            }
         }
 
-        return Page.empty(pageable);
+        return searchPlanner.search(criteria, pageable, total).map(RecipeSummaryResponse::from);
     }
 
+    private static RecipeSearchCache.RatingDependency ratingDependency(RecipeSearchCriteria c, Sort sort) {
+        boolean planned = c.filterCount() > 1 || (!c.hasTitle() && !c.hasIngredients());
+        boolean rankedByRating = sort.getOrderFor("avgRating") != null
+                || (planned && RecipeSearchPlanner.ordersByRating(sort));
+        return c.minRating() != null || rankedByRating
+                ? RecipeSearchCache.RatingDependency.ORDER
+                : RecipeSearchCache.RatingDependency.CONTENT;
+    }
 
-    private RecipeResponse toResponse(Recipe r) {
-        RecipeResponse res = new RecipeResponse();
-        res.setId(r.getId());
-        res.setTitle(r.getTitle());
-        res.setDescription(r.getDescription());
-        res.setTotalTimeMin(r.getTotalTimeMin());
-        res.setAvgRating(r.getAvgRating());
+    private static String pageKey(Pageable pageable) {
+        return pageable.isPaged()
+                ? "page=" + pageable.getPageNumber() + "|size=" + pageable.getPageSize() + "|sort=" + pageable.getSort()
+                : "unpaged|sort=" + pageable.getSort();
+    }
 
-        List<RecipeResponse.IngredientLine> ingLines = new ArrayList<>();
-        for (RecipeIngredient ri : r.getIngredients()) {
-            RecipeResponse.IngredientLine line = new RecipeResponse.IngredientLine();
-            line.setIngredientId(ri.getIngredient().getId());
-            line.setIngredientName(ri.getIngredient().getName());
-            line.setUnit(ri.getIngredient().getUnit());
-            line.setAmount(ri.getAmount());
-            line.setCategory(
-                    ri.getIngredient().getCategory() != null
-                            ? ri.getIngredient().getCategory().name()
-                            : "OTHER"
-            );
-            ingLines.add(line);
+    private static List<Long> ids(Slice<RecipeSummaryResponse> slice) {
+        return slice.getContent().stream().map(RecipeSummaryResponse::id).toList();
+    }
+
+    private Slice<RecipeSummaryResponse> searchByIngredientIds(List<Long> ids, Pageable pageable, SearchTotal total) {
+        long minCount = ids.size();
+        if (total == SearchTotal.EXACT) {
+            return recipeRepo.searchByIngredientIds(ids, minCount, pageable).map(RecipeSummaryResponse::from);
         }
-        res.setIngredients(ingLines);
+        Slice<RecipeSummaryResponse> slice = recipeRepo.sliceByIngredientIds(ids, minCount, pageable)
+                .map(RecipeSummaryResponse::from);
+        return countCache.complete(slice, total, "ingredients:" + SearchCountCache.idsKey(ids),
+                () -> recipeRepo.countByIngredientIds(ids, minCount));
+    }
+
+
+    private RecipeResponse toResponse(Recipe r) {
+        RecipeResponse res = toResponseWithoutSteps(r);
 
         List<RecipeResponse.StepLine> stepLines = new ArrayList<>();
         for (RecipeStep s : r.getSteps()) {
@@ -187,13 +248,59 @@ public class RecipeService {
         return res;
     }
 
-    private RecipeResponse toResponseWithoutSteps(Recipe r) {
+    private static void setRatings(RecipeResponse res, long count, long... histogram) {
+        res.setRatingCount(count);
+        res.setRatingHistogram(Arrays.stream(histogram).boxed().toList());
+    }
+
+    /** Builds the detail response from {@link RecipeRepository#findDetailRows} and {@link RecipeRepository#findStepRows}. */
+    static RecipeResponse toResponse(List<RecipeDetailRow> rows, List<RecipeDetailStepRow> steps) {
+        RecipeDetailRow first = rows.get(0);
+        RecipeResponse res = new RecipeResponse();
+        res.setId(first.recipeId());
+        res.setTitle(first.title());
+        res.setDescription(first.description());
+        res.setTotalTimeMin(first.totalTimeMin());
+        res.setAvgRating(first.avgRating());
+        setRatings(res, first.ratingCount(), first.oneStarCount(), first.twoStarCount(), first.threeStarCount(),
+                first.fourStarCount(), first.fiveStarCount());
+        res.setVersion(first.version());
+        res.setUpdatedAt(first.updatedAt());
+
+        List<RecipeResponse.IngredientLine> ingLines = new ArrayList<>(rows.size());
+        for (RecipeDetailRow row : rows) {
+            if (row.lineId() == null) continue;
+            RecipeResponse.IngredientLine line = new RecipeResponse.IngredientLine();
+            line.setIngredientId(row.ingredientId());
+            line.setIngredientName(row.ingredientName());
+            line.setUnit(row.unit());
+            line.setAmount(row.amount());
+            line.setCategory(row.category() != null ? row.category().name() : "OTHER");
+            ingLines.add(line);
+        }
+        res.setIngredients(List.copyOf(ingLines));
+
+        res.setSteps(steps.stream().map(s -> {
+            RecipeResponse.StepLine sl = new RecipeResponse.StepLine();
+            sl.setStepNo(s.stepNo());
+            sl.setInstruction(s.instruction());
+            sl.setTimeMin(s.timeMin());
+            return sl;
+        }).toList());
+        return res;
+    }
+
+    static RecipeResponse toResponseWithoutSteps(Recipe r) {
         RecipeResponse res = new RecipeResponse();
         res.setId(r.getId());
         res.setTitle(r.getTitle());
         res.setDescription(r.getDescription());
         res.setTotalTimeMin(r.getTotalTimeMin());
         res.setAvgRating(r.getAvgRating());
+        setRatings(res, r.getRatingCount(), r.getOneStarCount(), r.getTwoStarCount(), r.getThreeStarCount(),
+                r.getFourStarCount(), r.getFiveStarCount());
+        res.setVersion(r.getVersion());
+        res.setUpdatedAt(r.getUpdatedAt());
 
         List<RecipeResponse.IngredientLine> ingLines = new ArrayList<>();
         for (RecipeIngredient ri : r.getIngredients()) {
@@ -216,8 +323,57 @@ public class RecipeService {
 
     @Transactional(readOnly = true)
     public Page<RecipeSummaryResponse> listTopRated(Pageable pageable) {
-        return recipeRepo.findAllByOrderByAvgRatingDesc(pageable)
-                .map(RecipeSummaryResponse::from);
+        return searchCache.get("topRated|" + pageKey(pageable), RecipeSearchCache.RatingDependency.ORDER,
+                RecipeService::ids,
+                () -> recipeRepo.findAllByOrderByAvgRatingDesc(pageable).map(RecipeSummaryResponse::from));
+    }
+
+    /** Keyset variant of {@link #list(Pageable)} ordered by title, then id. */
+    @Transactional(readOnly = true)
+    public CursorPage<RecipeSummaryResponse> listAfter(String after, int size) {
+        KeysetCursor.checkPageSize(size);
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        Limit limit = Limit.of(size + 1);
+        List<RecipeSummaryRow> rows = cursor == null
+                ? recipeRepo.findAllByOrderByTitleAscIdAsc(limit)
+                : recipeRepo.findByTitleAfter(cursor.key(), cursor.id(), limit);
+        return KeysetCursor.page(rows, size,
+                r -> new KeysetCursor(r.title(), r.id()), RecipeSummaryResponse::from);
+    }
+
+    /**
+     * Keyset variant of {@link #listTopRated(Pageable)}: rated recipes by
+     * rating, then id, both descending; unrated recipes follow, newest first.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<RecipeSummaryResponse> listTopRatedAfter(String after, int size) {
+        KeysetCursor.checkPageSize(size);
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        boolean inRated = cursor == null || cursor.key() != null;
+
+        List<RecipeSummaryRow> rows = new ArrayList<>(size + 1);
+        if (cursor == null) {
+            rows.addAll(recipeRepo.findByAvgRatingNotNullOrderByAvgRatingDescIdDesc(Limit.of(size + 1)));
+        } else if (inRated) {
+            rows.addAll(recipeRepo.findRatedAfter(parseRating(cursor.key()), cursor.id(), Limit.of(size + 1)));
+        }
+        if (rows.size() <= size) {
+            Limit rest = Limit.of(size + 1 - rows.size());
+            rows.addAll(inRated
+                    ? recipeRepo.findByAvgRatingNullOrderByIdDesc(rest)
+                    : recipeRepo.findUnratedAfter(cursor.id(), rest));
+        }
+        return KeysetCursor.page(rows, size,
+                r -> new KeysetCursor(r.avgRating() == null ? null : r.avgRating().toString(), r.id()),
+                RecipeSummaryResponse::from);
+    }
+
+    private static Double parseRating(String key) {
+        try {
+            return Double.valueOf(key);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
     }
 
 }
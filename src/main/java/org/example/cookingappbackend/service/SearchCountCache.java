@@ -0,0 +1,88 @@
+package org.example.cookingappbackend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Short-lived totals for grouped search queries, keyed by the normalized
+ * filter, so paging through one result set runs the aggregation count once
+ * per TTL instead of once per page.
+ */
+@Component
+public class SearchCountCache {
+
+    static final int MAX_ENTRIES = 10_000;
+
+    private final long ttlNanos;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private record Entry(long total, long expiresAt) {}
+
+    public SearchCountCache(@Value("${app.search.count-cache-ttl:30s}") Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public long get(String key, LongSupplier count) {
+        long now = System.nanoTime();
+        Entry e = entries.get(key);
+        if (e != null && now - e.expiresAt() < 0) return e.total();
+
+        long total = count.getAsLong();
+        if (ttlNanos > 0) {
+            if (entries.size() >= MAX_ENTRIES) evict(now);
+            entries.put(key, new Entry(total, now + ttlNanos));
+        }
+        return total;
+    }
+
+    /**
+     * Completes a count-less slice for the requested mode: {@code NONE}
+     * returns it as is, otherwise a page with a cached total is built. The
+     * total is never allowed to contradict the slice, and a single page never
+     * needs a count at all.
+     */
+    public <T> Slice<T> complete(Slice<T> slice, SearchTotal mode, String key, LongSupplier count) {
+        if (mode == SearchTotal.NONE) return slice;
+
+        long seen = slice.getPageable().isPaged()
+                ? slice.getPageable().getOffset() + slice.getNumberOfElements()
+                : slice.getNumberOfElements();
+        long total = slice.isFirst() && !slice.hasNext()
+                ? seen
+                : Math.max(get(key, count), seen + (slice.hasNext() ? 1 : 0));
+        return new PageImpl<>(slice.getContent(), slice.getPageable(), total);
+    }
+
+    /** Order-insensitive key part for a set of ids. */
+    public static String idsKey(Collection<Long> ids) {
+        return ids.stream().sorted().distinct().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        clear();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void evict(long now) {
+        entries.values().removeIf(e -> now - e.expiresAt() >= 0);
+        if (entries.size() >= MAX_ENTRIES) entries.clear();
+    }
+}
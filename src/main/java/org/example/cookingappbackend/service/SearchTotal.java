@@ -0,0 +1,21 @@
+package org.example.cookingappbackend.service;
+
+import java.util.Locale;
+
+/**
+ * How a search response reports its total. {@code EXACT} runs the count
+ * query on every request, {@code APPROX} reuses a recently cached count for
+ * the same filter and {@code NONE} returns a slice without a total.
+ */
+public enum SearchTotal {
+    EXACT, APPROX, NONE;
+
+    public static SearchTotal parse(String value) {
+        if (value == null || value.isBlank()) return EXACT;
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("total must be one of: exact, approx, none");
+        }
+    }
+}
@@ -35,14 +35,8 @@ public class ShoppingListService {
     public List<ShoppingListSummaryResponse> list(User user) {
         ensureUser(user);
 
-        return listRepo.findByUserOrderByCreatedAtDesc(user).stream()
-                .map(list -> {
-                    ShoppingListSummaryResponse dto = new ShoppingListSummaryResponse();
-                    dto.setId(list.getId());
-                    dto.setName(list.getName());
-                    dto.setItemsCount(list.getItems() != null ? list.getItems().size() : 0);
-                    return dto;
-                })
+        return listRepo.findSummariesByUser(user).stream()
+                .map(row -> new ShoppingListSummaryResponse(row.id(), row.name(), Math.toIntExact(row.itemsCount())))
                 .collect(Collectors.toList());
     }
 
@@ -183,7 +177,7 @@ public class ShoppingListService {
     public ShoppingListDetailsResponse addFromRecipe(User user, Long recipeId, AddFromRecipeRequest req) {
         ensureUser(user);
 
-        Recipe recipe = recipeRepo.findById(recipeId)
+        Recipe recipe = recipeRepo.findByIdWithIngredients(recipeId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Przepis nie istnieje"));
 
         String mode = (req.getMode() == null)
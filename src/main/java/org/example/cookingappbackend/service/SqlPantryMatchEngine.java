@@ -0,0 +1,47 @@
+package org.example.cookingappbackend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.cookingappbackend.dto.response.RecipeSummaryResponse;
+import org.example.cookingappbackend.repository.PantryItemRepository;
+import org.example.cookingappbackend.repository.RecipeRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "app.search.pantry-engine", havingValue = "sql", matchIfMissing = true)
+@RequiredArgsConstructor
+public class SqlPantryMatchEngine implements PantryMatchEngine {
+
+    private final RecipeRepository recipeRepo;
+    private final PantryItemRepository pantryRepo;
+    private final SearchCountCache countCache;
+
+    @Override
+    public Page<RecipeSummaryResponse> searchPantryRanked(Long userId, Pageable pageable) {
+        List<Long> ingredientIds = pantryRepo.findIngredientIdsByUserId(userId);
+        if (ingredientIds.isEmpty()) return Page.empty(pageable);
+
+        long minCount = 1L;
+        return recipeRepo.searchPantryRanked(ingredientIds, minCount, pageable)
+                .map(RecipeSummaryResponse::from);
+    }
+
+    @Override
+    public Slice<RecipeSummaryResponse> searchPantryRanked(Long userId, Pageable pageable, SearchTotal total) {
+        if (total == SearchTotal.EXACT) return searchPantryRanked(userId, pageable);
+
+        List<Long> ingredientIds = pantryRepo.findIngredientIdsByUserId(userId);
+        if (ingredientIds.isEmpty()) return Page.empty(pageable);
+
+        long minCount = 1L;
+        Slice<RecipeSummaryResponse> slice = recipeRepo.slicePantryRanked(ingredientIds, minCount, pageable)
+                .map(RecipeSummaryResponse::from);
+        return countCache.complete(slice, total, "pantry:" + SearchCountCache.idsKey(ingredientIds),
+                () -> recipeRepo.countPantryMatches(ingredientIds, minCount));
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.cookingappbackend.service;
+
+import java.util.*;
+
+/**
+ * Bounded heap keeping the {@code k} best elements according to a comparator
+ * (smallest first), so ranking a large candidate set costs O(n log k).
+ */
+public final class TopK<T> {
+
+    private final int k;
+    private final Comparator<? super T> order;
+    private final PriorityQueue<T> heap;
+    private long offered;
+
+    public TopK(int k, Comparator<? super T> order) {
+        this.k = Math.max(0, k);
+        this.order = order;
+        this.heap = new PriorityQueue<>(Math.max(1, Math.min(this.k, 1024)), order.reversed());
+    }
+
+    public void offer(T item) {
+        offered++;
+        if (k == 0) return;
+        if (heap.size() < k) {
+            heap.add(item);
+        } else if (order.compare(item, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(item);
+        }
+    }
+
+    /** Number of elements offered so far, kept or not. */
+    public long offered() {
+        return offered;
+    }
+
+    /** Kept elements in ascending order, skipping the first {@code offset}. */
+    public List<T> sorted(int offset) {
+        List<T> out = new ArrayList<>(heap);
+        out.sort(order);
+        if (offset <= 0) return out;
+        if (offset >= out.size()) return List.of();
+        return out.subList(offset, out.size());
+    }
+}
@@ -0,0 +1,182 @@
+package org.example.cookingappbackend.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Takes rating aggregation off the request path. Once a rating commits, its
+ * delta goes onto the queue of the recipe's shard; one thread per shard
+ * coalesces the deltas per recipe and writes them in a single transaction
+ * per flush, so a burst of ratings on one recipe costs one update per flush
+ * instead of one per rating, and shards never contend for the same row.
+ *
+ * <p>A delta reaches the aggregates at most about one flush interval after
+ * its rating committed. When a shard's queue is full, or the aggregator is
+ * shutting down, the caller writes its own delta instead, in a transaction
+ * of its own since the rating's has already committed. On shutdown the
+ * queues are drained before the context closes; deltas still queued when the
+ * process dies are lost, and the aggregates of those recipes lag their
+ * ratings until recomputed.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.ratings.aggregation", havingValue = "write-behind")
+public class WriteBehindRatingAggregator implements RatingAggregator {
+
+    private record Pending(Long recipeId, RatingDelta delta) {}
+
+    /** Wakes a consumer waiting on an empty queue at shutdown. */
+    private static final Pending STOP = new Pending(null, RatingDelta.ZERO);
+
+    private final RatingAggregateWriter writer;
+    private final TransactionTemplate tx;
+    private final long flushIntervalNanos;
+    private final int maxBatch;
+    private final List<BlockingQueue<Pending>> queues = new ArrayList<>();
+    private final List<Thread> consumers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    public WriteBehindRatingAggregator(RatingAggregateWriter writer,
+                                       PlatformTransactionManager txManager,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${app.ratings.write-behind.flush-interval:250ms}") Duration flushInterval,
+                                       @Value("${app.ratings.write-behind.shards:4}") int shards,
+                                       @Value("${app.ratings.write-behind.queue-capacity:10000}") int queueCapacity,
+                                       @Value("${app.ratings.write-behind.max-batch:500}") int maxBatch) {
+        if (shards < 1) throw new IllegalArgumentException("app.ratings.write-behind.shards must be at least 1");
+        this.writer = writer;
+        this.tx = new TransactionTemplate(txManager);
+        // the fallback write runs in afterCommit, where joining would attach it to the finished transaction
+        this.tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.maxBatch = maxBatch;
+
+        for (int i = 0; i < shards; i++) {
+            BlockingQueue<Pending> queue = new ArrayBlockingQueue<>(queueCapacity);
+            Thread consumer = new Thread(() -> consume(queue), "rating-aggregator-" + i);
+            queues.add(queue);
+            consumers.add(consumer);
+            consumer.start();
+        }
+        meterRegistry.gauge("ratings.aggregation.pending", queues,
+                qs -> qs.stream().mapToInt(BlockingQueue::size).sum());
+    }
+
+    @Override
+    public void record(Long recipeId, RatingDelta delta) {
+        if (delta.isZero()) return;
+        Pending pending = new Pending(recipeId, delta);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(pending);
+            return;
+        }
+        // a rolled-back rating must not reach the aggregates
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(pending);
+            }
+        });
+    }
+
+    /** Stops taking deltas and writes out everything queued. */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        // a full queue needs no wake-up, its consumer is busy
+        queues.forEach(queue -> queue.offer(STOP));
+        for (Thread consumer : consumers) {
+            consumer.join();
+        }
+        // deltas that raced past the running check after their shard finished
+        Map<Long, RatingDelta> leftover = new HashMap<>();
+        queues.forEach(queue -> drain(queue, leftover));
+        if (!leftover.isEmpty()) write(leftover);
+    }
+
+    private void enqueue(Pending pending) {
+        BlockingQueue<Pending> queue = queues.get(Math.floorMod(pending.recipeId().hashCode(), queues.size()));
+        if (running && queue.offer(pending)) return;
+        // deltas are additive, so writing this one ahead of the queued ones is fine
+        write(Map.of(pending.recipeId(), pending.delta()));
+    }
+
+    private void consume(BlockingQueue<Pending> queue) {
+        Map<Long, RatingDelta> batch = new HashMap<>();
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (running) collect(queue, batch);
+                else drain(queue, batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (batch.isEmpty()) continue;
+            try {
+                write(batch);
+                batch.clear();
+            } catch (RuntimeException e) {
+                if (!running) break;
+                // kept and merged with the next flush
+                log.warn("Writing rating aggregates of {} recipes failed, retrying", batch.size(), e);
+            }
+        }
+        if (!batch.isEmpty()) {
+            log.error("Rating aggregates of recipes {} were not written and lag their ratings", batch.keySet());
+        }
+    }
+
+    /**
+     * Waits up to one flush interval for a delta, then coalesces whatever
+     * arrives until the interval since that first delta is over or the
+     * batch holds {@code maxBatch} recipes.
+     */
+    private void collect(BlockingQueue<Pending> queue, Map<Long, RatingDelta> batch) throws InterruptedException {
+        Pending first = queue.poll(flushIntervalNanos, NANOSECONDS);
+        if (first == null || first == STOP) return;
+        add(batch, first);
+
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < maxBatch) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) return;
+            Pending next = queue.poll(remaining, NANOSECONDS);
+            if (next == null || next == STOP) return;
+            add(batch, next);
+        }
+    }
+
+    private static void drain(BlockingQueue<Pending> queue, Map<Long, RatingDelta> batch) {
+        Pending p;
+        while ((p = queue.poll()) != null) {
+            if (p != STOP) add(batch, p);
+        }
+    }
+
+    private void write(Map<Long, RatingDelta> batch) {
+        tx.executeWithoutResult(s -> batch.forEach(writer::apply));
+    }
+
+    private static void add(Map<Long, RatingDelta> batch, Pending p) {
+        batch.merge(p.recipeId(), p.delta(), RatingDelta::plus);
+    }
+}
@@ -0,0 +1,34 @@
+-- Tables created before ids moved to pooled sequences already hold rows, while
+-- Hibernate creates each sequence starting at 1. Moves a sequence past the
+-- highest existing id so the next block it hands out (50 ids, ending at the
+-- returned value) starts above it. Once aligned, every statement is a no-op.
+
+select setval('users_seq', m) from (select max(id) as m from users) t
+where m > (select last_value from users_seq);
+
+select setval('ingredients_seq', m) from (select max(id) as m from ingredients) t
+where m > (select last_value from ingredients_seq);
+
+select setval('recipes_seq', m) from (select max(id) as m from recipes) t
+where m > (select last_value from recipes_seq);
+
+select setval('recipe_ingredients_seq', m) from (select max(id) as m from recipe_ingredients) t
+where m > (select last_value from recipe_ingredients_seq);
+
+select setval('recipe_steps_seq', m) from (select max(id) as m from recipe_steps) t
+where m > (select last_value from recipe_steps_seq);
+
+select setval('ratings_seq', m) from (select max(id) as m from ratings) t
+where m > (select last_value from ratings_seq);
+
+select setval('favorite_seq', m) from (select max(id) as m from favorite) t
+where m > (select last_value from favorite_seq);
+
+select setval('pantry_items_seq', m) from (select max(id) as m from pantry_items) t
+where m > (select last_value from pantry_items_seq);
+
+select setval('shopping_lists_seq', m) from (select max(id) as m from shopping_lists) t
+where m > (select last_value from shopping_lists_seq);
+
+select setval('shopping_list_items_seq', m) from (select max(id) as m from shopping_list_items) t
+where m > (select last_value from shopping_list_items_seq);
@@ -0,0 +1,23 @@
+-- Recipes rated before the aggregate columns existed get them with the
+-- default of 0. Recomputes the aggregates of those recipes from their ratings;
+-- once backfilled, no recipe with ratings has a zero count and this is a no-op.
+update recipes r set
+    rating_count      = a.cnt,
+    rating_sum        = a.total,
+    one_star_count    = a.s1,
+    two_star_count    = a.s2,
+    three_star_count  = a.s3,
+    four_star_count   = a.s4,
+    five_star_count   = a.s5,
+    avg_rating        = cast(a.total as double precision) / a.cnt
+from (select recipe_id,
+             count(*)                                   as cnt,
+             sum(stars)                                 as total,
+             sum(case when stars = 1 then 1 else 0 end) as s1,
+             sum(case when stars = 2 then 1 else 0 end) as s2,
+             sum(case when stars = 3 then 1 else 0 end) as s3,
+             sum(case when stars = 4 then 1 else 0 end) as s4,
+             sum(case when stars = 5 then 1 else 0 end) as s5
+      from ratings
+      group by recipe_id) a
+where a.recipe_id = r.id and r.rating_count = 0;
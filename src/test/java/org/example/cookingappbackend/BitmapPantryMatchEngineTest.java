@@ -0,0 +1,97 @@
+package org.example.cookingappbackend.service;
+
+import org.example.cookingappbackend.dto.response.RecipeSummaryResponse;
+import org.example.cookingappbackend.model.Ingredient;
+import org.example.cookingappbackend.model.Recipe;
+import org.example.cookingappbackend.model.RecipeIngredient;
+import org.example.cookingappbackend.repository.PantryItemRepository;
+import org.example.cookingappbackend.repository.RecipeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class BitmapPantryMatchEngineTest {
+
+    private final RecipeRepository recipeRepo = mock(RecipeRepository.class);
+    private final PantryItemRepository pantryRepo = mock(PantryItemRepository.class);
+    private final RecipeIngredientIndex index = new RecipeIngredientIndex(recipeRepo);
+
+    private final BitmapPantryMatchEngine engine = new BitmapPantryMatchEngine(index, pantryRepo);
+
+    @Test
+    void ranksByMissingAsc_matchedDesc_ratingDesc_timeAsc_title() {
+        index.add(recipe(1L, "Full match", 4.0, 30, 1L, 2L));
+        index.add(recipe(2L, "One missing", 5.0, 10, 1L, 2L, 3L));
+        index.add(recipe(3L, "Also full, better rating", 4.5, 60, 1L));
+        index.add(recipe(4L, "Also full, faster", 4.5, 20, 2L));
+        index.add(recipe(5L, "No match", 5.0, 5, 9L));
+
+        when(pantryRepo.findIngredientIdsByUserId(7L)).thenReturn(List.of(1L, 2L));
+
+        Page<RecipeSummaryResponse> page = engine.searchPantryRanked(7L, PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).extracting(RecipeSummaryResponse::id)
+                .containsExactly(1L, 4L, 3L, 2L);
+        assertThat(page.getTotalElements()).isEqualTo(4);
+        verifyNoInteractions(recipeRepo);
+    }
+
+    @Test
+    void returnsRequestedPage_andTotal() {
+        for (long id = 1; id <= 25; id++) {
+            index.add(recipe(id, "R" + id, (double) id / 5, 10, 1L));
+        }
+        when(pantryRepo.findIngredientIdsByUserId(7L)).thenReturn(List.of(1L));
+
+        Page<RecipeSummaryResponse> page = engine.searchPantryRanked(7L, PageRequest.of(1, 10));
+
+        assertThat(page.getTotalElements()).isEqualTo(25);
+        assertThat(page.getContent()).hasSize(10);
+        assertThat(page.getContent().get(0).id()).isEqualTo(15L);
+    }
+
+    @Test
+    void emptyPantry_returnsEmptyPage() {
+        index.add(recipe(1L, "R", 4.0, 10, 1L));
+        when(pantryRepo.findIngredientIdsByUserId(7L)).thenReturn(List.of());
+
+        assertThat(engine.searchPantryRanked(7L, PageRequest.of(0, 10))).isEmpty();
+    }
+
+    @Test
+    void ratingUpdates_areVisibleToRanking() {
+        index.add(recipe(1L, "A", 1.0, 10, 1L));
+        index.add(recipe(2L, "B", 2.0, 10, 1L));
+        index.updateAvgRating(1L, 5.0, 1);
+        when(pantryRepo.findIngredientIdsByUserId(7L)).thenReturn(List.of(1L));
+
+        Page<RecipeSummaryResponse> page = engine.searchPantryRanked(7L, PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).extracting(RecipeSummaryResponse::id).containsExactly(1L, 2L);
+        assertThat(page.getContent().get(0).rating()).isEqualTo(5.0);
+    }
+
+    private static Recipe recipe(Long id, String title, Double avg, Integer time, Long... ingredientIds) {
+        Recipe r = new Recipe();
+        r.setId(id);
+        r.setTitle(title);
+        r.setAvgRating(avg);
+        r.setTotalTimeMin(time);
+        for (Long ingId : ingredientIds) {
+            Ingredient ing = new Ingredient();
+            ing.setId(ingId);
+            ing.setName("ing" + ingId);
+            RecipeIngredient ri = new RecipeIngredient();
+            ri.setRecipe(r);
+            ri.setIngredient(ing);
+            ri.setAmount(1.0);
+            r.getIngredients().add(ri);
+        }
+        return r;
+    }
+}
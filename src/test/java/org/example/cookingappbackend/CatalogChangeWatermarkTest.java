@@ -0,0 +1,48 @@
+package org.example.cookingappbackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogChangeWatermarkTest {
+
+    private final CatalogChangeWatermark watermark = new CatalogChangeWatermark();
+
+    @Test
+    void ceiling_isSeededFromCommittedChanges_onceOnly() {
+        assertThat(watermark.ceiling(() -> 40L)).isEqualTo(40L);
+        assertThat(watermark.ceiling(() -> 99L)).isEqualTo(40L);
+    }
+
+    @Test
+    void ceiling_stopsBelowTheLowestOpenSlot_untilItCloses() {
+        watermark.ceiling(() -> 40L);
+        CatalogChangeWatermark.Slot slow = watermark.open();
+        watermark.inserted(slow, 41L, 42L);
+        CatalogChangeWatermark.Slot fast = watermark.open();
+        watermark.inserted(fast, 43L, 43L);
+        watermark.close(fast);
+
+        assertThat(watermark.ceiling(() -> 0L)).isEqualTo(40L);
+
+        watermark.close(slow);
+        assertThat(watermark.ceiling(() -> 0L)).isEqualTo(43L);
+    }
+
+    @Test
+    void ceiling_holdsAtTheHighestIssuedSequence_whileASlotHasNotInsertedYet() {
+        CatalogChangeWatermark.Slot first = watermark.open();
+        watermark.inserted(first, 5L, 6L);
+        watermark.close(first);
+        watermark.open();
+
+        assertThat(watermark.ceiling(() -> 0L)).isEqualTo(6L);
+    }
+
+    @Test
+    void ceiling_servesNothing_whileASlotOpenedBeforeAnySequenceWasKnown() {
+        watermark.open();
+
+        assertThat(watermark.ceiling(() -> 40L)).isEqualTo(-1L);
+    }
+}
@@ -0,0 +1,138 @@
+package org.example.cookingappbackend.service;
+
+import org.example.cookingappbackend.dto.response.CatalogChangesResponse;
+import org.example.cookingappbackend.enums.CatalogEntityType;
+import org.example.cookingappbackend.enums.IngredientCategory;
+import org.example.cookingappbackend.model.*;
+import org.example.cookingappbackend.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CatalogSyncServiceTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-01T10:00:00Z");
+
+    private final CatalogChangeRepository changeRepo = mock(CatalogChangeRepository.class);
+    private final RecipeRepository recipeRepo = mock(RecipeRepository.class);
+    private final RecipeIngredientRepository recipeIngredientRepo = mock(RecipeIngredientRepository.class);
+    private final RecipeStepRepository recipeStepRepo = mock(RecipeStepRepository.class);
+    private final IngredientRepository ingredientRepo = mock(IngredientRepository.class);
+    private final CatalogChangeWatermark watermark = new CatalogChangeWatermark();
+
+    private final CatalogSyncService sync = new CatalogSyncService(changeRepo, recipeRepo, recipeIngredientRepo,
+            recipeStepRepo, ingredientRepo, watermark, Duration.ofSeconds(2), Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @BeforeEach
+    void committed() {
+        when(changeRepo.findMaxId()).thenReturn(100L);
+    }
+
+    @Test
+    void changesSince_returnsCurrentRowsOnce_andTombstones() {
+        Recipe soup = new Recipe();
+        soup.setId(1L);
+        soup.setTitle("Soup");
+        soup.setVersion(3L);
+        Ingredient salt = new Ingredient(7L, "salt", "g", IngredientCategory.values()[0]);
+        RecipeIngredient line = new RecipeIngredient(11L, soup, salt, 5.0);
+
+        when(changeRepo.findByIdGreaterThanAndIdLessThanEqualAndChangedAtBeforeOrderByIdAsc(
+                10L, 100L, NOW.minusSeconds(2), Limit.of(6)))
+                .thenReturn(List.of(
+                        change(11L, CatalogEntityType.RECIPE, 1L, 1L, false),
+                        change(12L, CatalogEntityType.RECIPE_INGREDIENT, 11L, 1L, false),
+                        change(13L, CatalogEntityType.RECIPE_STEP, 21L, 1L, true),
+                        change(14L, CatalogEntityType.RECIPE, 1L, 1L, false),
+                        change(15L, CatalogEntityType.INGREDIENT, 7L, null, false)));
+        when(recipeRepo.findAllById(List.of(1L))).thenReturn(List.of(soup));
+        when(recipeIngredientRepo.findAllById(List.of(11L))).thenReturn(List.of(line));
+        when(ingredientRepo.findAllById(List.of(7L))).thenReturn(List.of(salt));
+
+        CatalogChangesResponse res = sync.changesSince(10L, 5);
+
+        assertThat(res.since()).isEqualTo(10L);
+        assertThat(res.next()).isEqualTo(15L);
+        assertThat(res.hasMore()).isFalse();
+        assertThat(res.recipes()).extracting(CatalogChangesResponse.RecipeRow::version).containsExactly(3L);
+        assertThat(res.recipeIngredients()).containsExactly(new CatalogChangesResponse.RecipeIngredientRow(11L, 1L, 7L, 5.0));
+        assertThat(res.recipeSteps()).isEmpty();
+        assertThat(res.ingredients()).extracting(CatalogChangesResponse.IngredientRow::name).containsExactly("salt");
+        assertThat(res.deleted()).containsExactly(new CatalogChangesResponse.Tombstone(CatalogEntityType.RECIPE_STEP, 21L, 1L));
+        verify(recipeStepRepo, never()).findAllById(any());
+    }
+
+    @Test
+    void changesSince_fullBatch_setsHasMore_andTurnsVanishedRowsIntoTombstones() {
+        when(changeRepo.findByIdGreaterThanAndIdLessThanEqualAndChangedAtBeforeOrderByIdAsc(
+                0L, 100L, NOW.minusSeconds(2), Limit.of(3)))
+                .thenReturn(List.of(
+                        change(1L, CatalogEntityType.RECIPE_STEP, 4L, 2L, false),
+                        change(2L, CatalogEntityType.RECIPE_STEP, 5L, 2L, false),
+                        change(3L, CatalogEntityType.RECIPE_STEP, 6L, 2L, false)));
+        when(recipeStepRepo.findAllById(List.of(4L, 5L))).thenReturn(List.of());
+
+        CatalogChangesResponse res = sync.changesSince(0L, 2);
+
+        assertThat(res.next()).isEqualTo(2L);
+        assertThat(res.hasMore()).isTrue();
+        assertThat(res.deleted()).extracting(CatalogChangesResponse.Tombstone::id).containsExactly(4L, 5L);
+    }
+
+    @Test
+    void changesSince_nothingNew_keepsSequence() {
+        when(changeRepo.findByIdGreaterThanAndIdLessThanEqualAndChangedAtBeforeOrderByIdAsc(any(), any(), any(), any()))
+                .thenReturn(List.of());
+
+        CatalogChangesResponse res = sync.changesSince(42L, 500);
+
+        assertThat(res.next()).isEqualTo(42L);
+        assertThat(res.hasMore()).isFalse();
+        verifyNoInteractions(recipeRepo, recipeIngredientRepo, recipeStepRepo, ingredientRepo);
+    }
+
+    @Test
+    void changesSince_readsNoFurtherThanTheLowestSequenceInFlight() {
+        CatalogChangeWatermark.Slot slow = watermark.open();
+        watermark.inserted(slow, 101L, 101L);
+        CatalogChangeWatermark.Slot fast = watermark.open();
+        watermark.inserted(fast, 102L, 104L);
+        watermark.close(fast);
+        when(changeRepo.findByIdGreaterThanAndIdLessThanEqualAndChangedAtBeforeOrderByIdAsc(any(), any(), any(), any()))
+                .thenReturn(List.of());
+
+        sync.changesSince(90L, 10);
+        watermark.close(slow);
+        sync.changesSince(90L, 10);
+
+        verify(changeRepo).findByIdGreaterThanAndIdLessThanEqualAndChangedAtBeforeOrderByIdAsc(
+                90L, 100L, NOW.minusSeconds(2), Limit.of(11));
+        verify(changeRepo).findByIdGreaterThanAndIdLessThanEqualAndChangedAtBeforeOrderByIdAsc(
+                90L, 104L, NOW.minusSeconds(2), Limit.of(11));
+        verify(changeRepo, never()).findMaxId();
+    }
+
+    @Test
+    void changesSince_rejectsBadArguments() {
+        assertThatThrownBy(() -> sync.changesSince(-1L, 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> sync.changesSince(0L, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> sync.changesSince(0L, CatalogSyncService.MAX_BATCH + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(changeRepo);
+    }
+
+    private static CatalogChange change(Long seq, CatalogEntityType type, Long entityId, Long recipeId, boolean deleted) {
+        return new CatalogChange(seq, type, entityId, recipeId, deleted, NOW.minusSeconds(60));
+    }
+}
@@ -0,0 +1,533 @@
+package org.example.cookingappbackend.integration;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.cookingappbackend.enums.IngredientCategory;
+import org.example.cookingappbackend.model.*;
+import org.example.cookingappbackend.repository.*;
+import org.example.cookingappbackend.service.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the database round-trips each endpoint makes against a fixture with
+ * several rows behind every association, so an N+1 shows up as a blown budget.
+ * Every statement execution is one round-trip, a whole JDBC batch included.
+ * They are counted at the DataSource, which also sees the statements issued
+ * outside Hibernate (the catalog changelog insert, native queries).
+ * Sequence reads are left out: a pooled sequence is read once per 50 ids, and
+ * which test happens to exhaust a block depends on the order tests run in.
+ * <p>
+ * Caches, the second-level cache included, are cleared before each call:
+ * budgets are for a cold request.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class EndpointStatementBudgetIntegrationTest {
+
+    private static final AtomicInteger ROUND_TRIPS = new AtomicInteger();
+    private static final Set<String> STATEMENT_FACTORIES = Set.of("prepareStatement", "prepareCall", "createStatement");
+    private static final Pattern SEQUENCE_READ = Pattern.compile("(?i)next value for|nextval\\(");
+
+    @TestConfiguration
+    static class StatementCounting {
+
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource ds)) return bean;
+                    return proxy(DataSource.class, ds, (target, method, args) -> {
+                        Object result = invoke(target, method, args);
+                        return result instanceof Connection c ? proxy(Connection.class, c, (conn, m, a) -> {
+                            Object created = invoke(conn, m, a);
+                            if (!STATEMENT_FACTORIES.contains(m.getName())) return created;
+                            if (a != null && a[0] instanceof String sql && SEQUENCE_READ.matcher(sql).find()) return created;
+                            return countingStatement(m.getReturnType(), created);
+                        }) : result;
+                    });
+                }
+            };
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <S> Object countingStatement(Class<S> type, Object statement) {
+        return proxy(type, (S) statement, (st, m, a) -> {
+            if (m.getName().startsWith("execute")) ROUND_TRIPS.incrementAndGet();
+            return invoke(st, m, a);
+        });
+    }
+
+    private interface Handler<T> {
+        Object handle(T target, Method method, Object[] args) throws Throwable;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, Handler<T> handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (p, method, args) -> handler.handle(target, method, args));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Autowired MockMvc mockMvc;
+    @Autowired TransactionTemplate tx;
+    @Autowired EntityManagerFactory emf;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired UserRepository userRepository;
+    @Autowired IngredientRepository ingredientRepository;
+    @Autowired RecipeRepository recipeRepository;
+    @Autowired RatingRepository ratingRepository;
+    @Autowired FavoriteRepository favoriteRepository;
+    @Autowired PantryItemRepository pantryItemRepository;
+    @Autowired ShoppingListRepository shoppingListRepository;
+    @Autowired RecipeIngredientIndex ingredientIndex;
+    @Autowired IngredientAutocompleteIndex autocomplete;
+    @Autowired IngredientNameMatcher nameMatcher;
+    @Autowired RecipeSearchCache searchCache;
+    @Autowired SearchCountCache countCache;
+    @Autowired RecipeJsonCache jsonCache;
+    @Autowired RecipeDetailCache detailCache;
+
+    private User chef;
+    private List<User> raters;
+    private List<Ingredient> ingredients;
+    private List<Recipe> recipes;
+    private List<ShoppingList> lists;
+    private List<PantryItem> pantry;
+    private String tag;
+    private long changesBefore;
+
+    @BeforeEach
+    void fixture() {
+        tag = UUID.randomUUID().toString().substring(0, 8);
+        changesBefore = jdbc.queryForObject("select coalesce(max(id), 0) from catalog_changes", Long.class);
+        tx.executeWithoutResult(s -> {
+            chef = newUser("chef");
+            raters = List.of(newUser("a"), newUser("b"), newUser("c"));
+
+            ingredients = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                Ingredient ing = new Ingredient();
+                ing.setName("ing" + i + "-" + tag);
+                ing.setUnit("g");
+                ing.setCategory(IngredientCategory.OTHER);
+                ingredients.add(ingredientRepository.save(ing));
+            }
+
+            recipes = new ArrayList<>();
+            for (int r = 0; r < 4; r++) {
+                Recipe recipe = new Recipe();
+                recipe.setTitle("Budget " + tag + " " + r);
+                recipe.setDescription("desc");
+                recipe.setTotalTimeMin(10 + r);
+                recipe.setAvgRating(4.0);
+                for (int i = 0; i < 3; i++) {
+                    RecipeIngredient ri = new RecipeIngredient();
+                    ri.setRecipe(recipe);
+                    ri.setIngredient(ingredients.get((r + i) % ingredients.size()));
+                    ri.setAmount(100.0);
+                    recipe.getIngredients().add(ri);
+                }
+                for (int n = 1; n <= 3; n++) {
+                    RecipeStep step = new RecipeStep();
+                    step.setRecipe(recipe);
+                    step.setStepNo(n);
+                    step.setInstruction("step " + n);
+                    recipe.getSteps().add(step);
+                }
+                recipes.add(recipeRepository.save(recipe));
+            }
+
+            for (User u : raters) {
+                Rating rating = new Rating();
+                rating.setRecipe(recipes.get(0));
+                rating.setUser(u);
+                rating.setStars(4);
+                rating.setComment("ok");
+                ratingRepository.save(rating);
+            }
+
+            for (Recipe r : recipes.subList(0, 3)) {
+                Favorite f = new Favorite();
+                f.setUserId(chef.getId());
+                f.setRecipe(r);
+                f.setCreatedAt(Instant.now());
+                favoriteRepository.save(f);
+            }
+
+            pantry = new ArrayList<>();
+            for (Ingredient ing : ingredients.subList(0, 3)) {
+                PantryItem p = new PantryItem();
+                p.setUser(chef);
+                p.setIngredient(ing);
+                p.setAmount(500.0);
+                p.setUpdatedAt(LocalDateTime.now());
+                pantry.add(pantryItemRepository.save(p));
+            }
+
+            lists = new ArrayList<>();
+            for (int l = 0; l < 3; l++) {
+                ShoppingList list = new ShoppingList();
+                list.setUser(chef);
+                list.setName("List " + l);
+                list.setCreatedAt(LocalDateTime.now());
+                for (Ingredient ing : ingredients.subList(0, 3)) {
+                    ShoppingListItem item = new ShoppingListItem();
+                    item.setShoppingList(list);
+                    item.setIngredient(ing);
+                    item.setName(ing.getName());
+                    item.setAmount(50.0);
+                    item.setUnit("g");
+                    list.getItems().add(item);
+                }
+                lists.add(shoppingListRepository.save(list));
+            }
+        });
+
+        ingredientIndex.rebuild();
+        autocomplete.refresh();
+        nameMatcher.refresh();
+    }
+
+    private User newUser(String name) {
+        User u = new User();
+        u.setEmail(name + "-" + tag + "@test.com");
+        u.setName(name);
+        u.setSurname("Tester");
+        u.setPassword("x");
+        u.setCreatedAt(LocalDateTime.now());
+        return userRepository.save(u);
+    }
+
+    private List<Ingredient> newIngredients(int count) {
+        return tx.execute(s -> {
+            List<Ingredient> created = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                Ingredient ing = new Ingredient();
+                ing.setName("extra" + i + "-" + tag);
+                ing.setUnit("g");
+                ing.setCategory(IngredientCategory.OTHER);
+                created.add(ingredientRepository.save(ing));
+            }
+            return created;
+        });
+    }
+
+    private Long recipeId() {
+        return recipes.get(0).getId();
+    }
+
+    private Long listId() {
+        return lists.get(0).getId();
+    }
+
+    // --- RecipeController ---
+
+    @Test
+    void recipes_create() throws Exception {
+        String body = """
+                {"title": "New %s", "totalTimeMin": 15,
+                 "ingredients": [{"ingredientId": %d, "amount": 1}, {"ingredientId": %d, "amount": 2},
+                                 {"ingredientId": %d, "amount": 3}],
+                 "steps": [{"stepNo": 1, "instruction": "a"}, {"stepNo": 2, "instruction": "b"}]}
+                """.formatted(tag, ingredients.get(0).getId(), ingredients.get(1).getId(), ingredients.get(2).getId());
+        assertBudget(5, post("/api/recipes").with(user(chef))
+                .contentType(MediaType.APPLICATION_JSON).content(body));
+    }
+
+    @Test
+    void recipes_create_withFifteenIngredients() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (Ingredient ing : newIngredients(15)) lines.add("{\"ingredientId\": " + ing.getId() + ", \"amount\": 1}");
+        String body = """
+                {"title": "Big %s", "ingredients": [%s],
+                 "steps": [{"stepNo": 1, "instruction": "a"}, {"stepNo": 2, "instruction": "b"}]}
+                """.formatted(tag, String.join(",", lines));
+        assertBudget(5, post("/api/recipes").with(user(chef))
+                .contentType(MediaType.APPLICATION_JSON).content(body));
+    }
+
+    @Test
+    void recipes_bulk_costsTheSameForAnyNumberOfRecipes() throws Exception {
+        String one = """
+                {"title": "Bulk %s", "ingredients": [{"ingredientId": %d, "amount": 1}, {"ingredientId": %d, "amount": 2},
+                                 {"ingredientId": %d, "amount": 3}],
+                 "steps": [{"stepNo": 1, "instruction": "a"}, {"stepNo": 2, "instruction": "b"}]}
+                """.formatted(tag, ingredients.get(0).getId(), ingredients.get(1).getId(), ingredients.get(2).getId());
+        String body = "[" + String.join(",", Collections.nCopies(20, one)) + "]";
+        assertBudget(5, post("/api/recipes/bulk").with(user(chef))
+                .contentType(MediaType.APPLICATION_JSON).content(body));
+    }
+
+    @Test
+    void recipes_list() throws Exception {
+        assertBudget(2, get("/api/recipes").param("size", "20"));
+    }
+
+    @Test
+    void recipes_cursor() throws Exception {
+        assertBudget(1, get("/api/recipes/cursor").param("size", "20"));
+    }
+
+    @Test
+    void recipes_export() throws Exception {
+        // the body is written on an async thread, so the count covers both dispatches
+        ROUND_TRIPS.set(0);
+        MvcResult started = mockMvc.perform(get("/api/recipes/export")).andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+        assertWithin(3, "GET /api/recipes/export");
+    }
+
+    @Test
+    void recipes_changes() throws Exception {
+        assertBudget(5, get("/api/recipes/changes").param("since", String.valueOf(changesBefore)));
+    }
+
+    @Test
+    void recipes_get() throws Exception {
+        // header with ingredient lines, then steps; joining both would multiply the rows
+        assertBudget(3, get("/api/recipes/{id}", recipeId()));
+    }
+
+    @Test
+    void recipes_search_byQuery() throws Exception {
+        assertBudget(1, get("/api/recipes/search").param("q", "budget " + tag));
+    }
+
+    @Test
+    void recipes_search_byIngredients() throws Exception {
+        assertBudget(1, get("/api/recipes/search")
+                .param("ingredients", ingredients.get(0).getName() + "," + ingredients.get(1).getName()));
+    }
+
+    @Test
+    void recipes_search_inPantry() throws Exception {
+        assertBudget(2, get("/api/recipes/search").with(user(chef)).param("inPantryOnly", "true"));
+    }
+
+    @Test
+    void recipes_topRated() throws Exception {
+        assertBudget(2, get("/api/recipes/top-rated").param("size", "20"));
+    }
+
+    @Test
+    void recipes_topRatedCursor() throws Exception {
+        assertBudget(1, get("/api/recipes/top-rated/cursor").param("size", "20"));
+    }
+
+    // --- RatingController ---
+
+    @Test
+    void ratings_list() throws Exception {
+        assertBudget(2, get("/api/recipes/{id}/rating", recipeId()).with(user(chef)));
+    }
+
+    @Test
+    void recipes_leaderboard() throws Exception {
+        // served from memory
+        assertBudget(0, get("/api/recipes/leaderboard").param("size", "20"));
+    }
+
+    @Test
+    void ratings_cursor() throws Exception {
+        // authors come with the ratings: one bounded query for the first screen
+        assertBudget(1, get("/api/recipes/{id}/rating/cursor", recipeId()).param("size", "2").with(user(chef)));
+    }
+
+    @Test
+    void ratings_upsert() throws Exception {
+        assertBudget(6, post("/api/recipes/{id}/rating", recipeId()).with(user(chef))
+                .contentType(MediaType.APPLICATION_JSON).content("{\"stars\": 5, \"comment\": \"great\"}"));
+    }
+
+    @Test
+    void ratings_delete() throws Exception {
+        // aggregate update, change-log row and aggregates read-back; none of it depends on the number of ratings
+        assertBudget(6, delete("/api/recipes/{id}/rating", recipeId()).with(user(raters.get(0))));
+    }
+
+    // --- ShoppingListController ---
+
+    @Test
+    void shoppingLists_list() throws Exception {
+        assertBudget(1, get("/api/shopping-lists").with(user(chef)));
+    }
+
+    @Test
+    void shoppingLists_create() throws Exception {
+        assertBudget(2, post("/api/shopping-lists").with(user(chef)).param("name", "Weekend"));
+    }
+
+    @Test
+    void shoppingLists_get() throws Exception {
+        assertBudget(2, get("/api/shopping-lists/{id}", listId()).with(user(chef)));
+    }
+
+    @Test
+    void shoppingLists_addItem() throws Exception {
+        assertBudget(4, post("/api/shopping-lists/{id}/items", listId()).with(user(chef))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ingredientId\": %d, \"amount\": 3}".formatted(ingredients.get(4).getId())));
+    }
+
+    @Test
+    void shoppingLists_updateItem() throws Exception {
+        Long itemId = lists.get(0).getItems().get(0).getId();
+        assertBudget(4, put("/api/shopping-lists/{id}/items/{itemId}", listId(), itemId).with(user(chef))
+                .contentType(MediaType.APPLICATION_JSON).content("{\"amount\": 7}"));
+    }
+
+    @Test
+    void shoppingLists_deleteItem() throws Exception {
+        Long itemId = lists.get(0).getItems().get(0).getId();
+        assertBudget(4, delete("/api/shopping-lists/{id}/items/{itemId}", listId(), itemId).with(user(chef)));
+    }
+
+    @Test
+    void shoppingLists_finalize() throws Exception {
+        assertBudget(10, post("/api/shopping-lists/{id}/finalize", listId()).with(user(chef))
+                .param("addToPantry", "true"));
+    }
+
+    @Test
+    void shoppingLists_addFromRecipe() throws Exception {
+        assertBudget(5, post("/api/shopping-lists/add-from-recipe/{id}", recipes.get(3).getId()).with(user(chef))
+                .contentType(MediaType.APPLICATION_JSON).content("{\"mode\": \"all\"}"));
+    }
+
+    @Test
+    void shoppingLists_addFromRecipe_withFifteenIngredients() throws Exception {
+        List<Ingredient> big = newIngredients(15);
+        Long recipeId = tx.execute(s -> {
+            Recipe recipe = new Recipe();
+            recipe.setTitle("Big " + tag);
+            for (Ingredient ing : big) {
+                RecipeIngredient ri = new RecipeIngredient();
+                ri.setRecipe(recipe);
+                ri.setIngredient(ing);
+                ri.setAmount(10.0);
+                recipe.getIngredients().add(ri);
+            }
+            return recipeRepository.save(recipe).getId();
+        });
+        assertBudget(5, post("/api/shopping-lists/add-from-recipe/{id}", recipeId).with(user(chef))
+                .contentType(MediaType.APPLICATION_JSON).content("{\"mode\": \"all\"}"));
+    }
+
+    @Test
+    void shoppingLists_rename() throws Exception {
+        assertBudget(3, patch("/api/shopping-lists/{id}", listId()).with(user(chef))
+                .contentType(MediaType.APPLICATION_JSON).content("{\"name\": \"Renamed\"}"));
+    }
+
+    // --- PantryController ---
+
+    @Test
+    void pantry_list() throws Exception {
+        assertBudget(1, get("/api/pantry").with(user(chef)));
+    }
+
+    @Test
+    void pantry_upsert() throws Exception {
+        assertBudget(3, post("/api/pantry").with(user(chef))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ingredientId\": %d, \"amount\": 2}".formatted(ingredients.get(5).getId())));
+    }
+
+    @Test
+    void pantry_delete() throws Exception {
+        assertBudget(2, delete("/api/pantry/{id}", pantry.get(0).getId()).with(user(chef)));
+    }
+
+    // --- FavoriteController ---
+
+    @Test
+    void favorites_add() throws Exception {
+        assertBudget(5, post("/api/recipes/{id}/favorite", recipes.get(3).getId()).with(user(chef)));
+    }
+
+    @Test
+    void favorites_remove() throws Exception {
+        assertBudget(3, delete("/api/recipes/{id}/favorite", recipeId()).with(user(chef)));
+    }
+
+    @Test
+    void favorites_list() throws Exception {
+        assertBudget(3, get("/api/favorites").with(user(chef)));
+    }
+
+    @Test
+    void favorites_cursor() throws Exception {
+        assertBudget(3, get("/api/favorites/cursor").with(user(chef)));
+    }
+
+    @Test
+    void favorites_ids() throws Exception {
+        assertBudget(3, get("/api/favorites/ids").with(user(chef)));
+    }
+
+    private void assertBudget(int budget, MockHttpServletRequestBuilder request) throws Exception {
+        emf.getCache().evictAll();
+        searchCache.clear();
+        countCache.clear();
+        jsonCache.clear();
+        recipes.forEach(r -> detailCache.evict(r.getId()));
+
+        ROUND_TRIPS.set(0);
+        mockMvc.perform(request).andExpect(status().is2xxSuccessful());
+        MockHttpServletRequest sent = request.buildRequest(new MockServletContext());
+        assertWithin(budget, sent.getMethod() + " " + sent.getRequestURI());
+    }
+
+    private void assertWithin(int budget, String endpoint) {
+        int executed = ROUND_TRIPS.get();
+        assertThat(executed).as("database round-trips for %s", endpoint).isLessThanOrEqualTo(budget);
+    }
+}
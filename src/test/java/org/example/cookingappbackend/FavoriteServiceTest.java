@@ -1,21 +1,27 @@
 package org.example.cookingappbackend.service;
 
+import org.example.cookingappbackend.dto.response.RecipeSummaryResponse;
 import org.example.cookingappbackend.model.Favorite;
 import org.example.cookingappbackend.model.Recipe;
 import org.example.cookingappbackend.repository.FavoriteRepository;
+import org.example.cookingappbackend.repository.FavoriteSummaryRow;
 import org.example.cookingappbackend.repository.RecipeRepository;
+import org.example.cookingappbackend.repository.RecipeSummaryRow;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -84,19 +90,19 @@ class FavoriteServiceTest {
         Long userId = 5L;
         var pageable = PageRequest.of(0, 20);
 
-        Recipe r1 = new Recipe();
-        r1.setId(1L);
-        Recipe r2 = new Recipe();
-        r2.setId(2L);
+        RecipeSummaryRow r1 = new RecipeSummaryRow(1L, "A", 10, null);
+        RecipeSummaryRow r2 = new RecipeSummaryRow(2L, "B", null, 4.5);
 
-        Page<Recipe> recipes = new PageImpl<>(List.of(r1, r2), pageable, 2);
+        Page<RecipeSummaryRow> recipes = new PageImpl<>(List.of(r1, r2), pageable, 2);
         when(favoriteRepo.findRecipesByUserId(userId, pageable)).thenReturn(recipes);
 
         var result = favoriteService.list(userId, pageable);
 
         assertThat(result).isNotNull();
         assertThat(result.getTotalElements()).isEqualTo(2);
-        assertThat(result.getContent()).hasSize(2);
+        assertThat(result.getContent()).containsExactly(
+                new RecipeSummaryResponse(1L, "A", 10, null),
+                new RecipeSummaryResponse(2L, "B", null, 4.5));
 
         verify(favoriteRepo).findRecipesByUserId(userId, pageable);
         verifyNoMoreInteractions(favoriteRepo);
@@ -117,4 +123,40 @@ class FavoriteServiceTest {
         verifyNoMoreInteractions(favoriteRepo);
         verifyNoInteractions(recipeRepo);
     }
+
+    @Test
+    void listAfter_returnsNextCursor_thatResumesAfterLastFavorite() {
+        Long userId = 6L;
+        Instant t = Instant.parse("2024-05-01T10:00:00Z");
+        FavoriteSummaryRow f1 = favorite(31L, t.plusSeconds(60), 1L);
+        FavoriteSummaryRow f2 = favorite(30L, t, 2L);
+        FavoriteSummaryRow f3 = favorite(29L, t, 3L);
+        when(favoriteRepo.findFirstByUserId(userId, Limit.of(3))).thenReturn(List.of(f1, f2, f3));
+
+        var first = favoriteService.listAfter(userId, null, 2);
+
+        assertThat(first.content()).extracting(r -> r.id()).containsExactly(1L, 2L);
+        assertThat(first.hasNext()).isTrue();
+
+        when(favoriteRepo.findByUserIdAfter(userId, t, 30L, Limit.of(3))).thenReturn(List.of(f3));
+
+        var second = favoriteService.listAfter(userId, first.nextCursor(), 2);
+
+        assertThat(second.content()).extracting(r -> r.id()).containsExactly(3L);
+        assertThat(second.hasNext()).isFalse();
+        assertThat(second.nextCursor()).isNull();
+        verify(favoriteRepo, never()).findRecipesByUserId(any(), any());
+    }
+
+    @Test
+    void listAfter_rejectsMalformedCursor() {
+        assertThatThrownBy(() -> favoriteService.listAfter(6L, "not-a-cursor!", 20))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+        verifyNoInteractions(favoriteRepo);
+    }
+
+    private static FavoriteSummaryRow favorite(Long id, Instant createdAt, Long recipeId) {
+        return new FavoriteSummaryRow(id, createdAt, recipeId, "R" + recipeId, null, null);
+    }
 }
@@ -0,0 +1,89 @@
+package org.example.cookingappbackend.service;
+
+import org.example.cookingappbackend.enums.IngredientCategory;
+import org.example.cookingappbackend.model.Ingredient;
+import org.example.cookingappbackend.repository.IngredientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class IngredientAutocompleteIndexTest {
+
+    private final IngredientRepository repo = mock(IngredientRepository.class);
+    private final IngredientAutocompleteIndex index = new IngredientAutocompleteIndex(repo);
+
+    @BeforeEach
+    void setUp() {
+        when(repo.findAll()).thenReturn(List.of(
+                ing(1L, "Mleko"),
+                ing(2L, "Mleko kokosowe"),
+                ing(3L, "Masło"),
+                ing(4L, "Mąka"),
+                ing(5L, "Kwaśne mleko"),
+                ing(6L, "Ml")
+        ));
+        index.refresh();
+    }
+
+    @Test
+    void version_changesOnEveryAdd() {
+        long before = index.version();
+
+        index.add(ing(7L, "Mleczko"));
+        long afterAdd = index.version();
+        index.add(ing(8L, "Mleczko 2"));
+
+        assertThat(afterAdd).isGreaterThan(before);
+        assertThat(index.version()).isGreaterThan(afterAdd);
+    }
+
+    @Test
+    void refresh_keepsServingTheOldIngredients_untilTheNewOnesAreLoaded() {
+        long before = index.version();
+        when(repo.findAll()).thenAnswer(inv -> {
+            assertThat(index.search("masło", 5)).extracting(Ingredient::getId).containsExactly(3L);
+            return List.of(ing(7L, "Marchew"));
+        });
+
+        index.refresh();
+
+        assertThat(index.search("ma", 5)).extracting(Ingredient::getId).containsExactly(7L);
+        assertThat(index.version()).isGreaterThan(before);
+    }
+
+    @Test
+    void prefixMatchesFirst_thenShorter_thenAlphabetical_thenInfix() {
+        List<Ingredient> res = index.search("ml", 10);
+
+        assertThat(res).extracting(Ingredient::getId).containsExactly(6L, 1L, 2L, 5L);
+    }
+
+    @Test
+    void respectsLimit_acrossPrefixAndInfix() {
+        assertThat(index.search("ml", 2)).extracting(Ingredient::getId).containsExactly(6L, 1L);
+        assertThat(index.search("mleko", 2)).extracting(Ingredient::getId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void isCaseInsensitive_andIgnoresBlank() {
+        assertThat(index.search("  MAS ", 5)).extracting(Ingredient::getId).containsExactly(3L);
+        assertThat(index.search("   ", 5)).isEmpty();
+        assertThat(index.search("m", 0)).isEmpty();
+    }
+
+    @Test
+    void add_makesIngredientSearchable_withoutReload() {
+        index.add(ing(7L, "Mlecz"));
+
+        assertThat(index.search("mle", 10)).extracting(Ingredient::getId).containsExactly(7L, 1L, 2L, 5L);
+        verify(repo, times(1)).findAll();
+    }
+
+    private static Ingredient ing(Long id, String name) {
+        return new Ingredient(id, name, "g", IngredientCategory.OTHER);
+    }
+}
@@ -1,7 +1,7 @@
 package org.example.cookingappbackend.controller;
 
 import org.example.cookingappbackend.model.Ingredient;
-import org.example.cookingappbackend.repository.IngredientRepository;
+import org.example.cookingappbackend.service.IngredientAutocompleteIndex;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,7 +18,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -44,7 +46,7 @@ class IngredientControllerTest {
     private MockMvc mockMvc;
 
     @MockBean
-    private IngredientRepository ingredientRepo;
+    private IngredientAutocompleteIndex autocomplete;
 
     @MockBean
     private org.example.cookingappbackend.service.JwtService jwtService;
@@ -59,7 +61,7 @@ class IngredientControllerTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$.length()").value(0));
 
-        verifyNoInteractions(ingredientRepo);
+        verifyNoInteractions(autocomplete);
     }
 
     @Test
@@ -69,13 +71,13 @@ class IngredientControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(0));
 
-        verifyNoInteractions(ingredientRepo);
+        verifyNoInteractions(autocomplete);
     }
 
     @Test
     void search_trimsAndLowercasesQuery() throws Exception {
         Ingredient ing = mockIngredient(1L, "Milk", "ml");
-        given(ingredientRepo.searchRanked(anyString())).willReturn(List.of(ing));
+        given(autocomplete.search(anyString(), anyInt())).willReturn(List.of(ing));
 
         mockMvc.perform(get("/api/ingredients")
                         .param("query", "  MiLk  "))
@@ -86,33 +88,33 @@ class IngredientControllerTest {
                 .andExpect(jsonPath("$[0].unit").value("ml"));
 
         ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
-        verify(ingredientRepo).searchRanked(captor.capture());
+        verify(autocomplete).search(captor.capture(), eq(20));
         assertThat(captor.getValue()).isEqualTo("milk");
     }
 
     @Test
-    void search_defaultLimit_truncatesTo20() throws Exception {
+    void search_defaultLimit_is20() throws Exception {
         List<Ingredient> many = new ArrayList<>();
-        for (int i = 1; i <= 30; i++) {
+        for (int i = 1; i <= 20; i++) {
             many.add(mockIngredient((long) i, "Ing" + i, "g"));
         }
-        given(ingredientRepo.searchRanked("x")).willReturn(many);
+        given(autocomplete.search("x", 20)).willReturn(many);
 
         mockMvc.perform(get("/api/ingredients")
                         .param("query", "x"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(20));
 
-        verify(ingredientRepo).searchRanked("x");
+        verify(autocomplete).search("x", 20);
     }
 
     @Test
-    void search_customLimit_truncates() throws Exception {
+    void search_customLimit_isPassedToIndex() throws Exception {
         List<Ingredient> many = new ArrayList<>();
-        for (int i = 1; i <= 10; i++) {
+        for (int i = 1; i <= 5; i++) {
             many.add(mockIngredient((long) i, "Ing" + i, "g"));
         }
-        given(ingredientRepo.searchRanked("abc")).willReturn(many);
+        given(autocomplete.search("abc", 5)).willReturn(many);
 
         mockMvc.perform(get("/api/ingredients")
                         .param("query", "abc")
@@ -120,7 +122,7 @@ class IngredientControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(5));
 
-        verify(ingredientRepo).searchRanked("abc");
+        verify(autocomplete).search("abc", 5);
     }
 
     private static Ingredient mockIngredient(Long id, String name, String unit) throws Exception {
@@ -136,4 +138,25 @@ class IngredientControllerTest {
 
         return ing;
     }
+
+    @Test
+    void search_returns304_whenIndexUnchanged() throws Exception {
+        given(autocomplete.version()).willReturn(42L);
+
+        mockMvc.perform(get("/api/ingredients").param("query", "milk").header("If-None-Match", "W/\"i42\""))
+                .andExpect(status().isNotModified());
+
+        verify(autocomplete, never()).search(anyString(), anyInt());
+    }
+
+    @Test
+    void search_setsEtagAndCacheControl() throws Exception {
+        given(autocomplete.version()).willReturn(43L);
+        given(autocomplete.search("milk", 20)).willReturn(List.of());
+
+        mockMvc.perform(get("/api/ingredients").param("query", "milk").header("If-None-Match", "W/\"i42\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"i43\""))
+                .andExpect(header().string("Cache-Control", "max-age=300, public"));
+    }
 }
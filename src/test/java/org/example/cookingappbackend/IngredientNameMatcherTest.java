@@ -0,0 +1,97 @@
+package org.example.cookingappbackend.service;
+
+import org.example.cookingappbackend.enums.IngredientCategory;
+import org.example.cookingappbackend.model.Ingredient;
+import org.example.cookingappbackend.repository.IngredientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class IngredientNameMatcherTest {
+
+    private final IngredientRepository repo = mock(IngredientRepository.class);
+    private final IngredientNameMatcher matcher = new IngredientNameMatcher(repo);
+
+    @BeforeEach
+    void setUp() {
+        when(repo.findAll()).thenReturn(List.of(
+                ing(1L, "Ziemniaki"),
+                ing(2L, "Mąka pszenna"),
+                ing(3L, "Żółty ser"),
+                ing(4L, "Sól"),
+                ing(5L, "Olej"),
+                ing(6L, "Masło")
+        ));
+        matcher.refresh();
+    }
+
+    @Test
+    void resolvesExactNames_ignoringCaseAndDiacritics() {
+        assertThat(matcher.resolve("ZIEMNIAKI")).contains(1L);
+        assertThat(matcher.resolve("maka pszenna")).contains(2L);
+        assertThat(matcher.resolve("zolty ser")).contains(3L);
+        assertThat(matcher.resolve("sol")).contains(4L);
+        assertThat(matcher.resolve(" maslo ")).contains(6L);
+    }
+
+    @Test
+    void resolvesInflectionsAndTypos() {
+        assertThat(matcher.resolve("ziemniak")).contains(1L);
+        assertThat(matcher.resolve("ziemnaki")).contains(1L);
+        assertThat(matcher.resolve("ziemniakow")).contains(1L);
+        assertThat(matcher.resolve("mąka pszena")).contains(2L);
+    }
+
+    @Test
+    void refresh_keepsServingTheOldIndex_untilTheNewOneIsBuilt() {
+        when(repo.findAll()).thenAnswer(inv -> {
+            assertThat(matcher.resolve("ziemniaki")).contains(1L);
+            return List.of(ing(7L, "Marchew"));
+        });
+
+        matcher.refresh();
+
+        assertThat(matcher.resolve("marchew")).contains(7L);
+        assertThat(matcher.resolve("ziemniaki")).isEmpty();
+    }
+
+    @Test
+    void shortTokens_requireExactMatch() {
+        assertThat(matcher.resolve("sok")).isEmpty();
+        assertThat(matcher.resolve("ole")).isEmpty();
+    }
+
+    @Test
+    void unrelatedTokens_doNotResolve() {
+        assertThat(matcher.resolve("czekolada")).isEmpty();
+        assertThat(matcher.resolve("   ")).isEmpty();
+        assertThat(matcher.resolve(null)).isEmpty();
+    }
+
+    @Test
+    void resolveAll_dedupes_andReportsUnresolved() {
+        List<String> unresolved = new ArrayList<>();
+
+        List<Long> ids = matcher.resolveAll(List.of("ziemniak", "Ziemniaki", "sól", "kakao"), unresolved);
+
+        assertThat(ids).containsExactly(1L, 4L);
+        assertThat(unresolved).containsExactly("kakao");
+    }
+
+    @Test
+    void add_makesNewIngredientResolvable() {
+        matcher.add(ing(7L, "Cebula"));
+
+        assertThat(matcher.resolve("cebule")).contains(7L);
+        verify(repo, times(1)).findAll();
+    }
+
+    private static Ingredient ing(Long id, String name) {
+        return new Ingredient(id, name, "g", IngredientCategory.OTHER);
+    }
+}
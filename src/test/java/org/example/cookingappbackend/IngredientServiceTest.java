@@ -18,7 +18,9 @@ import static org.mockito.Mockito.*;
 class IngredientServiceTest {
 
     private final IngredientRepository repo = mock(IngredientRepository.class);
-    private final IngredientService service = new IngredientService(repo);
+    private final IngredientAutocompleteIndex autocomplete = mock(IngredientAutocompleteIndex.class);
+    private final IngredientNameMatcher nameMatcher = mock(IngredientNameMatcher.class);
+    private final IngredientService service = new IngredientService(repo, autocomplete, nameMatcher);
 
     @Test
     void create_savesIngredient_andReturnsDtoWithId() {
@@ -45,6 +47,8 @@ class IngredientServiceTest {
         assertThat(toSave.getName()).isEqualTo("Milk");
         assertThat(toSave.getUnit()).isEqualTo("ml");
 
+        verify(autocomplete).add(saved);
+        verify(nameMatcher).add(saved);
         verifyNoMoreInteractions(repo);
     }
 
@@ -62,6 +66,7 @@ class IngredientServiceTest {
 
         verify(repo).save(any(Ingredient.class));
         verifyNoMoreInteractions(repo);
+        verifyNoInteractions(autocomplete, nameMatcher);
     }
 
     @Test
@@ -0,0 +1,87 @@
+package org.example.cookingappbackend.integration;
+
+import jakarta.persistence.EntityManager;
+import org.example.cookingappbackend.model.Ingredient;
+import org.example.cookingappbackend.model.Recipe;
+import org.example.cookingappbackend.repository.IngredientRepository;
+import org.example.cookingappbackend.repository.RecipeRepository;
+import org.example.cookingappbackend.seed.SeedLoader;
+import org.example.cookingappbackend.service.IngredientAutocompleteIndex;
+import org.example.cookingappbackend.service.IngredientNameMatcher;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "app.seed.mode=parallel")
+@ActiveProfiles("test")
+class ParallelSeedLoaderIntegrationTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    IngredientAutocompleteIndex autocomplete;
+
+    @Autowired
+    IngredientNameMatcher nameMatcher;
+
+    @Autowired
+    PlatformTransactionManager txManager;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @Autowired
+    IngredientRepository ingredientRepository;
+
+    @Autowired
+    RecipeRepository recipeRepository;
+
+    @Test
+    void runOnce_failedPartition_isLoadedByTheNextRun() {
+        String broken = seed(recipe("Pancakes", "Flour"), recipe(null, "Flour"), recipe("Omelette", "Eggs"));
+        String fixed = seed(recipe("Pancakes", "Flour"), recipe("Bread", "Flour"), recipe("Omelette", "Eggs"));
+
+        assertThatThrownBy(() -> loader(broken).runOnce()).hasMessage("Seeding failed");
+
+        assertThat(recipeRepository.findAll()).extracting(Recipe::getTitle).containsExactlyInAnyOrder("Pancakes", "Omelette");
+        assertThat(jdbc.queryForList("select partition_no from seed_partitions order by partition_no", Integer.class))
+                .containsExactly(0, 2);
+
+        loader(fixed).runOnce();
+
+        assertThat(recipeRepository.findAll()).extracting(Recipe::getTitle)
+                .containsExactlyInAnyOrder("Pancakes", "Bread", "Omelette");
+        assertThat(jdbc.queryForList("select partition_no from seed_partitions order by partition_no", Integer.class))
+                .containsExactly(0, 1, 2);
+        // the dictionary is resolved before any partition, so workers never race to insert an ingredient
+        assertThat(ingredientRepository.findAll()).extracting(Ingredient::getName).containsExactlyInAnyOrder("Flour", "Eggs");
+
+        loader(fixed).runOnce();
+        assertThat(recipeRepository.count()).isEqualTo(3);
+    }
+
+    private SeedLoader loader(String json) {
+        return new SeedLoader(em, autocomplete, nameMatcher, txManager,
+                new ByteArrayResource(json.getBytes(StandardCharsets.UTF_8)), 1, "parallel", 2, 1);
+    }
+
+    private static String seed(String... recipes) {
+        return "[" + String.join(",", recipes) + "]";
+    }
+
+    private static String recipe(String title, String ingredient) {
+        return "{\"title\":" + (title == null ? "null" : "\"" + title + "\"")
+                + ",\"ingredients\":[{\"ingredientName\":\"" + ingredient + "\",\"unit\":\"g\",\"category\":\"OTHER\",\"amount\":1}]"
+                + ",\"steps\":[{\"stepNo\":1,\"instruction\":\"cook\"}]}";
+    }
+}
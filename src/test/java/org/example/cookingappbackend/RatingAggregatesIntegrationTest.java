@@ -0,0 +1,146 @@
+package org.example.cookingappbackend.integration;
+
+import org.example.cookingappbackend.dto.request.RatingRequest;
+import org.example.cookingappbackend.dto.response.RecipeResponse;
+import org.example.cookingappbackend.model.Recipe;
+import org.example.cookingappbackend.model.User;
+import org.example.cookingappbackend.repository.RecipeRepository;
+import org.example.cookingappbackend.repository.UserRepository;
+import org.example.cookingappbackend.service.RatingService;
+import org.example.cookingappbackend.service.RecipeIngredientIndex;
+import org.example.cookingappbackend.service.RecipeLeaderboard;
+import org.example.cookingappbackend.service.RecipeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.example.cookingappbackend.integration.RatingFixtures.recipe;
+import static org.example.cookingappbackend.integration.RatingFixtures.stars;
+import static org.example.cookingappbackend.integration.RatingFixtures.user;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RatingAggregatesIntegrationTest {
+
+    @Autowired
+    RatingService ratingService;
+
+    @Autowired
+    RecipeService recipeService;
+
+    @Autowired
+    RecipeRepository recipeRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RecipeLeaderboard leaderboard;
+
+    @Autowired
+    RecipeIngredientIndex ingredientIndex;
+
+    @Autowired
+    TransactionTemplate tx;
+
+    @Test
+    void upsertAndDelete_keepCountSumAndHistogramInStep() {
+        Long id = recipeRepository.save(recipe("Soup")).getId();
+        User anna = userRepository.save(user());
+        User ben = userRepository.save(user());
+        long version = recipeRepository.findById(id).orElseThrow().getVersion();
+
+        ratingService.upsertRating(id, anna, stars(4));
+        ratingService.upsertRating(id, ben, stars(2));
+        ratingService.upsertRating(id, ben, stars(5));
+        RatingRequest commentOnly = stars(5);
+        commentOnly.setComment("Even better cold");
+        ratingService.upsertRating(id, ben, commentOnly);
+
+        Recipe r = recipeRepository.findById(id).orElseThrow();
+        assertThat(r.getRatingCount()).isEqualTo(2);
+        assertThat(r.getRatingSum()).isEqualTo(9);
+        assertThat(r.getAvgRating()).isEqualTo(4.5);
+        assertThat(r.getVersion()).isEqualTo(version + 3);
+
+        RecipeResponse res = recipeService.get(id);
+        assertThat(res.getRatingCount()).isEqualTo(2);
+        assertThat(res.getRatingHistogram()).containsExactly(0L, 0L, 0L, 1L, 1L);
+        assertThat(leaderboard.page(null, 100).content())
+                .filteredOn(e -> e.id().equals(id))
+                .singleElement()
+                .satisfies(e -> {
+                    assertThat(e.ratingCount()).isEqualTo(2);
+                    assertThat(e.score()).isEqualTo(leaderboard.score(9, 2));
+                });
+
+        ratingService.deleteMyRating(id, anna);
+        ratingService.deleteMyRating(id, ben);
+
+        r = recipeRepository.findById(id).orElseThrow();
+        assertThat(r.getRatingCount()).isZero();
+        assertThat(r.getRatingSum()).isZero();
+        assertThat(r.getAvgRating()).isEqualTo(0.0);
+        assertThat(recipeService.get(id).getRatingHistogram()).containsExactly(0L, 0L, 0L, 0L, 0L);
+        assertThat(leaderboard.page(null, 100).content()).noneMatch(e -> e.id().equals(id));
+    }
+
+    @Test
+    void concurrentRatings_areAllCounted() {
+        Long id = recipeRepository.save(recipe("Stew")).getId();
+        List<User> raters = IntStream.range(0, 8).mapToObj(i -> userRepository.save(user())).toList();
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            CompletableFuture.allOf(raters.stream()
+                    .map(u -> CompletableFuture.runAsync(
+                            () -> ratingService.upsertRating(id, u, stars(raters.indexOf(u) % 2 == 0 ? 5 : 3)), pool))
+                    .toArray(CompletableFuture[]::new)).join();
+        } finally {
+            pool.shutdown();
+        }
+
+        Recipe r = recipeRepository.findById(id).orElseThrow();
+        assertThat(r.getRatingCount()).isEqualTo(8);
+        assertThat(r.getRatingSum()).isEqualTo(32);
+        assertThat(r.getThreeStarCount()).isEqualTo(4);
+        assertThat(r.getFiveStarCount()).isEqualTo(4);
+        assertThat(r.getAvgRating()).isEqualTo(4.0);
+    }
+
+    @Test
+    void rolledBackRating_reachesNeitherTheIndexNorTheLeaderboard() {
+        Recipe recipe = recipeRepository.save(recipe("Goulash"));
+        ingredientIndex.add(recipe);
+        User rater = userRepository.save(user());
+
+        tx.executeWithoutResult(s -> {
+            ratingService.upsertRating(recipe.getId(), rater, stars(5));
+            s.setRollbackOnly();
+        });
+
+        assertThat(recipeRepository.findById(recipe.getId()).orElseThrow().getRatingCount()).isZero();
+        assertThat(indexedAverage(recipe.getId())).isNull();
+        assertThat(leaderboard.page(null, 100).content()).noneMatch(e -> e.id().equals(recipe.getId()));
+
+        ratingService.upsertRating(recipe.getId(), rater, stars(5));
+        assertThat(indexedAverage(recipe.getId())).isEqualTo(5.0);
+        assertThat(leaderboard.page(null, 100).content()).anyMatch(e -> e.id().equals(recipe.getId()));
+    }
+
+    private Double indexedAverage(Long id) {
+        return ingredientIndex.recipes().stream()
+                .filter(r -> r.id().equals(id))
+                .findFirst().orElseThrow()
+                .avgRating();
+    }
+}
@@ -1,6 +1,7 @@
 package org.example.cookingappbackend.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.cookingappbackend.dto.response.CursorPage;
 import org.example.cookingappbackend.model.User;
 import org.example.cookingappbackend.service.RatingService;
 import org.junit.jupiter.api.Test;
@@ -61,6 +62,22 @@ class RatingControllerTest {
         verifyNoMoreInteractions(ratingService);
     }
 
+    @Test
+    void getRatingsAfter_passesCursorAndSize() throws Exception {
+        when(ratingService.getRatingsAfter(eq(10L), any(), eq("abc"), eq(5)))
+                .thenReturn(new CursorPage<>(List.of(), 0, null, false));
+
+        mockMvc.perform(get("/api/recipes/{recipeId}/rating/cursor", 10L)
+                        .param("after", "abc")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(0))
+                .andExpect(jsonPath("$.hasNext").value(false));
+
+        verify(ratingService).getRatingsAfter(eq(10L), any(), eq("abc"), eq(5));
+        verifyNoMoreInteractions(ratingService);
+    }
+
     @Test
     void upsertRating_returnsNoContent_andCallsService() throws Exception {
         String json = """
@@ -0,0 +1,41 @@
+package org.example.cookingappbackend.integration;
+
+import org.example.cookingappbackend.dto.request.RatingRequest;
+import org.example.cookingappbackend.model.Recipe;
+import org.example.cookingappbackend.model.RecipeStep;
+import org.example.cookingappbackend.model.User;
+
+import java.util.UUID;
+
+/** Unsaved entities and requests shared by the rating integration tests. */
+final class RatingFixtures {
+
+    private RatingFixtures() {
+    }
+
+    static RatingRequest stars(int stars) {
+        RatingRequest req = new RatingRequest();
+        req.setStars(stars);
+        return req;
+    }
+
+    static Recipe recipe(String title) {
+        Recipe r = new Recipe();
+        r.setTitle(title);
+        RecipeStep s = new RecipeStep();
+        s.setRecipe(r);
+        s.setStepNo(1);
+        s.setInstruction("cook");
+        r.getSteps().add(s);
+        return r;
+    }
+
+    /** A user with a unique email, so tests sharing a database never collide. */
+    static User user() {
+        User u = new User();
+        u.setEmail("rater-" + UUID.randomUUID() + "@test.com");
+        u.setName("Jan");
+        u.setPassword("x");
+        return u;
+    }
+}
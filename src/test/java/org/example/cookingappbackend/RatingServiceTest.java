@@ -1,16 +1,19 @@
 package org.example.cookingappbackend.service;
 
 import org.example.cookingappbackend.dto.request.RatingRequest;
+import org.example.cookingappbackend.dto.response.CursorPage;
 import org.example.cookingappbackend.dto.response.RatingResponse;
 import org.example.cookingappbackend.model.Rating;
 import org.example.cookingappbackend.model.Recipe;
 import org.example.cookingappbackend.model.User;
 import org.example.cookingappbackend.repository.RatingRepository;
+import org.example.cookingappbackend.repository.RatingRow;
 import org.example.cookingappbackend.repository.RecipeRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -27,8 +30,9 @@ class RatingServiceTest {
 
     private final RatingRepository ratingRepository = mock(RatingRepository.class);
     private final RecipeRepository recipeRepository = mock(RecipeRepository.class);
+    private final RatingAggregator aggregator = mock(RatingAggregator.class);
 
-    private final RatingService service = new RatingService(ratingRepository, recipeRepository);
+    private final RatingService service = new RatingService(ratingRepository, recipeRepository, aggregator);
 
     @Test
     void getRatings_whenRecipeNotFound_throws404() {
@@ -90,6 +94,59 @@ class RatingServiceTest {
         verifyNoMoreInteractions(recipeRepository, ratingRepository);
     }
 
+    @Test
+    void getRatingsAfter_firstPage_mapsRows_andReturnsCursorOfTheLastOne() {
+        LocalDateTime t = LocalDateTime.of(2025, 3, 1, 12, 0);
+        RatingRow mine = new RatingRow(101L, t, 5, "Great", 1L, "Jan", "Kowalski", "jan@example.com");
+        RatingRow other = new RatingRow(100L, t, 3, null, 2L, null, null, "ola@example.com");
+        RatingRow extra = new RatingRow(99L, t.minusDays(1), 4, null, 3L, "Ewa", null, null);
+        when(ratingRepository.findFirstByRecipeId(10L, Limit.of(3))).thenReturn(List.of(mine, other, extra));
+
+        User me = new User();
+        me.setId(1L);
+        CursorPage<RatingResponse> page = service.getRatingsAfter(10L, me, null, 2);
+
+        assertThat(page.content()).extracting(RatingResponse::getId).containsExactly(101L, 100L);
+        assertThat(page.content()).extracting(RatingResponse::getUserName).containsExactly("Jan Kowalski", "ola@example.com");
+        assertThat(page.content()).extracting(RatingResponse::isMine).containsExactly(true, false);
+        assertThat(page.hasNext()).isTrue();
+        assertThat(KeysetCursor.decode(page.nextCursor())).isEqualTo(new KeysetCursor(t.toString(), 100L));
+        verifyNoInteractions(recipeRepository);
+    }
+
+    @Test
+    void getRatingsAfter_withCursor_continuesAfterIt() {
+        LocalDateTime t = LocalDateTime.of(2025, 3, 1, 12, 0);
+        String after = new KeysetCursor(t.toString(), 100L).encode();
+        when(ratingRepository.findByRecipeIdAfter(10L, t, 100L, Limit.of(21)))
+                .thenReturn(List.of(new RatingRow(99L, t, 4, null, 3L, "Ewa", null, null)));
+
+        CursorPage<RatingResponse> page = service.getRatingsAfter(10L, null, after, 20);
+
+        assertThat(page.content()).extracting(RatingResponse::getId).containsExactly(99L);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void getRatingsAfter_whenRecipeNotFound_throws404() {
+        when(ratingRepository.findFirstByRecipeId(10L, Limit.of(21))).thenReturn(List.of());
+        when(recipeRepository.existsById(10L)).thenReturn(false);
+
+        assertThatThrownBy(() -> service.getRatingsAfter(10L, null, null, 20))
+                .isInstanceOf(ResponseStatusException.class)
+                .satisfies(ex -> assertThat(((ResponseStatusException) ex).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+    }
+
+    @Test
+    void getRatingsAfter_rejectsMalformedCursor() {
+        String noTimestamp = new KeysetCursor("yesterday", 1L).encode();
+
+        assertThatThrownBy(() -> service.getRatingsAfter(10L, null, noTimestamp, 20))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+        verifyNoInteractions(ratingRepository);
+    }
+
     @Test
     void upsertRating_whenUnauthorized_throws401() {
         RatingRequest req = mock(RatingRequest.class);
@@ -137,7 +194,7 @@ class RatingServiceTest {
     }
 
     @Test
-    void upsertRating_whenNewRating_createsAndSaves_andRecalculatesAvg() {
+    void upsertRating_whenNewRating_createsAndSaves_andAddsToAggregates() {
         long recipeId = 10L;
         User me = new User();
         me.setId(1L);
@@ -153,20 +210,12 @@ class RatingServiceTest {
         when(ratingRepository.findByRecipeAndUser(recipe, me)).thenReturn(Optional.empty());
         when(ratingRepository.save(any(Rating.class))).thenAnswer(inv -> inv.getArgument(0));
 
-        Rating a = new Rating();
-        a.setStars(4);
-        Rating b = new Rating();
-        b.setStars(2);
-        when(ratingRepository.findByRecipeId(recipeId)).thenReturn(List.of(a, b));
-
         service.upsertRating(recipeId, me, req);
 
         ArgumentCaptor<Rating> ratingCaptor = ArgumentCaptor.forClass(Rating.class);
         verify(recipeRepository).findById(recipeId);
         verify(ratingRepository).findByRecipeAndUser(recipe, me);
         verify(ratingRepository).save(ratingCaptor.capture());
-        verify(ratingRepository).findByRecipeId(recipeId);
-        verify(recipeRepository).save(recipe);
 
         Rating saved = ratingCaptor.getValue();
         assertThat(saved.getRecipe()).isSameAs(recipe);
@@ -175,10 +224,37 @@ class RatingServiceTest {
         assertThat(saved.getComment()).isEqualTo("Nice");
         assertThat(saved.getCreatedAt()).isNotNull();
 
-        assertThat(recipe.getAvgRating()).isEqualTo(3.0);
+        verify(aggregator).record(recipeId, RatingDelta.of(4, 0));
         verifyNoMoreInteractions(recipeRepository, ratingRepository);
     }
 
+    @Test
+    void upsertRating_whenStarsChange_movesTheRatingBetweenBuckets() {
+        long recipeId = 10L;
+        User me = new User();
+        me.setId(1L);
+
+        Recipe recipe = new Recipe();
+        recipe.setId(recipeId);
+
+        Rating existing = new Rating();
+        existing.setRecipe(recipe);
+        existing.setUser(me);
+        existing.setStars(2);
+
+        RatingRequest req = mock(RatingRequest.class);
+        when(req.getStars()).thenReturn(5);
+
+        when(recipeRepository.findById(recipeId)).thenReturn(Optional.of(recipe));
+        when(ratingRepository.findByRecipeAndUser(recipe, me)).thenReturn(Optional.of(existing));
+        when(ratingRepository.save(any(Rating.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        service.upsertRating(recipeId, me, req);
+
+        verify(aggregator).record(recipeId, new RatingDelta(0, 3, 0, -1, 0, 0, 1));
+        assertThat(existing.getStars()).isEqualTo(5);
+    }
+
     @Test
     void deleteMyRating_whenUnauthorized_throws401() {
         assertThatThrownBy(() -> service.deleteMyRating(10L, null))
@@ -211,7 +287,7 @@ class RatingServiceTest {
     }
 
     @Test
-    void deleteMyRating_whenExists_deletes_andRecalculatesAvg() {
+    void deleteMyRating_whenExists_deletes_andRemovesFromAggregates() {
         long recipeId = 10L;
 
         User me = new User();
@@ -229,19 +305,10 @@ class RatingServiceTest {
         when(recipeRepository.findById(recipeId)).thenReturn(Optional.of(recipe));
         when(ratingRepository.findByRecipeAndUser(recipe, me)).thenReturn(Optional.of(rating));
 
-        Rating a = new Rating();
-        a.setStars(4);
-        Rating b = new Rating();
-        b.setStars(5);
-        when(ratingRepository.findByRecipeId(recipeId)).thenReturn(List.of(a, b));
-
         service.deleteMyRating(recipeId, me);
 
         verify(ratingRepository).delete(rating);
-        verify(ratingRepository).findByRecipeId(recipeId);
-        verify(recipeRepository).save(recipe);
-
-        assertThat(recipe.getAvgRating()).isEqualTo(4.5);
+        verify(aggregator).record(recipeId, RatingDelta.of(0, 4));
 
         verify(recipeRepository).findById(recipeId);
         verify(ratingRepository).findByRecipeAndUser(recipe, me);
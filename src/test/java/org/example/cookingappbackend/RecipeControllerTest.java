@@ -2,21 +2,44 @@ package org.example.cookingappbackend.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.cookingappbackend.dto.request.RecipeCreateRequest;
+import org.example.cookingappbackend.dto.response.BulkIngestResponse;
+import org.example.cookingappbackend.dto.response.CatalogChangesResponse;
+import org.example.cookingappbackend.dto.response.CursorPage;
+import org.example.cookingappbackend.dto.response.LeaderboardEntryResponse;
 import org.example.cookingappbackend.dto.response.RecipeResponse;
 import org.example.cookingappbackend.dto.response.RecipeSummaryResponse;
+import org.example.cookingappbackend.repository.RecipeVersion;
+import org.example.cookingappbackend.service.CatalogSyncService;
+import org.example.cookingappbackend.service.RecipeExportService;
+import org.example.cookingappbackend.service.RecipeIngestService;
+import org.example.cookingappbackend.service.RecipeJsonCache;
+import org.example.cookingappbackend.service.RecipeLeaderboard;
 import org.example.cookingappbackend.service.RecipeService;
+import org.example.cookingappbackend.service.SearchTotal;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.*;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
@@ -38,14 +61,45 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
         }
 )
 @AutoConfigureMockMvc(addFilters = false)
+@Import({RecipeJsonCache.class, RecipeControllerTest.MetricsConfig.class})
 class RecipeControllerTest {
 
+    @TestConfiguration
+    static class MetricsConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    private static final Instant UPDATED_AT = Instant.parse("2024-05-01T10:00:00Z");
+
     @Autowired
     private MockMvc mockMvc;
 
     @MockBean
     private RecipeService recipeService;
 
+    @MockBean
+    private RecipeExportService recipeExport;
+
+    @MockBean
+    private CatalogSyncService catalogSync;
+
+    @MockBean
+    private RecipeIngestService recipeIngest;
+
+    @MockBean
+    private RecipeLeaderboard leaderboard;
+
+    @Autowired
+    private RecipeJsonCache recipeJson;
+
+    @BeforeEach
+    void clearJsonCache() {
+        recipeJson.clear();
+    }
+
     @MockBean
     private org.example.cookingappbackend.service.JwtService jwtService;
 
@@ -104,25 +158,154 @@ class RecipeControllerTest {
         assertThat(p.getPageSize()).isEqualTo(20);
         assertThat(p.getSort().getOrderFor("title")).isNotNull();
 
+        verify(recipeService).catalogLastModified();
         verifyNoMoreInteractions(recipeService);
     }
 
     @Test
     void get_callsService_andReturnsOk() throws Exception {
-        RecipeResponse resp = mock(RecipeResponse.class);
+        RecipeResponse resp = new RecipeResponse();
+        resp.setId(10L);
+        resp.setVersion(3L);
+        when(recipeService.version(10L)).thenReturn(new RecipeVersion(3L, UPDATED_AT));
         when(recipeService.get(10L)).thenReturn(resp);
 
         mockMvc.perform(get("/api/recipes/{id}", 10L))
                 .andExpect(status().isOk());
 
+        verify(recipeService).version(10L);
         verify(recipeService).get(10L);
         verifyNoMoreInteractions(recipeService);
     }
 
+    @Test
+    void get_setsEtagLastModifiedAndCacheControl() throws Exception {
+        RecipeResponse resp = new RecipeResponse();
+        resp.setId(10L);
+        resp.setVersion(3L);
+        resp.setUpdatedAt(UPDATED_AT);
+        when(recipeService.version(10L)).thenReturn(new RecipeVersion(3L, UPDATED_AT));
+        when(recipeService.get(10L)).thenReturn(resp);
+
+        mockMvc.perform(get("/api/recipes/{id}", 10L))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"r10-3\""))
+                .andExpect(header().string("Last-Modified", "Wed, 01 May 2024 10:00:00 GMT"))
+                .andExpect(header().string("Cache-Control", "max-age=60, public"));
+    }
+
+    @Test
+    void get_withMatchingIfNoneMatch_returns304_withoutLoadingRecipe() throws Exception {
+        when(recipeService.version(10L)).thenReturn(new RecipeVersion(3L, UPDATED_AT));
+
+        mockMvc.perform(get("/api/recipes/{id}", 10L).header("If-None-Match", "W/\"r10-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(recipeService, never()).get(anyLong());
+    }
+
+    @Test
+    void get_withStaleIfNoneMatch_returnsBody() throws Exception {
+        RecipeResponse resp = new RecipeResponse();
+        resp.setVersion(4L);
+        when(recipeService.version(10L)).thenReturn(new RecipeVersion(4L, UPDATED_AT));
+        when(recipeService.get(10L)).thenReturn(resp);
+
+        mockMvc.perform(get("/api/recipes/{id}", 10L).header("If-None-Match", "W/\"r10-3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"r10-4\""));
+    }
+
+    @Test
+    void get_servesRepeatReadsFromJsonCache_withoutTouchingService() throws Exception {
+        RecipeResponse resp = new RecipeResponse();
+        resp.setId(10L);
+        resp.setTitle("Soup");
+        resp.setVersion(3L);
+        when(recipeService.version(10L)).thenReturn(new RecipeVersion(3L, UPDATED_AT));
+        when(recipeService.get(10L)).thenReturn(resp);
+
+        mockMvc.perform(get("/api/recipes/{id}", 10L)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/recipes/{id}", 10L))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(APPLICATION_JSON))
+                .andExpect(jsonPath("$.title").value("Soup"));
+        mockMvc.perform(get("/api/recipes/{id}", 10L).header("If-None-Match", "W/\"r10-3\""))
+                .andExpect(status().isNotModified());
+
+        verify(recipeService, times(1)).version(10L);
+        verify(recipeService, times(1)).get(10L);
+    }
+
+    @Test
+    void get_sendsGzipBody_whenClientAcceptsIt_andBodyIsLarge() throws Exception {
+        RecipeResponse resp = new RecipeResponse();
+        resp.setId(10L);
+        resp.setVersion(1L);
+        resp.setDescription("x".repeat(4000));
+        when(recipeService.version(10L)).thenReturn(new RecipeVersion(1L, UPDATED_AT));
+        when(recipeService.get(10L)).thenReturn(resp);
+
+        byte[] body = mockMvc.perform(get("/api/recipes/{id}", 10L).header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", "Accept-Encoding"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (var in = new java.util.zip.GZIPInputStream(new java.io.ByteArrayInputStream(body))) {
+            assertThat(new String(in.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8)).contains("\"id\":10");
+        }
+
+        mockMvc.perform(get("/api/recipes/{id}", 10L))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(jsonPath("$.id").value(10));
+    }
+
+    @Test
+    void get_sendsPlainBody_whenClientRefusesGzip() throws Exception {
+        RecipeResponse resp = new RecipeResponse();
+        resp.setId(10L);
+        resp.setVersion(1L);
+        resp.setDescription("x".repeat(4000));
+        when(recipeService.version(10L)).thenReturn(new RecipeVersion(1L, UPDATED_AT));
+        when(recipeService.get(10L)).thenReturn(resp);
+
+        mockMvc.perform(get("/api/recipes/{id}", 10L).header("Accept-Encoding", "gzip;q=0, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(jsonPath("$.id").value(10));
+    }
+
+    @Test
+    void acceptsGzip_honoursQValuesAndExactCodings() {
+        assertThat(RecipeController.acceptsGzip("gzip")).isTrue();
+        assertThat(RecipeController.acceptsGzip("deflate, GZIP;q=0.5")).isTrue();
+        assertThat(RecipeController.acceptsGzip("x-gzip")).isTrue();
+        assertThat(RecipeController.acceptsGzip("*")).isTrue();
+        assertThat(RecipeController.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(RecipeController.acceptsGzip("gzip ; q=0.0, *")).isFalse();
+        assertThat(RecipeController.acceptsGzip("*;q=0")).isFalse();
+        assertThat(RecipeController.acceptsGzip("x-gzip-foo, br")).isFalse();
+        assertThat(RecipeController.acceptsGzip("identity")).isFalse();
+        assertThat(RecipeController.acceptsGzip(null)).isFalse();
+    }
+
+    @Test
+    void list_withIfModifiedSince_returns304_whenCatalogUnchanged() throws Exception {
+        when(recipeService.catalogLastModified()).thenReturn(Optional.of(UPDATED_AT));
+
+        mockMvc.perform(get("/api/recipes").header("If-Modified-Since", "Wed, 01 May 2024 10:00:00 GMT"))
+                .andExpect(status().isNotModified());
+
+        verify(recipeService, never()).list(any(Pageable.class));
+    }
+
     @Test
     void search_prefersQueryAlias_whenQBlank() throws Exception {
         Page<RecipeSummaryResponse> page = new PageImpl<>(List.of(), PageRequest.of(0, 20), 0);
-        when(recipeService.search(anyString(), any(), anyBoolean(), any(), any(Pageable.class))).thenReturn(page);
+        when(recipeService.search(anyString(), any(), anyBoolean(), any(), any(), any(), any(Pageable.class), any())).thenReturn(page);
 
         mockMvc.perform(get("/api/recipes/search")
                         .param("q", "   ")
@@ -136,7 +319,10 @@ class RecipeControllerTest {
                 any(),
                 anyBoolean(),
                 any(),
-                any(Pageable.class)
+                any(),
+                any(),
+                any(Pageable.class),
+                eq(SearchTotal.EXACT)
         );
 
         assertThat(qCaptor.getValue()).isEqualTo("pasta");
@@ -144,14 +330,16 @@ class RecipeControllerTest {
     }
 
     @Test
-    void search_passesIngredientsAndInPantryOnly_andPageableDefaultSize20() throws Exception {
+    void search_passesAllFilters_andPageableDefaultSize20() throws Exception {
         Page<RecipeSummaryResponse> page = new PageImpl<>(List.of(), PageRequest.of(0, 20), 0);
-        when(recipeService.search(any(), any(), anyBoolean(), any(), any(Pageable.class))).thenReturn(page);
+        when(recipeService.search(any(), any(), anyBoolean(), any(), any(), any(), any(Pageable.class), any())).thenReturn(page);
 
         mockMvc.perform(get("/api/recipes/search")
                         .param("q", "soup")
                         .param("ingredients", "tomato,onion")
-                        .param("inPantryOnly", "true"))
+                        .param("inPantryOnly", "true")
+                        .param("maxTimeMin", "45")
+                        .param("minRating", "4.5"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentTypeCompatibleWith(APPLICATION_JSON));
 
@@ -160,8 +348,11 @@ class RecipeControllerTest {
                 eq("soup"),
                 eq("tomato,onion"),
                 eq(true),
+                eq(45),
+                eq(4.5),
                 any(),
-                pageableCaptor.capture()
+                pageableCaptor.capture(),
+                eq(SearchTotal.EXACT)
         );
 
         Pageable p = pageableCaptor.getValue();
@@ -170,6 +361,28 @@ class RecipeControllerTest {
         verifyNoMoreInteractions(recipeService);
     }
 
+    @Test
+    void search_withTotalNone_returnsSliceWithoutTotals() throws Exception {
+        Slice<RecipeSummaryResponse> slice = new SliceImpl<>(
+                List.of(new RecipeSummaryResponse(1L, "A", 10, 4.0)), PageRequest.of(0, 20), true);
+        when(recipeService.search(any(), any(), anyBoolean(), any(), any(), any(), any(Pageable.class), eq(SearchTotal.NONE)))
+                .thenReturn(slice);
+
+        mockMvc.perform(get("/api/recipes/search").param("ingredients", "tomato").param("total", "none"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.last").value(false))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    void search_withUnknownTotalMode_returns400() throws Exception {
+        mockMvc.perform(get("/api/recipes/search").param("ingredients", "tomato").param("total", "maybe"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(recipeService);
+    }
+
     @Test
     void listTopRated_callsService_withDefaultSize20() throws Exception {
         Page<RecipeSummaryResponse> page = new PageImpl<>(List.of(), PageRequest.of(0, 20), 0);
@@ -188,4 +401,112 @@ class RecipeControllerTest {
 
         verifyNoMoreInteractions(recipeService);
     }
+
+    @Test
+    void listAfter_passesCursorAndSize_andReturnsNextCursor() throws Exception {
+        when(recipeService.listAfter("abc", 2)).thenReturn(new CursorPage<>(
+                List.of(new RecipeSummaryResponse(1L, "A", 10, 4.0), new RecipeSummaryResponse(2L, "B", 20, 3.0)),
+                2, "next", true));
+
+        mockMvc.perform(get("/api/recipes/cursor").param("after", "abc").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+        verify(recipeService).listAfter("abc", 2);
+    }
+
+    @Test
+    void listTopRatedAfter_defaultsToFirstPageOf20() throws Exception {
+        when(recipeService.listTopRatedAfter(null, 20)).thenReturn(new CursorPage<>(List.of(), 0, null, false));
+
+        mockMvc.perform(get("/api/recipes/top-rated/cursor"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").value(false));
+
+        verify(recipeService).listTopRatedAfter(null, 20);
+    }
+
+    @Test
+    void leaderboard_servesThePageFromTheLeaderboard() throws Exception {
+        when(leaderboard.page("abc", 5)).thenReturn(new CursorPage<>(
+                List.of(new LeaderboardEntryResponse(7L, "Soup", 20, 4.9, 500, 4.84)), 1, "next", true));
+
+        mockMvc.perform(get("/api/recipes/leaderboard").param("after", "abc").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(7))
+                .andExpect(jsonPath("$.content[0].ratingCount").value(500))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+
+        verify(leaderboard).page("abc", 5);
+        verifyNoInteractions(recipeService);
+    }
+
+    @Test
+    void export_streamsNdjsonFromExportService() throws Exception {
+        when(recipeExport.exportNdjson(any())).thenAnswer(inv -> {
+            OutputStream out = inv.getArgument(0);
+            out.write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        });
+
+        MvcResult started = mockMvc.perform(get("/api/recipes/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+
+        verify(recipeExport).exportNdjson(any());
+        verifyNoInteractions(recipeService);
+    }
+
+    @Test
+    void bulkCreate_passesTheBodyStream_andReturnsTheOutcome() throws Exception {
+        when(recipeIngest.ingest(any())).thenAnswer(inv -> {
+            InputStream in = inv.getArgument(0);
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("[{\"title\":\"A\"}]");
+            return new BulkIngestResponse(1, 0, 1, List.of(new BulkIngestResponse.ItemError(0, "A", "steps: must not be null")));
+        });
+
+        mockMvc.perform(post("/api/recipes/bulk")
+                        .contentType(APPLICATION_JSON)
+                        .content("[{\"title\":\"A\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].index").value(0))
+                .andExpect(jsonPath("$.errors[0].message").value("steps: must not be null"));
+
+        verify(recipeIngest).ingest(any());
+    }
+
+    @Test
+    void changes_passesSinceAndLimit() throws Exception {
+        when(catalogSync.changesSince(15L, 100)).thenReturn(new CatalogChangesResponse(15L, 20L, true,
+                List.of(), List.of(), List.of(), List.of(), List.of()));
+
+        mockMvc.perform(get("/api/recipes/changes").param("since", "15").param("limit", "100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.next").value(20))
+                .andExpect(jsonPath("$.hasMore").value(true));
+
+        verify(catalogSync).changesSince(15L, 100);
+    }
+
+    @Test
+    void changes_defaultsToFullSyncFromZero() throws Exception {
+        when(catalogSync.changesSince(0L, 500)).thenReturn(new CatalogChangesResponse(0L, 0L, false,
+                List.of(), List.of(), List.of(), List.of(), List.of()));
+
+        mockMvc.perform(get("/api/recipes/changes"))
+                .andExpect(status().isOk());
+
+        verify(catalogSync).changesSince(0L, 500);
+        verifyNoInteractions(recipeService);
+    }
 }
@@ -0,0 +1,82 @@
+package org.example.cookingappbackend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.example.cookingappbackend.model.Ingredient;
+import org.example.cookingappbackend.model.Recipe;
+import org.example.cookingappbackend.model.RecipeIngredient;
+import org.example.cookingappbackend.repository.RecipeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RecipeExportServiceTest {
+
+    private final RecipeRepository recipeRepo = mock(RecipeRepository.class);
+    private final PlatformTransactionManager txManager = mock(PlatformTransactionManager.class);
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final RecipeExportService export = new RecipeExportService(recipeRepo, txManager, mapper, 2);
+
+    @Test
+    void exportNdjson_readsKeysetChunks_eachInItsOwnTransaction() throws Exception {
+        when(txManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(recipeRepo.findIdsAfter(0L, Limit.of(2))).thenReturn(List.of(1L, 2L));
+        when(recipeRepo.findIdsAfter(2L, Limit.of(2))).thenReturn(List.of(5L));
+        when(recipeRepo.findIdsAfter(5L, Limit.of(2))).thenReturn(List.of());
+        when(recipeRepo.findAllWithIngredientsByIdIn(List.of(1L, 2L)))
+                .thenReturn(List.of(recipe(1L, "Pancakes"), recipe(2L, "Omelette")));
+        when(recipeRepo.findAllWithIngredientsByIdIn(List.of(5L))).thenReturn(List.of(recipe(5L, "Salad")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = export.exportNdjson(out);
+
+        assertThat(written).isEqualTo(3);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(3);
+        JsonNode first = mapper.readTree(lines[0]);
+        assertThat(first.get("title").asText()).isEqualTo("Pancakes");
+        assertThat(first.get("ingredients").get(0).get("ingredientName").asText()).isEqualTo("egg");
+        assertThat(first.get("steps").isNull()).isTrue();
+        assertThat(mapper.readTree(lines[2]).get("id").asLong()).isEqualTo(5L);
+
+        verify(txManager, times(3)).getTransaction(any());
+        verify(txManager, times(3)).commit(any());
+    }
+
+    @Test
+    void exportNdjson_emptyCatalog_writesNothing() throws Exception {
+        when(txManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(recipeRepo.findIdsAfter(0L, Limit.of(2))).thenReturn(List.of());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(export.exportNdjson(out)).isZero();
+        assertThat(out.size()).isZero();
+        verify(recipeRepo, never()).findAllWithIngredientsByIdIn(any());
+    }
+
+    private static Recipe recipe(Long id, String title) {
+        Recipe r = new Recipe();
+        r.setId(id);
+        r.setTitle(title);
+        Ingredient egg = new Ingredient();
+        egg.setId(3L);
+        egg.setName("egg");
+        RecipeIngredient ri = new RecipeIngredient();
+        ri.setRecipe(r);
+        ri.setIngredient(egg);
+        ri.setAmount(2.0);
+        r.getIngredients().add(ri);
+        return r;
+    }
+}
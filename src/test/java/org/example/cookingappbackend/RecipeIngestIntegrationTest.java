@@ -0,0 +1,141 @@
+package org.example.cookingappbackend.integration;
+
+import org.example.cookingappbackend.enums.IngredientCategory;
+import org.example.cookingappbackend.model.*;
+import org.example.cookingappbackend.repository.IngredientRepository;
+import org.example.cookingappbackend.repository.RecipeRepository;
+import org.example.cookingappbackend.repository.UserRepository;
+import org.example.cookingappbackend.service.JwtService;
+import org.example.cookingappbackend.service.RecipeIngredientIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "app.recipes.ingest.chunk-size=2")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RecipeIngestIntegrationTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    TransactionTemplate tx;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    IngredientRepository ingredientRepository;
+
+    @Autowired
+    RecipeRepository recipeRepository;
+
+    @Autowired
+    RecipeIngredientIndex ingredientIndex;
+
+    @Autowired
+    JwtService jwtService;
+
+    @Test
+    void bulkCreate_storesRecipesWithLinesAndSteps_andReportsRejects() throws Exception {
+        Long flour = ingredientRepository.save(ingredient("Flour")).getId();
+        Long milk = ingredientRepository.save(ingredient("Milk")).getId();
+        String tag = UUID.randomUUID().toString();
+        long changesBefore = jdbc.queryForObject("select coalesce(max(id), 0) from catalog_changes", Long.class);
+
+        String body = "["
+                + recipe("Pancakes " + tag, flour, milk) + ","
+                + "{\"title\":\"\",\"ingredients\":[],\"steps\":[]},"
+                + recipe("Bread " + tag, flour) + ","
+                + recipe("Ghost " + tag, -1L) + ","
+                + recipe("Porridge " + tag, milk)
+                + "]";
+
+        mockMvc.perform(post("/api/recipes/bulk")
+                        .header("Authorization", "Bearer " + token())
+                        .contentType(APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(5))
+                .andExpect(jsonPath("$.created").value(3))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.errors[0].index").value(1))
+                .andExpect(jsonPath("$.errors[1].index").value(3))
+                .andExpect(jsonPath("$.errors[1].message").value("Ingredient not found: [-1]"));
+
+        List<Long> ids = jdbc.queryForList("select id from recipes where title like ? order by id", Long.class, "% " + tag);
+        assertThat(ids).hasSize(3);
+
+        Recipe pancakes = tx.execute(s -> {
+            Recipe r = recipeRepository.findById(ids.get(0)).orElseThrow();
+            r.getIngredients().forEach(ri -> ri.getIngredient().getName());
+            r.getSteps().size();
+            return r;
+        });
+        assertThat(pancakes.getTitle()).isEqualTo("Pancakes " + tag);
+        assertThat(pancakes.getVersion()).isZero();
+        assertThat(pancakes.getIngredients()).extracting(ri -> ri.getIngredient().getId()).containsExactlyInAnyOrder(flour, milk);
+        assertThat(pancakes.getIngredients()).extracting(RecipeIngredient::getAmount).containsOnly(2.5);
+        assertThat(pancakes.getSteps()).extracting(RecipeStep::getInstruction).containsExactly("mix", "fry");
+
+        // 3 recipes, 4 ingredient lines and 6 steps went into the changelog
+        assertThat(jdbc.queryForObject("select count(*) from catalog_changes where id > ? and recipe_id in ("
+                + ids.get(0) + "," + ids.get(1) + "," + ids.get(2) + ")", Long.class, changesBefore)).isEqualTo(13);
+
+        assertThat(ingredientIndex.recipesContainingAll(Set.of(flour, milk))).containsExactly(ids.get(0));
+        assertThat(ingredientIndex.recipesContainingAll(Set.of(milk))).containsExactlyInAnyOrder(ids.get(0), ids.get(2));
+    }
+
+    @Test
+    void bulkCreate_notAnArray_isBadRequest() throws Exception {
+        mockMvc.perform(post("/api/recipes/bulk")
+                        .header("Authorization", "Bearer " + token())
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"title\":\"Soup\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private String token() {
+        User user = new User();
+        user.setEmail("bulk-" + UUID.randomUUID() + "@test.com");
+        user.setName("Jan");
+        user.setPassword("x");
+        return jwtService.generateToken(userRepository.save(user));
+    }
+
+    private static String recipe(String title, Long... ingredientIds) {
+        StringBuilder lines = new StringBuilder();
+        for (Long id : ingredientIds) {
+            if (!lines.isEmpty()) lines.append(',');
+            lines.append("{\"ingredientId\":").append(id).append(",\"amount\":2.5}");
+        }
+        return "{\"title\":\"" + title + "\",\"totalTimeMin\":20,\"ingredients\":[" + lines + "],"
+                + "\"steps\":[{\"stepNo\":1,\"instruction\":\"mix\"},{\"stepNo\":2,\"instruction\":\"fry\",\"timeMin\":5}]}";
+    }
+
+    private static Ingredient ingredient(String name) {
+        Ingredient i = new Ingredient();
+        i.setName(name + " " + UUID.randomUUID());
+        i.setUnit("g");
+        i.setCategory(IngredientCategory.OTHER);
+        return i;
+    }
+}
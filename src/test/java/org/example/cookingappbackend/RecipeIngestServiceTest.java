@@ -0,0 +1,201 @@
+package org.example.cookingappbackend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.example.cookingappbackend.dto.response.BulkIngestResponse;
+import org.example.cookingappbackend.dto.response.BulkIngestResponse.ItemError;
+import org.example.cookingappbackend.enums.CatalogEntityType;
+import org.example.cookingappbackend.model.Recipe;
+import org.example.cookingappbackend.repository.IngredientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RecipeIngestServiceTest {
+
+    private final IngredientRepository ingredientRepo = mock(IngredientRepository.class);
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final EntityIdAllocator ids = mock(EntityIdAllocator.class);
+    private final CatalogChangeTracker changeTracker = mock(CatalogChangeTracker.class);
+    private final RecipeIngredientIndex ingredientIndex = mock(RecipeIngredientIndex.class);
+    private final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+    private final PlatformTransactionManager txManager = mock(PlatformTransactionManager.class);
+
+    /** Recipe titles the fake database refuses to store. */
+    private final Set<String> poisoned = new HashSet<>();
+    /** Recipe titles whose rows fail to bind before reaching the database. */
+    private final Set<String> unbindable = new HashSet<>();
+    private final List<List<String>> recipeBatches = new ArrayList<>();
+    private final AtomicLong nextId = new AtomicLong(100);
+
+    private final RecipeIngestService ingest = new RecipeIngestService(ingredientRepo, jdbc, ids, changeTracker,
+            ingredientIndex, events, txManager, new ObjectMapper(),
+            Validation.buildDefaultValidatorFactory().getValidator(), 2);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(txManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(ingredientRepo.findExistingIds(anyCollection())).thenAnswer(inv -> {
+            Collection<Long> ids = inv.getArgument(0);
+            return ids.stream().filter(id -> id < 90).toList();
+        });
+        when(ids.next(any())).thenAnswer(inv -> nextId.getAndIncrement());
+        when(jdbc.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class))).thenAnswer(inv -> {
+            String sql = inv.getArgument(0);
+            BatchPreparedStatementSetter setter = inv.getArgument(1);
+
+            PreparedStatement ps = mock(PreparedStatement.class);
+            for (int i = 0; i < setter.getBatchSize(); i++) setter.setValues(ps, i);
+            if (sql.startsWith("insert into recipes ")) {
+                ArgumentCaptor<String> titles = ArgumentCaptor.forClass(String.class);
+                verify(ps, atLeast(0)).setString(eq(2), titles.capture());
+                recipeBatches.add(titles.getAllValues());
+                if (titles.getAllValues().stream().anyMatch(poisoned::contains)) {
+                    throw new DataIntegrityViolationException("value too long");
+                }
+                if (titles.getAllValues().stream().anyMatch(unbindable::contains)) {
+                    throw new IllegalStateException("cannot bind");
+                }
+            }
+            return new int[setter.getBatchSize()];
+        });
+    }
+
+    @Test
+    void ingest_writesInChunks_andTracksEveryRow() throws Exception {
+        BulkIngestResponse res = ingest.ingest(json("[" + recipe("A", 1) + "," + recipe("B", 1, 2) + "," + recipe("C", 1) + "]"));
+
+        assertThat(res.received()).isEqualTo(3);
+        assertThat(res.created()).isEqualTo(3);
+        assertThat(res.failed()).isZero();
+        assertThat(recipeBatches).containsExactly(List.of("A", "B"), List.of("C"));
+        verify(ingredientRepo, times(2)).findExistingIds(anyCollection());
+        verify(txManager, times(2)).commit(any());
+
+        // 3 recipes, 4 ingredient lines, 3 steps
+        verify(changeTracker, times(3)).track(eq(CatalogEntityType.RECIPE), anyLong(), anyLong(), eq(false));
+        verify(changeTracker, times(4)).track(eq(CatalogEntityType.RECIPE_INGREDIENT), anyLong(), anyLong(), eq(false));
+        verify(changeTracker, times(3)).track(eq(CatalogEntityType.RECIPE_STEP), anyLong(), anyLong(), eq(false));
+        verify(events, times(3)).publishEvent(any(RecipeChangedEvent.class));
+        // ids of the first chunk: recipes 100-101, lines 102-104, steps 105-106
+        verify(changeTracker).track(CatalogEntityType.RECIPE, 101L, 101L, false);
+        verify(changeTracker).track(CatalogEntityType.RECIPE_INGREDIENT, 104L, 101L, false);
+        verify(changeTracker).track(CatalogEntityType.RECIPE_STEP, 105L, 100L, false);
+
+        ArgumentCaptor<Recipe> indexed = ArgumentCaptor.forClass(Recipe.class);
+        verify(ingredientIndex, times(3)).add(indexed.capture());
+        assertThat(indexed.getAllValues()).extracting(Recipe::getTitle).containsExactly("A", "B", "C");
+        assertThat(indexed.getAllValues().get(1).getIngredients()).extracting(ri -> ri.getIngredient().getId())
+                .containsExactly(1L, 2L);
+    }
+
+    @Test
+    void ingest_reportsBadItemsByIndex_andKeepsTheRest() throws Exception {
+        BulkIngestResponse res = ingest.ingest(json("["
+                + recipe("A", 1) + ","
+                + "{\"title\":\"No steps\",\"ingredients\":[{\"ingredientId\":1,\"amount\":1}]},"
+                + "{\"title\":\"Bad time\",\"totalTimeMin\":\"soon\"},"
+                + recipe("Unknown", 95) + ","
+                + recipe("E", 1) + "]"));
+
+        assertThat(res.received()).isEqualTo(5);
+        assertThat(res.created()).isEqualTo(2);
+        assertThat(res.failed()).isEqualTo(3);
+        assertThat(res.errors()).extracting(ItemError::index).containsExactly(1, 2, 3);
+        assertThat(res.errors().get(0)).isEqualTo(new ItemError(1, "No steps", "steps: must not be null"));
+        assertThat(res.errors().get(1).message()).startsWith("Unreadable recipe:");
+        assertThat(res.errors().get(2)).isEqualTo(new ItemError(3, "Unknown", "Ingredient not found: [95]"));
+        assertThat(recipeBatches).containsExactly(List.of("A"), List.of("E"));
+    }
+
+    @Test
+    void ingest_chunkRejectedByDatabase_isRetriedOneByOne() throws Exception {
+        poisoned.add("Bad");
+
+        BulkIngestResponse res = ingest.ingest(json("[" + recipe("A", 1) + "," + recipe("Bad", 1) + "]"));
+
+        assertThat(res.created()).isEqualTo(1);
+        assertThat(res.errors()).containsExactly(new ItemError(1, "Bad", "Could not be stored: value too long"));
+        assertThat(recipeBatches).containsExactly(List.of("A", "Bad"), List.of("A"), List.of("Bad"));
+        verify(txManager, times(2)).rollback(any());
+        verify(ingredientIndex).add(any());
+    }
+
+    @Test
+    void ingest_nullFieldsInsideLinesAndSteps_areReportedByIndex() throws Exception {
+        BulkIngestResponse res = ingest.ingest(json("["
+                + recipe("A", 1) + ","
+                + "{\"title\":\"No amount\",\"ingredients\":[{\"ingredientId\":1}],"
+                + "\"steps\":[{\"stepNo\":1,\"instruction\":\"cook\"}]},"
+                + "{\"title\":\"No step no\",\"ingredients\":[{\"ingredientId\":1,\"amount\":1}],"
+                + "\"steps\":[null,{\"instruction\":\"cook\"}]},"
+                + recipe("D", 1) + "]"));
+
+        assertThat(res.created()).isEqualTo(2);
+        assertThat(res.errors()).containsExactly(
+                new ItemError(1, "No amount", "ingredients[0].amount: must not be null"),
+                new ItemError(2, "No step no", "steps[0].<list element>: must not be null; "
+                        + "steps[1].stepNo: must not be null"));
+        assertThat(recipeBatches).containsExactly(List.of("A", "D"));
+    }
+
+    @Test
+    void ingest_chunkFailingBeforeTheDatabase_isRetriedOneByOne() throws Exception {
+        unbindable.add("Bad");
+
+        BulkIngestResponse res = ingest.ingest(json("[" + recipe("A", 1) + "," + recipe("Bad", 1) + "]"));
+
+        assertThat(res.created()).isEqualTo(1);
+        assertThat(res.errors()).containsExactly(new ItemError(1, "Bad", "Could not be stored: cannot bind"));
+        verify(ingredientIndex).add(any());
+    }
+
+    @Test
+    void ingest_malformedTail_keepsWhatWasReadBefore() throws Exception {
+        BulkIngestResponse res = ingest.ingest(json("[" + recipe("A", 1) + ", {\"title\": "));
+
+        assertThat(res.received()).isEqualTo(1);
+        assertThat(res.created()).isEqualTo(1);
+        assertThat(res.errors()).singleElement().satisfies(e -> {
+            assertThat(e.index()).isEqualTo(1);
+            assertThat(e.message()).startsWith("Malformed JSON, import stopped");
+        });
+    }
+
+    @Test
+    void ingest_rejectsAnythingButAnArray() {
+        assertThatThrownBy(() -> ingest.ingest(json(recipe("A", 1))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ingest.ingest(json("{oops")))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(jdbc);
+    }
+
+    private static String recipe(String title, long... ingredientIds) {
+        StringJoiner lines = new StringJoiner(",");
+        for (long id : ingredientIds) lines.add("{\"ingredientId\":" + id + ",\"amount\":2.5}");
+        return "{\"title\":\"" + title + "\",\"totalTimeMin\":10,\"ingredients\":[" + lines
+                + "],\"steps\":[{\"stepNo\":1,\"instruction\":\"cook\"}]}";
+    }
+
+    private static ByteArrayInputStream json(String s) {
+        return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+    }
+}
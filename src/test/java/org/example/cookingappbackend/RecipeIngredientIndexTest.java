@@ -0,0 +1,112 @@
+package org.example.cookingappbackend.service;
+
+import org.example.cookingappbackend.model.Ingredient;
+import org.example.cookingappbackend.model.Recipe;
+import org.example.cookingappbackend.model.RecipeIngredient;
+import org.example.cookingappbackend.repository.RecipeRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class RecipeIngredientIndexTest {
+
+    private static final long MILK = 1L, FLOUR = 2L, EGG = 3L, SALT = 4L, TOMATO = 5L, WATER = 6L, PEPPER = 7L;
+
+    private final RecipeRepository recipeRepo = mock(RecipeRepository.class);
+    private final RecipeIngredientIndex index = new RecipeIngredientIndex(recipeRepo);
+
+    @Test
+    void rebuild_loadsCatalogOnce_andSearchCountsMatches() {
+        when(recipeRepo.findAllWithIngredients()).thenReturn(List.of(
+                recipe(1L, "Pancakes", MILK, FLOUR, EGG),
+                recipe(2L, "Omelette", EGG, SALT),
+                recipe(3L, "Salad", TOMATO)
+        ));
+
+        index.rebuild();
+
+        assertThat(index.size()).isEqualTo(3);
+        List<RecipeIngredientIndex.Hit> hits = index.search(List.of(EGG, MILK));
+
+        assertThat(hits).hasSize(2);
+        RecipeIngredientIndex.Hit pancakes = hits.stream().filter(h -> h.recipe().id() == 1L).findFirst().orElseThrow();
+        assertThat(pancakes.matchedCount()).isEqualTo(2);
+        assertThat(pancakes.missingCount()).isEqualTo(1);
+
+        verify(recipeRepo, times(1)).findAllWithIngredients();
+    }
+
+    @Test
+    void search_ignoresUnknownIds_andDuplicateIngredientLines() {
+        index.add(recipe(1L, "Soup", SALT, SALT, WATER));
+
+        List<RecipeIngredientIndex.Hit> hits = index.search(List.of(SALT, PEPPER));
+
+        assertThat(hits).hasSize(1);
+        assertThat(hits.get(0).matchedCount()).isEqualTo(1);
+        assertThat(hits.get(0).missingCount()).isEqualTo(1);
+        verifyNoInteractions(recipeRepo);
+    }
+
+    @Test
+    void bitmaps_useDenseOrdinals_forSparseAndLargeIds() {
+        long big = 5_000_000_000L;
+        index.add(recipe(1L, "Stew", big, big + 50, big + 100));
+        index.add(recipe(2L, "Toast", big + 50, MILK));
+
+        RecipeIngredientIndex.IndexedRecipe stew = index.recipes().stream()
+                .filter(r -> r.id() == 1L).findFirst().orElseThrow();
+        assertThat(stew.ingredientBits()).hasSize(1);
+        assertThat(stew.ingredientCount()).isEqualTo(3);
+
+        long[] pantry = index.toBits(List.of(big + 50, MILK, 42L));
+        assertThat(stew.matchedCount(pantry)).isEqualTo(1);
+        assertThat(index.recipes()).filteredOn(r -> r.id() == 2L)
+                .singleElement().satisfies(r -> assertThat(r.matchedCount(pantry)).isEqualTo(2));
+    }
+
+    @Test
+    void add_skipsUnsavedRecipes() {
+        index.add(recipe(null, "Draft", SALT));
+
+        assertThat(index.size()).isZero();
+        assertThat(index.search(List.of(SALT))).isEmpty();
+    }
+
+    @Test
+    void updateAvgRating_ignoresAveragesOlderThanTheOneHeld() {
+        Recipe soup = recipe(1L, "Soup", SALT);
+        soup.setVersion(3L);
+        index.add(soup);
+
+        // callbacks of three ratings, run out of commit order
+        index.updateAvgRating(1L, 4.5, 6);
+        index.updateAvgRating(1L, 4.0, 5);
+        index.updateAvgRating(1L, 3.0, 3);
+
+        assertThat(index.recipes()).singleElement().satisfies(r -> {
+            assertThat(r.avgRating()).isEqualTo(4.5);
+            assertThat(r.version()).isEqualTo(6);
+        });
+    }
+
+    private static Recipe recipe(Long id, String title, long... ingredientIds) {
+        Recipe r = new Recipe();
+        r.setId(id);
+        r.setTitle(title);
+        for (long ingredientId : ingredientIds) {
+            Ingredient ing = new Ingredient();
+            ing.setId(ingredientId);
+            ing.setName("ing" + ingredientId);
+            RecipeIngredient ri = new RecipeIngredient();
+            ri.setRecipe(r);
+            ri.setIngredient(ing);
+            ri.setAmount(1.0);
+            r.getIngredients().add(ri);
+        }
+        return r;
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.cookingappbackend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.cookingappbackend.dto.response.RecipeResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecipeJsonCacheTest {
+
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final RecipeJsonCache cache = new RecipeJsonCache(mapper, DataSize.ofMegabytes(1), new SimpleMeterRegistry());
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void get_encodesOnce_andKeepsValidators() throws Exception {
+        RecipeJsonCache.Encoded first = cache.get(1L, () -> load(1L, "short"));
+        RecipeJsonCache.Encoded second = cache.get(1L, () -> load(1L, "short"));
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+        assertThat(first.version()).isEqualTo(5L);
+        assertThat(first.gzip()).isNull();
+        assertThat(mapper.readTree(first.json()).get("title").asText()).isEqualTo("R1");
+    }
+
+    @Test
+    void get_gzipsLargeBodies_only() {
+        RecipeJsonCache.Encoded big = cache.get(1L, () -> load(1L, "x".repeat(5000)));
+
+        assertThat(big.gzip()).isNotNull();
+        assertThat(big.gzip().length).isLessThan(big.json().length);
+    }
+
+    @Test
+    void ratingOrRecipeChange_evictsOnlyThatRecipe() {
+        cache.get(1L, () -> load(1L, "a"));
+        cache.get(2L, () -> load(2L, "b"));
+
+        cache.onRatingChanged(new RatingChangedEvent(1L));
+        cache.onRecipeChanged(new RecipeChangedEvent(3L));
+
+        assertThat(cache.getIfPresent(1L)).isNull();
+        assertThat(cache.getIfPresent(2L)).isNotNull();
+    }
+
+    @Test
+    void memory_isBoundedByEncodedBytes() {
+        RecipeJsonCache small = new RecipeJsonCache(mapper, DataSize.ofKilobytes(4), new SimpleMeterRegistry());
+        for (long id = 1; id <= 50; id++) {
+            long recipeId = id;
+            small.get(recipeId, () -> load(recipeId, "y".repeat(500)));
+        }
+
+        long kept = java.util.stream.LongStream.rangeClosed(1, 50).filter(id -> small.getIfPresent(id) != null).count();
+        assertThat(kept).isLessThan(10);
+    }
+
+    private RecipeResponse load(Long id, String description) {
+        loads.incrementAndGet();
+        RecipeResponse r = new RecipeResponse();
+        r.setId(id);
+        r.setTitle("R" + id);
+        r.setDescription(description);
+        r.setVersion(5L);
+        return r;
+    }
+}
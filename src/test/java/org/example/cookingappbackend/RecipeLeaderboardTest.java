@@ -0,0 +1,119 @@
+package org.example.cookingappbackend.service;
+
+import org.example.cookingappbackend.dto.response.CursorPage;
+import org.example.cookingappbackend.dto.response.LeaderboardEntryResponse;
+import org.example.cookingappbackend.repository.RatingAggregatesRow;
+import org.example.cookingappbackend.repository.RecipeRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.*;
+
+class RecipeLeaderboardTest {
+
+    private final RecipeRepository recipeRepo = mock(RecipeRepository.class);
+    private final RecipeLeaderboard leaderboard = new RecipeLeaderboard(recipeRepo, 10);
+    private long version;
+
+    @Test
+    void rebuild_ranksManyGoodVotesAboveOnePerfectOne() {
+        when(recipeRepo.findRatedAggregates()).thenReturn(List.of(
+                row(1L, "Lucky toast", 1, 5),
+                row(2L, "Classic soup", 500, 2450),
+                row(3L, "Burnt stew", 40, 80)
+        ));
+
+        leaderboard.rebuild();
+
+        assertThat(ids(leaderboard.page(null, 10))).containsExactly(2L, 1L, 3L);
+        // prior mean is the catalog mean: 2535 stars over 541 ratings
+        double mean = 2535.0 / 541;
+        assertThat(leaderboard.page(null, 1).content().get(0).score())
+                .isCloseTo((10 * mean + 2450) / 510, within(1e-9));
+        verify(recipeRepo).findRatedAggregates();
+    }
+
+    @Test
+    void update_movesOneEntry_andDropsRecipesWithoutRatings() {
+        when(recipeRepo.findRatedAggregates()).thenReturn(List.of(
+                row(1L, "A", 10, 30),
+                row(2L, "B", 10, 40)
+        ));
+        leaderboard.rebuild();
+
+        leaderboard.update(row(1L, "A", 30, 150));
+        leaderboard.update(row(3L, "C", 1, 4));
+        assertThat(ids(leaderboard.page(null, 10))).containsExactly(1L, 2L, 3L);
+
+        leaderboard.update(row(2L, "B", 0, 0));
+        assertThat(ids(leaderboard.page(null, 10))).containsExactly(1L, 3L);
+        assertThat(leaderboard.size()).isEqualTo(2);
+        verify(recipeRepo, times(1)).findRatedAggregates();
+    }
+
+    @Test
+    void page_walksTheRankingWithTheCursor_andBreaksTiesById() {
+        when(recipeRepo.findRatedAggregates()).thenReturn(List.of(
+                row(1L, "A", 5, 20),
+                row(2L, "B", 5, 20),
+                row(3L, "C", 5, 25),
+                row(4L, "D", 5, 10)
+        ));
+        leaderboard.rebuild();
+
+        CursorPage<LeaderboardEntryResponse> first = leaderboard.page(null, 2);
+        CursorPage<LeaderboardEntryResponse> second = leaderboard.page(first.nextCursor(), 2);
+
+        assertThat(ids(first)).containsExactly(3L, 2L);
+        assertThat(first.hasNext()).isTrue();
+        assertThat(ids(second)).containsExactly(1L, 4L);
+        assertThat(second.hasNext()).isFalse();
+        assertThat(second.nextCursor()).isNull();
+    }
+
+    @Test
+    void emptyCatalog_usesTheDefaultPriorMean_andRejectsBadCursors() {
+        when(recipeRepo.findRatedAggregates()).thenReturn(List.of());
+        leaderboard.rebuild();
+
+        assertThat(leaderboard.score(0, 0)).isEqualTo(RecipeLeaderboard.DEFAULT_PRIOR_MEAN);
+        assertThat(leaderboard.page(null, 20).content()).isEmpty();
+        assertThatThrownBy(() -> leaderboard.page(new KeysetCursor(null, 1L).encode(), 20))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+        assertThatThrownBy(() -> leaderboard.page(null, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void update_dropsRowsOlderThanTheOneApplied() {
+        RatingAggregatesRow first = row(1L, "A", 1, 3);
+        RatingAggregatesRow second = row(1L, "A", 2, 8);
+
+        leaderboard.update(second);
+        leaderboard.update(first);
+
+        assertThat(leaderboard.page(null, 10).content()).singleElement().satisfies(e -> {
+            assertThat(e.ratingCount()).isEqualTo(2);
+            assertThat(e.score()).isEqualTo(leaderboard.score(8, 2));
+        });
+
+        // a late row must not bring back a recipe whose last rating is gone
+        leaderboard.update(row(1L, "A", 0, 0));
+        leaderboard.update(second);
+        assertThat(leaderboard.page(null, 10).content()).isEmpty();
+    }
+
+    private static List<Long> ids(CursorPage<LeaderboardEntryResponse> page) {
+        return page.content().stream().map(LeaderboardEntryResponse::id).toList();
+    }
+
+    /** Each row is newer than the ones built before it. */
+    private RatingAggregatesRow row(Long id, String title, long count, long sum) {
+        return new RatingAggregatesRow(id, title, 30, count == 0 ? 0.0 : (double) sum / count, count, sum, ++version);
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.cookingappbackend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecipeSearchCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RecipeSearchCache cache = new RecipeSearchCache(1_000, registry);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void get_loadsOnce_andRecordsHitsAndMisses() {
+        load("k", RecipeSearchCache.RatingDependency.NONE, 1L, 2L);
+        load("k", RecipeSearchCache.RatingDependency.NONE, 1L, 2L);
+
+        assertThat(loads).hasValue(1);
+        assertThat(registry.get("cache.gets").tag("cache", "recipe.search").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("cache.gets").tag("cache", "recipe.search").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void onRatingChanged_evictsOrderedEntries_andEntriesShowingTheRecipe_only() {
+        load("ordered", RecipeSearchCache.RatingDependency.ORDER, 5L);
+        load("shows1", RecipeSearchCache.RatingDependency.CONTENT, 1L, 2L);
+        load("shows5", RecipeSearchCache.RatingDependency.CONTENT, 5L);
+        load("unrated", RecipeSearchCache.RatingDependency.NONE, 1L);
+
+        cache.onRatingChanged(new RatingChangedEvent(1L));
+
+        assertThat(cache.size()).isEqualTo(2);
+        loads.set(0);
+        load("shows5", RecipeSearchCache.RatingDependency.CONTENT, 5L);
+        load("unrated", RecipeSearchCache.RatingDependency.NONE, 1L);
+        assertThat(loads).hasValue(0);
+        load("ordered", RecipeSearchCache.RatingDependency.ORDER, 5L);
+        load("shows1", RecipeSearchCache.RatingDependency.CONTENT, 1L, 2L);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void onRecipeChanged_evictsEverything() {
+        load("a", RecipeSearchCache.RatingDependency.NONE, 1L);
+        load("b", RecipeSearchCache.RatingDependency.CONTENT, 2L);
+
+        cache.onRecipeChanged(new RecipeChangedEvent(3L));
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void get_doesNotStoreValue_loadedWhileInvalidationRan() {
+        List<Long> value = cache.get("k", RecipeSearchCache.RatingDependency.NONE, v -> v, () -> {
+            cache.onRecipeChanged(new RecipeChangedEvent(1L));
+            return List.of(1L);
+        });
+
+        assertThat(value).containsExactly(1L);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void size_isBoundedByResultRows() {
+        RecipeSearchCache small = new RecipeSearchCache(10, new SimpleMeterRegistry());
+        for (long i = 0; i < 20; i++) {
+            long id = i;
+            small.get("k" + i, RecipeSearchCache.RatingDependency.NONE, v -> v, () -> List.of(id, id + 100));
+        }
+
+        assertThat(small.size()).isLessThanOrEqualTo(4);
+    }
+
+    private void load(String key, RecipeSearchCache.RatingDependency dependency, Long... ids) {
+        cache.get(key, dependency, v -> v, () -> {
+            loads.incrementAndGet();
+            return List.of(ids);
+        });
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.cookingappbackend.integration;
 
+import org.example.cookingappbackend.enums.IngredientCategory;
 import org.example.cookingappbackend.model.*;
 import org.example.cookingappbackend.repository.IngredientRepository;
 import org.example.cookingappbackend.repository.RecipeRepository;
@@ -53,6 +54,7 @@ class RecipeSearchIntegrationTest {
         Ingredient ing = new Ingredient();
         ing.setName("Sugar-" + UUID.randomUUID());
         ing.setUnit("g");
+        ing.setCategory(IngredientCategory.OTHER);
         ing = ingredientRepository.save(ing);
 
         String title = "Szarlotka-" + UUID.randomUUID();
@@ -0,0 +1,111 @@
+package org.example.cookingappbackend.service;
+
+import jakarta.persistence.EntityManager;
+import org.example.cookingappbackend.model.Ingredient;
+import org.example.cookingappbackend.model.Recipe;
+import org.example.cookingappbackend.model.RecipeIngredient;
+import org.example.cookingappbackend.repository.PantryItemRepository;
+import org.example.cookingappbackend.repository.RecipeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.assertj.core.api.InstanceOfAssertFactories;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class RecipeSearchPlannerTest {
+
+    private static final long EGG = 1L, MILK = 2L, SALT = 3L;
+
+    private final EntityManager em = mock(EntityManager.class);
+    private final PantryItemRepository pantryRepo = mock(PantryItemRepository.class);
+    private final RecipeIngredientIndex index = new RecipeIngredientIndex(mock(RecipeRepository.class));
+    private final RecipeSearchPlanner planner = new RecipeSearchPlanner(em, index, pantryRepo, new SearchCountCache(Duration.ofMinutes(1)));
+
+    @Test
+    void plan_pushesSelectiveIngredientFilterDown_asCandidateIds() {
+        index.add(recipe(1L, EGG, MILK));
+        index.add(recipe(2L, EGG));
+        index.add(recipe(3L, EGG, MILK, SALT));
+        for (long id = 10; id < 100; id++) index.add(recipe(id, SALT));
+
+        RecipeSearchPlanner.Plan plan = planner.plan(
+                new RecipeSearchCriteria("soup", List.of(EGG, MILK), null, 30, null), List.of(), Sort.unsorted());
+
+        assertThat(plan.empty()).isFalse();
+        assertThat(plan.params().get("candidateIds")).asInstanceOf(
+                InstanceOfAssertFactories.iterable(Long.class)).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(plan.select()).startsWith("select new org.example.cookingappbackend.repository.RecipeSummaryRow(r.id, r.title, r.totalTimeMin, r.avgRating) from Recipe r where r.id in :candidateIds and lower(r.title) like :title");
+        assertThat(plan.select()).endsWith("order by coalesce(r.avgRating, 0) desc, r.title asc, r.id asc");
+        assertThat(plan.count()).startsWith("select count(r) from Recipe r where r.id in :candidateIds");
+    }
+
+    @Test
+    void plan_isEmpty_whenNoRecipeHasAllIngredients() {
+        index.add(recipe(1L, EGG));
+        index.add(recipe(2L, MILK));
+
+        RecipeSearchPlanner.Plan plan = planner.plan(
+                new RecipeSearchCriteria(null, List.of(EGG, MILK), null, null, 4.0), List.of(), Sort.unsorted());
+
+        assertThat(plan.empty()).isTrue();
+    }
+
+    @Test
+    void plan_isEmpty_whenPantryRequestedButPantryEmpty() {
+        RecipeSearchPlanner.Plan plan = planner.plan(
+                new RecipeSearchCriteria("soup", List.of(), 7L, null, null), List.of(), Sort.unsorted());
+
+        assertThat(plan.empty()).isTrue();
+    }
+
+    @Test
+    void plan_withPantry_groupsByRecipe_andOrdersByMissingIngredients() {
+        index.add(recipe(1L, EGG, MILK));
+
+        RecipeSearchPlanner.Plan plan = planner.plan(
+                new RecipeSearchCriteria(null, List.of(), 7L, 20, null), List.of(EGG), Sort.unsorted());
+
+        assertThat(plan.select()).contains("join r.ingredients ri").contains("group by r.id, r.title, r.totalTimeMin, r.avgRating order by (count(ri) - ");
+        assertThat(plan.params()).containsEntry("pantryIds", List.of(EGG)).containsEntry("maxTimeMin", 20);
+    }
+
+    @Test
+    void plan_usesWhitelistedSortOnly_andEscapesLikeWildcards() {
+        RecipeSearchPlanner.Plan plan = planner.plan(
+                new RecipeSearchCriteria("50%_off", List.of(), null, null, null), List.of(),
+                Sort.by(Sort.Order.asc("totalTimeMin"), Sort.Order.desc("author.password")));
+
+        assertThat(plan.select()).endsWith("order by r.totalTimeMin asc, r.id asc");
+        assertThat(plan.params()).containsEntry("title", "%50\\%\\_off%");
+    }
+
+    @Test
+    void search_skipsDatabase_whenPlanIsEmpty() {
+        index.add(recipe(1L, EGG));
+
+        var page = planner.search(new RecipeSearchCriteria(null, List.of(MILK), null, null, null), PageRequest.of(0, 20), SearchTotal.EXACT);
+
+        assertThat(page.getContent()).isEmpty();
+        verifyNoInteractions(em);
+    }
+
+    private static Recipe recipe(Long id, long... ingredientIds) {
+        Recipe r = new Recipe();
+        r.setId(id);
+        r.setTitle("R" + id);
+        for (long ingredientId : ingredientIds) {
+            Ingredient ing = new Ingredient();
+            ing.setId(ingredientId);
+            RecipeIngredient ri = new RecipeIngredient();
+            ri.setRecipe(r);
+            ri.setIngredient(ing);
+            r.getIngredients().add(ri);
+        }
+        return r;
+    }
+}
@@ -7,15 +7,23 @@ import org.example.cookingappbackend.dto.response.RecipeSummaryResponse;
 import org.example.cookingappbackend.model.*;
 import org.example.cookingappbackend.repository.IngredientRepository;
 import org.example.cookingappbackend.repository.PantryItemRepository;
+import org.example.cookingappbackend.repository.RecipeDetailRow;
 import org.example.cookingappbackend.repository.RecipeRepository;
+import org.example.cookingappbackend.repository.RecipeDetailStepRow;
+import org.example.cookingappbackend.repository.RecipeSummaryRow;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.junit.jupiter.MockitoExtension;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.*;
@@ -28,7 +36,22 @@ class RecipeServiceTest {
     private final IngredientRepository ingredientRepo = mock(IngredientRepository.class);
     private final PantryItemRepository pantryRepo = mock(PantryItemRepository.class);
 
-    private final RecipeService service = new RecipeService(recipeRepo, ingredientRepo, pantryRepo);
+    private final RecipeIngredientIndex ingredientIndex = new RecipeIngredientIndex(recipeRepo);
+
+    private final SearchCountCache countCache = new SearchCountCache(Duration.ofMinutes(1));
+
+    private final PantryMatchEngine pantryEngine = new SqlPantryMatchEngine(recipeRepo, pantryRepo, countCache);
+    private final IngredientNameMatcher nameMatcher = new IngredientNameMatcher(ingredientRepo);
+    private final Map<String, Long> ingredientIds = new HashMap<>();
+
+    private final RecipeSearchPlanner searchPlanner = mock(RecipeSearchPlanner.class);
+    private final RecipeSearchCache searchCache = new RecipeSearchCache(10_000, new SimpleMeterRegistry());
+    private final RecipeDetailCache detailCache = new RecipeDetailCache(100, new SimpleMeterRegistry());
+    private final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+
+    private final RecipeService service = new RecipeService(
+            recipeRepo, ingredientRepo, ingredientIndex, pantryEngine, nameMatcher, searchPlanner, countCache,
+            searchCache, detailCache, events);
 
     @Test
     void create_savesRecipe_withIngredientsAndSteps_sortedByStepNo() throws Exception {
@@ -47,8 +70,7 @@ class RecipeServiceTest {
 
         Ingredient ing1 = ingredient(1L, "I1", "g");
         Ingredient ing2 = ingredient(2L, "I2", "ml");
-        when(ingredientRepo.findById(1L)).thenReturn(Optional.of(ing1));
-        when(ingredientRepo.findById(2L)).thenReturn(Optional.of(ing2));
+        when(ingredientRepo.findAllById(List.of(2L, 1L))).thenReturn(List.of(ing1, ing2));
 
         when(recipeRepo.save(any(Recipe.class))).thenAnswer(inv -> {
             Recipe r = inv.getArgument(0);
@@ -82,11 +104,39 @@ class RecipeServiceTest {
         assertThat(saved.getSteps().get(0).getStepNo()).isEqualTo(1);
         assertThat(saved.getSteps().get(1).getStepNo()).isEqualTo(2);
 
-        verify(ingredientRepo).findById(2L);
-        verify(ingredientRepo).findById(1L);
+        verify(events).publishEvent(new RecipeChangedEvent(100L));
+
+        verify(ingredientRepo).findAllById(List.of(2L, 1L));
         verifyNoMoreInteractions(recipeRepo, ingredientRepo, pantryRepo);
     }
 
+    @Test
+    void create_indexesTheRecipeOnlyOnceItCommits() throws Exception {
+        RecipeCreateRequest req = new RecipeCreateRequest();
+        req.setTitle("T");
+        setList(req, "setIngredients", List.class, List.of(newReqItem(1L, 1.0)));
+        setList(req, "setSteps", List.class, List.of());
+        when(ingredientRepo.findAllById(List.of(1L))).thenReturn(List.of(ingredient(1L, "I1", "g")));
+        when(recipeRepo.save(any(Recipe.class))).thenAnswer(inv -> {
+            Recipe r = inv.getArgument(0);
+            r.setId(100L);
+            return r;
+        });
+
+        TransactionSynchronizationManager.initSynchronization();
+        List<TransactionSynchronization> synchronizations;
+        try {
+            service.create(req, new User());
+            synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(ingredientIndex.size()).isZero();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        assertThat(ingredientIndex.search(List.of(1L))).extracting(h -> h.recipe().id()).containsExactly(100L);
+    }
+
     @Test
     void create_whenIngredientMissing_throws() throws Exception {
         RecipeCreateRequest req = new RecipeCreateRequest();
@@ -98,21 +148,21 @@ class RecipeServiceTest {
         setList(req, "setIngredients", List.class, List.of(item));
         setList(req, "setSteps", List.class, List.of());
 
-        when(ingredientRepo.findById(99L)).thenReturn(Optional.empty());
+        when(ingredientRepo.findAllById(List.of(99L))).thenReturn(List.of());
 
         assertThatThrownBy(() -> service.create(req, new User()))
                 .isInstanceOf(NoSuchElementException.class)
                 .hasMessage("Ingredient not found: 99");
 
-        verify(ingredientRepo).findById(99L);
+        verify(ingredientRepo).findAllById(List.of(99L));
         verifyNoInteractions(recipeRepo, pantryRepo);
         verifyNoMoreInteractions(ingredientRepo);
     }
 
     @Test
     void searchByIngredients_returnsEmpty_whenNullOrEmpty() {
-        assertThat(service.searchByIngredients(null)).isEmpty();
-        assertThat(service.searchByIngredients(List.of())).isEmpty();
+        assertThat(service.searchByIngredients(null, 20, 0)).isEmpty();
+        assertThat(service.searchByIngredients(List.of(), 20, 0)).isEmpty();
         verifyNoInteractions(recipeRepo, ingredientRepo, pantryRepo);
     }
 
@@ -122,29 +172,100 @@ class RecipeServiceTest {
         Recipe r2 = recipeWithIngredientNames(2L, "B", List.of("salt"));
         Recipe r3 = recipeWithIngredientNames(3L, "C", List.of("tomato", "basil"));
 
-        when(recipeRepo.findAllWithIngredients()).thenReturn(List.of(r1, r2, r3));
+        ingredientIndex.add(r1);
+        ingredientIndex.add(r2);
+        ingredientIndex.add(r3);
 
-        List<RecipeSearchResultResponse> res = service.searchByIngredients(List.of("SALT", "oil"));
+        List<RecipeSearchResultResponse> res = service.searchByIngredients(List.of("SALT", "oil"), 20, 0);
 
-        assertThat(res).isNotEmpty();
-        assertThat(res.get(0).getId()).isEqualTo(1L);
+        assertThat(res).extracting(RecipeSearchResultResponse::getId).containsExactly(1L, 2L);
+        assertThat(res.get(0).getMatchedCount()).isEqualTo(2);
+        assertThat(res.get(0).getMissingCount()).isEqualTo(1);
 
-        verify(recipeRepo).findAllWithIngredients();
-        verifyNoMoreInteractions(recipeRepo);
-        verifyNoInteractions(ingredientRepo, pantryRepo);
+        verifyNoInteractions(recipeRepo, ingredientRepo, pantryRepo);
+    }
+
+    @Test
+    void searchByIngredients_toleratesDiacriticsAndTypos() {
+        Recipe r1 = recipeWithIngredientNames(1L, "Placki", List.of("ziemniaki", "mąka"));
+        ingredientIndex.add(r1);
+
+        List<RecipeSearchResultResponse> res = service.searchByIngredients(List.of("ziemnaki", "MAKA"), 20, 0);
+
+        assertThat(res).hasSize(1);
+        assertThat(res.get(0).getMatchedCount()).isEqualTo(2);
+        verifyNoInteractions(recipeRepo, ingredientRepo);
+    }
+
+    @Test
+    void search_whenIngredientTokenUnknown_returnsEmpty_withoutQuery() {
+        Pageable pageable = PageRequest.of(0, 20);
+        nameMatcher.add(ingredient(1L, "salt", "g"));
+
+        Page<RecipeSummaryResponse> page = searchExact(null, "salt,unobtainium", false, null, null, null, pageable);
+
+        assertThat(page.getTotalElements()).isZero();
+        verifyNoInteractions(recipeRepo);
+    }
+
+    @Test
+    void searchByIngredients_returnsRequestedPageOnly() {
+        for (long id = 1; id <= 50; id++) {
+            List<String> names = id % 2 == 0 ? List.of("salt", "oil") : List.of("salt", "oil", "flour");
+            ingredientIndex.add(recipeWithIngredientNames(id, "R" + id, names));
+        }
+
+        List<RecipeSearchResultResponse> first = service.searchByIngredients(List.of("salt", "oil"), 10, 0);
+        List<RecipeSearchResultResponse> third = service.searchByIngredients(List.of("salt", "oil"), 10, 20);
+        List<RecipeSearchResultResponse> tail = service.searchByIngredients(List.of("salt", "oil"), 10, 45);
+
+        assertThat(first).hasSize(10).allMatch(r -> r.getMissingCount() == 0);
+        assertThat(first).extracting(RecipeSearchResultResponse::getId).containsExactly(2L, 4L, 6L, 8L, 10L, 12L, 14L, 16L, 18L, 20L);
+        assertThat(third).extracting(RecipeSearchResultResponse::getId).containsExactly(42L, 44L, 46L, 48L, 50L, 1L, 3L, 5L, 7L, 9L);
+        assertThat(tail).hasSize(5);
+        verifyNoInteractions(recipeRepo);
+    }
+
+    @Test
+    void searchByIngredients_rejectsInvalidPaging() {
+        assertThatThrownBy(() -> service.searchByIngredients(List.of("salt"), 0, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.searchByIngredients(List.of("salt"), 10, -1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void create_addsRecipeToIngredientIndex() throws Exception {
+        RecipeCreateRequest req = new RecipeCreateRequest();
+        req.setTitle("Soup");
+        setList(req, "setIngredients", List.class, List.of(newReqItem(1L, 1.0)));
+        setList(req, "setSteps", List.class, List.of());
+
+        Ingredient salt = ingredient(1L, "Salt", "g");
+        nameMatcher.add(salt);
+        when(ingredientRepo.findAllById(List.of(1L))).thenReturn(List.of(salt));
+        when(recipeRepo.save(any(Recipe.class))).thenAnswer(inv -> {
+            Recipe r = inv.getArgument(0);
+            r.setId(7L);
+            return r;
+        });
+
+        service.create(req, new User());
+
+        assertThat(service.searchByIngredients(List.of("salt"), 20, 0))
+                .extracting(RecipeSearchResultResponse::getId)
+                .containsExactly(7L);
     }
 
     @Test
     void search_whenQProvided_usesTitleQuery() {
         Pageable pageable = PageRequest.of(0, 20);
-        Recipe r1 = new Recipe();
-        r1.setId(1L);
-        r1.setTitle("Tomato soup");
+        RecipeSummaryRow r1 = summary(1L, "Tomato soup", null);
 
         when(recipeRepo.findByTitleContainingIgnoreCase("tomato", pageable))
                 .thenReturn(new PageImpl<>(List.of(r1), pageable, 1));
 
-        Page<RecipeSummaryResponse> page = service.search(" tomato ", null, false, null, pageable);
+        Page<RecipeSummaryResponse> page = searchExact(" tomato ", null, false, null, null, null, pageable);
 
         assertThat(page.getTotalElements()).isEqualTo(1);
 
@@ -157,18 +278,19 @@ class RecipeServiceTest {
     void search_whenIngredientsCsvProvided_usesIngredientSearch() {
         Pageable pageable = PageRequest.of(0, 20);
 
-        Recipe r1 = new Recipe();
-        r1.setId(1L);
-        r1.setTitle("X");
+        RecipeSummaryRow r1 = summary(1L, "X", null);
 
-        when(recipeRepo.searchByIngredientNames(List.of("a", "b"), 2, pageable))
+        nameMatcher.add(ingredient(1L, "a", "g"));
+        nameMatcher.add(ingredient(2L, "b", "g"));
+
+        when(recipeRepo.searchByIngredientIds(List.of(1L, 2L), 2, pageable))
                 .thenReturn(new PageImpl<>(List.of(r1), pageable, 1));
 
-        Page<RecipeSummaryResponse> page = service.search(null, " A, b ", false, null, pageable);
+        Page<RecipeSummaryResponse> page = searchExact(null, " A, b ", false, null, null, null, pageable);
 
         assertThat(page.getTotalElements()).isEqualTo(1);
 
-        verify(recipeRepo).searchByIngredientNames(List.of("a", "b"), 2, pageable);
+        verify(recipeRepo).searchByIngredientIds(List.of(1L, 2L), 2, pageable);
         verifyNoMoreInteractions(recipeRepo);
         verifyNoInteractions(ingredientRepo, pantryRepo);
     }
@@ -177,7 +299,7 @@ class RecipeServiceTest {
     void search_whenInPantryOnly_andNoUser_returnsEmpty() {
         Pageable pageable = PageRequest.of(0, 20);
 
-        Page<RecipeSummaryResponse> page = service.search(null, null, true, null, pageable);
+        Page<RecipeSummaryResponse> page = searchExact(null, null, true, null, null, null, pageable);
 
         assertThat(page.getTotalElements()).isEqualTo(0);
         verifyNoInteractions(recipeRepo, ingredientRepo, pantryRepo);
@@ -190,13 +312,13 @@ class RecipeServiceTest {
         User u = new User();
         u.setId(1L);
 
-        when(pantryRepo.findIngredientNamesByUserId(1L)).thenReturn(List.of());
+        when(pantryRepo.findIngredientIdsByUserId(1L)).thenReturn(List.of());
 
-        Page<RecipeSummaryResponse> page = service.search(null, null, true, u, pageable);
+        Page<RecipeSummaryResponse> page = searchExact(null, null, true, null, null, u, pageable);
 
         assertThat(page.getTotalElements()).isEqualTo(0);
 
-        verify(pantryRepo).findIngredientNamesByUserId(1L);
+        verify(pantryRepo).findIngredientIdsByUserId(1L);
         verifyNoMoreInteractions(pantryRepo);
         verifyNoInteractions(recipeRepo, ingredientRepo);
     }
@@ -208,33 +330,154 @@ class RecipeServiceTest {
         User u = new User();
         u.setId(1L);
 
-        when(pantryRepo.findIngredientNamesByUserId(1L)).thenReturn(List.of("salt", "oil"));
+        when(pantryRepo.findIngredientIdsByUserId(1L)).thenReturn(List.of(1L, 2L));
 
-        Recipe r1 = new Recipe();
-        r1.setId(1L);
-        r1.setTitle("X");
+        RecipeSummaryRow r1 = summary(1L, "X", null);
 
-        when(recipeRepo.searchPantryRanked(List.of("salt", "oil"), 1L, pageable))
+        when(recipeRepo.searchPantryRanked(List.of(1L, 2L), 1L, pageable))
                 .thenReturn(new PageImpl<>(List.of(r1), pageable, 1));
 
-        Page<RecipeSummaryResponse> page = service.search(null, null, true, u, pageable);
+        Page<RecipeSummaryResponse> page = searchExact(null, null, true, null, null, u, pageable);
 
         assertThat(page.getTotalElements()).isEqualTo(1);
 
-        verify(pantryRepo).findIngredientNamesByUserId(1L);
-        verify(recipeRepo).searchPantryRanked(List.of("salt", "oil"), 1L, pageable);
+        verify(pantryRepo).findIngredientIdsByUserId(1L);
+        verify(recipeRepo).searchPantryRanked(List.of(1L, 2L), 1L, pageable);
         verifyNoMoreInteractions(pantryRepo, recipeRepo);
         verifyNoInteractions(ingredientRepo);
     }
 
+    @Test
+    void search_whenFiltersCombined_usesSinglePlannedQuery() {
+        Pageable pageable = PageRequest.of(0, 20);
+        nameMatcher.add(ingredient(1L, "tomato", "g"));
+
+        User u = new User();
+        u.setId(5L);
+
+        RecipeSummaryRow r1 = summary(1L, "Tomato soup", null);
+        when(searchPlanner.search(any(RecipeSearchCriteria.class), eq(pageable), eq(SearchTotal.EXACT)))
+                .thenReturn(new PageImpl<>(List.of(r1), pageable, 1));
+
+        Page<RecipeSummaryResponse> page = searchExact("soup", "tomato", true, 30, 4.0, u, pageable);
+
+        assertThat(page.getContent()).extracting(RecipeSummaryResponse::id).containsExactly(1L);
+
+        ArgumentCaptor<RecipeSearchCriteria> captor = ArgumentCaptor.forClass(RecipeSearchCriteria.class);
+        verify(searchPlanner).search(captor.capture(), eq(pageable), eq(SearchTotal.EXACT));
+        RecipeSearchCriteria c = captor.getValue();
+        assertThat(c.title()).isEqualTo("soup");
+        assertThat(c.ingredientIds()).containsExactly(1L);
+        assertThat(c.pantryUserId()).isEqualTo(5L);
+        assertThat(c.maxTimeMin()).isEqualTo(30);
+        assertThat(c.minRating()).isEqualTo(4.0);
+        verifyNoInteractions(recipeRepo, pantryRepo);
+    }
+
+    @Test
+    void search_whenOnlyTimeFilter_usesPlanner() {
+        Pageable pageable = PageRequest.of(0, 20);
+        when(searchPlanner.search(any(RecipeSearchCriteria.class), eq(pageable), eq(SearchTotal.EXACT))).thenReturn(Page.empty(pageable));
+
+        searchExact(null, null, false, 15, null, null, pageable);
+
+        verify(searchPlanner).search(any(RecipeSearchCriteria.class), eq(pageable), eq(SearchTotal.EXACT));
+        verifyNoInteractions(recipeRepo, pantryRepo);
+    }
+
+    @Test
+    void search_byIngredients_withApproxTotal_countsOncePerFilter() {
+        nameMatcher.add(ingredient(1L, "tomato", "g"));
+        nameMatcher.add(ingredient(2L, "onion", "g"));
+        RecipeSummaryRow r1 = summary(1L, "Salsa", 4.0);
+        when(recipeRepo.sliceByIngredientIds(anyList(), eq(2L), any(Pageable.class)))
+                .thenAnswer(inv -> new SliceImpl<>(List.of(r1), inv.getArgument(2), true));
+        when(recipeRepo.countByIngredientIds(anyList(), eq(2L))).thenReturn(42L);
+
+        Slice<RecipeSummaryResponse> p1 = service.search(
+                null, "tomato,onion", false, null, null, null, PageRequest.of(0, 1), SearchTotal.APPROX);
+        Slice<RecipeSummaryResponse> p2 = service.search(
+                null, "onion,tomato", false, null, null, null, PageRequest.of(1, 1), SearchTotal.APPROX);
+
+        assertThat(((Page<RecipeSummaryResponse>) p1).getTotalElements()).isEqualTo(42);
+        assertThat(((Page<RecipeSummaryResponse>) p2).getTotalElements()).isEqualTo(42);
+        verify(recipeRepo, times(1)).countByIngredientIds(anyList(), eq(2L));
+        verify(recipeRepo, never()).searchByIngredientIds(anyList(), anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void search_byPantry_withNoTotal_returnsSlice_andNeverCounts() {
+        User u = new User();
+        u.setId(5L);
+        Pageable pageable = PageRequest.of(0, 20);
+        when(pantryRepo.findIngredientIdsByUserId(5L)).thenReturn(List.of(1L));
+        when(recipeRepo.slicePantryRanked(List.of(1L), 1L, pageable))
+                .thenReturn(new SliceImpl<>(List.of(summary(3L, "Soup", null)), pageable, false));
+
+        Slice<RecipeSummaryResponse> slice = service.search(null, null, true, null, null, u, pageable, SearchTotal.NONE);
+
+        assertThat(slice).isNotInstanceOf(Page.class);
+        assertThat(slice.getContent()).extracting(RecipeSummaryResponse::id).containsExactly(3L);
+        verify(recipeRepo, never()).countPantryMatches(anyList(), anyLong());
+        verify(recipeRepo, never()).searchPantryRanked(anyList(), anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void listAfter_firstPage_fetchesOneExtraRow_andEncodesTitleCursor() {
+        RecipeSummaryRow a = summary(1L, "Apple pie", 4.0);
+        RecipeSummaryRow b = summary(2L, "Borscht", null);
+        RecipeSummaryRow c = summary(3L, "Curry", 5.0);
+        when(recipeRepo.findAllByOrderByTitleAscIdAsc(Limit.of(3))).thenReturn(List.of(a, b, c));
+
+        var page = service.listAfter(null, 2);
+
+        assertThat(page.content()).extracting(RecipeSummaryResponse::id).containsExactly(1L, 2L);
+        assertThat(page.hasNext()).isTrue();
+        assertThat(KeysetCursor.decode(page.nextCursor())).isEqualTo(new KeysetCursor("Borscht", 2L));
+
+        when(recipeRepo.findByTitleAfter("Borscht", 2L, Limit.of(3))).thenReturn(List.of(c));
+        var next = service.listAfter(page.nextCursor(), 2);
+
+        assertThat(next.content()).extracting(RecipeSummaryResponse::id).containsExactly(3L);
+        assertThat(next.hasNext()).isFalse();
+        verify(recipeRepo, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void listTopRatedAfter_continuesIntoUnratedRecipes_whenRatedRunOut() {
+        RecipeSummaryRow r1 = summary(1L, "A", 4.5);
+        RecipeSummaryRow r2 = summary(2L, "B", 3.0);
+        RecipeSummaryRow u9 = summary(9L, "U9", null);
+        RecipeSummaryRow u7 = summary(7L, "U7", null);
+        when(recipeRepo.findRatedAfter(4.5, 1L, Limit.of(3))).thenReturn(List.of(r2));
+        when(recipeRepo.findByAvgRatingNullOrderByIdDesc(Limit.of(2))).thenReturn(List.of(u9, u7));
+
+        var page = service.listTopRatedAfter(new KeysetCursor("4.5", 1L).encode(), 2);
+
+        assertThat(page.content()).extracting(RecipeSummaryResponse::id).containsExactly(2L, 9L);
+        assertThat(page.hasNext()).isTrue();
+        assertThat(KeysetCursor.decode(page.nextCursor())).isEqualTo(new KeysetCursor(null, 9L));
+
+        when(recipeRepo.findUnratedAfter(9L, Limit.of(3))).thenReturn(List.of(u7));
+        var last = service.listTopRatedAfter(page.nextCursor(), 2);
+
+        assertThat(last.content()).extracting(RecipeSummaryResponse::id).containsExactly(7L);
+        assertThat(last.hasNext()).isFalse();
+        verify(recipeRepo, never()).findAllByOrderByAvgRatingDesc(any());
+    }
+
+    @Test
+    void listAfter_rejectsOutOfRangeSize() {
+        assertThatThrownBy(() -> service.listAfter(null, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.listTopRatedAfter(null, 101)).isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(recipeRepo);
+    }
+
     @Test
     void listTopRated_delegatesToRepo() {
         Pageable pageable = PageRequest.of(0, 10);
 
-        Recipe r1 = new Recipe();
-        r1.setId(1L);
-        r1.setTitle("X");
-        r1.setAvgRating(5.0);
+        RecipeSummaryRow r1 = summary(1L, "X", 5.0);
 
         when(recipeRepo.findAllByOrderByAvgRatingDesc(pageable))
                 .thenReturn(new PageImpl<>(List.of(r1), pageable, 1));
@@ -248,6 +491,97 @@ class RecipeServiceTest {
         verifyNoInteractions(ingredientRepo, pantryRepo);
     }
 
+    @Test
+    void get_assemblesLinesAndSteps_fromTheirOwnQueries() {
+        when(recipeRepo.findDetailRows(7L)).thenReturn(List.of(
+                detailRow(11L, 1L, "Egg"),
+                detailRow(12L, 2L, "Milk")
+        ));
+        when(recipeRepo.findStepRows(7L)).thenReturn(List.of(
+                new RecipeDetailStepRow(1, "Crack", 2),
+                new RecipeDetailStepRow(2, "Beat", 2)
+        ));
+
+        RecipeResponse res = service.get(7L);
+
+        assertThat(res.getId()).isEqualTo(7L);
+        assertThat(res.getTitle()).isEqualTo("Omelette");
+        assertThat(res.getIngredients()).extracting(RecipeResponse.IngredientLine::getIngredientName)
+                .containsExactly("Egg", "Milk");
+        assertThat(res.getIngredients().get(0).getCategory()).isEqualTo("OTHER");
+        assertThat(res.getSteps()).extracting(RecipeResponse.StepLine::getInstruction)
+                .containsExactly("Crack", "Beat");
+        verify(recipeRepo, never()).findByIdWithIngredients(any());
+    }
+
+    @Test
+    void get_withoutIngredientsOrSteps_returnsEmptyLists() {
+        when(recipeRepo.findDetailRows(7L)).thenReturn(List.of(detailRow(null, null, null)));
+        when(recipeRepo.findStepRows(7L)).thenReturn(List.of());
+
+        RecipeResponse res = service.get(7L);
+
+        assertThat(res.getIngredients()).isEmpty();
+        assertThat(res.getSteps()).isEmpty();
+    }
+
+    @Test
+    void get_servesRepeatReadsFromCache_untilRecipeOrRatingChanges() {
+        when(recipeRepo.findDetailRows(7L)).thenReturn(List.of(detailRow(11L, 1L, "Egg")));
+        when(recipeRepo.findStepRows(7L)).thenReturn(List.of(new RecipeDetailStepRow(1, "Crack", 2)));
+
+        RecipeResponse first = service.get(7L);
+        assertThat(service.get(7L)).isSameAs(first);
+        verify(recipeRepo, times(1)).findDetailRows(7L);
+
+        detailCache.onRatingChanged(new RatingChangedEvent(8L));
+        service.get(7L);
+        verify(recipeRepo, times(1)).findDetailRows(7L);
+
+        detailCache.onRatingChanged(new RatingChangedEvent(7L));
+        service.get(7L);
+        verify(recipeRepo, times(2)).findDetailRows(7L);
+    }
+
+    @Test
+    void get_whenMissing_throws_andCachesNothing() {
+        when(recipeRepo.findDetailRows(404L)).thenReturn(List.of());
+
+        assertThatThrownBy(() -> service.get(404L)).isInstanceOf(NoSuchElementException.class);
+        assertThatThrownBy(() -> service.get(404L)).isInstanceOf(NoSuchElementException.class);
+        verify(recipeRepo, times(2)).findDetailRows(404L);
+        verify(recipeRepo, never()).findStepRows(any());
+    }
+
+    @Test
+    void listTopRated_isServedFromCache_untilARatingChanges() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(recipeRepo.findAllByOrderByAvgRatingDesc(pageable))
+                .thenReturn(new PageImpl<>(List.of(summary(1L, "X", 5.0)), pageable, 1));
+
+        service.listTopRated(pageable);
+        service.listTopRated(pageable);
+        verify(recipeRepo, times(1)).findAllByOrderByAvgRatingDesc(pageable);
+
+        searchCache.onRatingChanged(new RatingChangedEvent(99L));
+        service.listTopRated(pageable);
+        verify(recipeRepo, times(2)).findAllByOrderByAvgRatingDesc(pageable);
+    }
+
+    @Test
+    void search_sharesCacheEntry_acrossEquivalentIngredientSpellings() {
+        Pageable pageable = PageRequest.of(0, 20);
+        nameMatcher.add(ingredient(1L, "tomato", "g"));
+        nameMatcher.add(ingredient(2L, "onion", "g"));
+        when(recipeRepo.searchByIngredientIds(anyList(), eq(2L), eq(pageable)))
+                .thenReturn(new PageImpl<>(List.of(summary(4L, "Salsa", 4.0)), pageable, 1));
+
+        searchExact(null, "tomato,onion", false, null, null, null, pageable);
+        searchExact(null, " Onion , TOMATO ", false, null, null, null, pageable);
+
+        verify(recipeRepo, times(1)).searchByIngredientIds(anyList(), eq(2L), eq(pageable));
+    }
+
     private static Object newReqItem(Long ingredientId, Double amount) throws Exception {
         Class<?> itemClass = Class.forName("org.example.cookingappbackend.dto.request.RecipeCreateRequest$Item");
         Object item = newInstance(itemClass);
@@ -301,6 +635,21 @@ class RecipeServiceTest {
         }
     }
 
+    private Page<RecipeSummaryResponse> searchExact(String q, String csv, boolean inPantryOnly, Integer maxTimeMin,
+                                                    Double minRating, User user, Pageable pageable) {
+        return (Page<RecipeSummaryResponse>) service.search(
+                q, csv, inPantryOnly, maxTimeMin, minRating, user, pageable, SearchTotal.EXACT);
+    }
+
+    private static RecipeDetailRow detailRow(Long lineId, Long ingredientId, String ingredientName) {
+        return new RecipeDetailRow(7L, "Omelette", "D", 10, 4.5, 2, 0, 0, 0, 1, 1, 2L, null,
+                lineId, ingredientId, ingredientName, "g", null, 1.0);
+    }
+
+    private static RecipeSummaryRow summary(Long id, String title, Double avgRating) {
+        return new RecipeSummaryRow(id, title, null, avgRating);
+    }
+
     private static Ingredient ingredient(Long id, String name, String unit) {
         Ingredient ing = new Ingredient();
         ing.setId(id);
@@ -326,13 +675,14 @@ class RecipeServiceTest {
         }
     }
 
-    private static Recipe recipeWithIngredientNames(Long id, String title, List<String> namesLower) {
+    private Recipe recipeWithIngredientNames(Long id, String title, List<String> namesLower) {
         Recipe r = new Recipe();
         r.setId(id);
         r.setTitle(title);
 
         for (String n : namesLower) {
-            Ingredient ing = ingredient(null, n, "u");
+            Ingredient ing = ingredient(ingredientIds.computeIfAbsent(n, k -> ingredientIds.size() + 1L), n, "u");
+            nameMatcher.add(ing);
             RecipeIngredient ri = new RecipeIngredient();
             ri.setRecipe(r);
             ri.setIngredient(ing);
@@ -0,0 +1,67 @@
+package org.example.cookingappbackend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchCountCacheTest {
+
+    @Test
+    void get_reusesCountWithinTtl() {
+        SearchCountCache cache = new SearchCountCache(Duration.ofMinutes(1));
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThat(cache.get("k", () -> { calls.incrementAndGet(); return 7L; })).isEqualTo(7);
+        assertThat(cache.get("k", () -> { calls.incrementAndGet(); return 8L; })).isEqualTo(7);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void get_withZeroTtl_neverCaches() {
+        SearchCountCache cache = new SearchCountCache(Duration.ZERO);
+        AtomicInteger calls = new AtomicInteger();
+
+        cache.get("k", () -> { calls.incrementAndGet(); return 7L; });
+        cache.get("k", () -> { calls.incrementAndGet(); return 7L; });
+
+        assertThat(calls).hasValue(2);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void complete_singlePage_needsNoCount() {
+        SearchCountCache cache = new SearchCountCache(Duration.ofMinutes(1));
+        Slice<String> slice = new SliceImpl<>(List.of("a", "b"), PageRequest.of(0, 20), false);
+
+        Slice<String> out = cache.complete(slice, SearchTotal.APPROX, "k", () -> {
+            throw new AssertionError("count should not run");
+        });
+
+        assertThat(((Page<String>) out).getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void complete_staleTotal_neverHidesFollowingPages() {
+        SearchCountCache cache = new SearchCountCache(Duration.ofMinutes(1));
+        cache.get("k", () -> 3L);
+        Slice<String> slice = new SliceImpl<>(List.of("e", "f"), PageRequest.of(2, 2), true);
+
+        Page<String> out = (Page<String>) cache.complete(slice, SearchTotal.APPROX, "k", () -> 3L);
+
+        assertThat(out.getTotalElements()).isEqualTo(7);
+        assertThat(out.hasNext()).isTrue();
+    }
+
+    @Test
+    void idsKey_isOrderInsensitive() {
+        assertThat(SearchCountCache.idsKey(List.of(3L, 1L, 2L, 1L))).isEqualTo(SearchCountCache.idsKey(List.of(1L, 2L, 3L)));
+    }
+}
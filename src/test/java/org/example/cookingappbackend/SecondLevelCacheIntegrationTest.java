@@ -0,0 +1,236 @@
+package org.example.cookingappbackend.integration;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.cookingappbackend.dto.request.RatingRequest;
+import org.example.cookingappbackend.enums.IngredientCategory;
+import org.example.cookingappbackend.model.*;
+import org.example.cookingappbackend.repository.IngredientRepository;
+import org.example.cookingappbackend.repository.RecipeRepository;
+import org.example.cookingappbackend.repository.UserRepository;
+import org.example.cookingappbackend.service.RatingService;
+import org.example.cookingappbackend.service.RecipeService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SecondLevelCacheIntegrationTest {
+
+    @Autowired
+    TransactionTemplate tx;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    IngredientRepository ingredientRepository;
+
+    @Autowired
+    RecipeRepository recipeRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RatingService ratingService;
+
+    @Autowired
+    RecipeService recipeService;
+
+    private Statistics stats;
+
+    @BeforeEach
+    void setUp() {
+        stats = emf.unwrap(SessionFactory.class).getStatistics();
+        emf.getCache().evictAll();
+    }
+
+    @Test
+    void ingredient_isReadFromCache_andUpdatesReachIt() {
+        Long id = inTx(() -> ingredientRepository.save(ingredient("Flour")).getId());
+        emf.getCache().evictAll();
+
+        inTx(() -> ingredientRepository.findById(id).orElseThrow());
+        stats.clear();
+        Ingredient cached = inTx(() -> ingredientRepository.findById(id).orElseThrow());
+
+        assertThat(cached.getName()).startsWith("Flour");
+        assertThat(stats.getPrepareStatementCount()).isZero();
+        assertThat(stats.getCacheRegionStatistics("ingredients").getHitCount()).isEqualTo(1);
+
+        inTx(() -> {
+            ingredientRepository.findById(id).orElseThrow().setUnit("kg");
+            return null;
+        });
+
+        assertThat(inTx(() -> ingredientRepository.findById(id).orElseThrow().getUnit())).isEqualTo("kg");
+    }
+
+    @Test
+    void recipe_isReadFromCache_togetherWithItsCollections() {
+        Long id = inTx(() -> recipeRepository.save(recipe("Pancakes", 2, 3)).getId());
+        emf.getCache().evictAll();
+
+        inTx(() -> shape(recipeRepository.findById(id).orElseThrow()));
+        stats.clear();
+        List<Integer> shape = inTx(() -> shape(recipeRepository.findById(id).orElseThrow()));
+
+        assertThat(shape).containsExactly(2, 3);
+        assertThat(stats.getPrepareStatementCount()).isZero();
+        assertThat(stats.getCacheRegionStatistics("recipe-ingredient-lists").getHitCount()).isEqualTo(1);
+        assertThat(stats.getCacheRegionStatistics("recipe-step-lists").getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void recipe_collectionChanges_evictTheCachedCollections() {
+        Long id = inTx(() -> recipeRepository.save(recipe("Omelette", 2, 2)).getId());
+        inTx(() -> shape(recipeRepository.findById(id).orElseThrow()));
+
+        inTx(() -> {
+            Recipe r = recipeRepository.findById(id).orElseThrow();
+            r.getIngredients().remove(0);
+            RecipeStep extra = new RecipeStep();
+            extra.setRecipe(r);
+            extra.setStepNo(3);
+            extra.setInstruction("serve");
+            r.getSteps().add(extra);
+            return null;
+        });
+
+        assertThat(inTx(() -> shape(recipeRepository.findById(id).orElseThrow()))).containsExactly(1, 3);
+    }
+
+    @Test
+    void recipe_delete_evictsTheCachedEntity() {
+        Long id = inTx(() -> recipeRepository.save(recipe("Salad", 1, 1)).getId());
+        inTx(() -> shape(recipeRepository.findById(id).orElseThrow()));
+
+        inTx(() -> {
+            recipeRepository.deleteById(id);
+            return null;
+        });
+
+        stats.clear();
+        assertThat(inTx(() -> recipeRepository.findById(id))).isEmpty();
+        assertThat(stats.getCacheRegionStatistics("recipes").getHitCount()).isZero();
+    }
+
+    @Test
+    void ratingUpsert_refreshesTheCachedAverage() {
+        Long id = inTx(() -> recipeRepository.save(recipe("Soup", 1, 1)).getId());
+        User rater = inTx(() -> userRepository.save(user()));
+        inTx(() -> recipeRepository.findById(id).orElseThrow());
+
+        RatingRequest req = new RatingRequest();
+        req.setStars(5);
+        ratingService.upsertRating(id, rater, req);
+
+        assertThat(inTx(() -> recipeRepository.findById(id).orElseThrow().getAvgRating())).isEqualTo(5.0);
+    }
+
+    @Test
+    void ratingUpsert_keepsOtherRecipesCached() {
+        Long rated = inTx(() -> recipeRepository.save(recipe("Broth", 1, 1)).getId());
+        Long other = inTx(() -> recipeRepository.save(recipe("Bread", 1, 1)).getId());
+        User rater = inTx(() -> userRepository.save(user()));
+        inTx(() -> shape(recipeRepository.findById(other).orElseThrow()));
+
+        RatingRequest req = new RatingRequest();
+        req.setStars(4);
+        ratingService.upsertRating(rated, rater, req);
+
+        stats.clear();
+        assertThat(inTx(() -> shape(recipeRepository.findById(other).orElseThrow()))).containsExactly(1, 1);
+        assertThat(stats.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void recipeDetail_cacheHit_opensNoSessionOrConnection() {
+        Long id = inTx(() -> recipeRepository.save(recipe("Stew", 2, 2)).getId());
+        recipeService.get(id);
+
+        stats.clear();
+        assertThat(recipeService.get(id).getTitle()).isEqualTo("Stew");
+
+        assertThat(stats.getSessionOpenCount()).isZero();
+        assertThat(stats.getTransactionCount()).isZero();
+        assertThat(stats.getConnectCount()).isZero();
+    }
+
+    @Test
+    void cacheStatistics_areExposedAsMetrics() {
+        Long id = inTx(() -> ingredientRepository.save(ingredient("Salt")).getId());
+        emf.getCache().evictAll();
+        inTx(() -> ingredientRepository.findById(id).orElseThrow());
+        inTx(() -> ingredientRepository.findById(id).orElseThrow());
+
+        FunctionCounter hits = meterRegistry.find("hibernate.second.level.cache.requests")
+                .tag("region", "ingredients")
+                .tag("result", "hit")
+                .functionCounter();
+
+        assertThat(hits).isNotNull();
+        assertThat(hits.count()).isPositive();
+    }
+
+    private <T> T inTx(Supplier<T> work) {
+        return tx.execute(s -> work.get());
+    }
+
+    private static List<Integer> shape(Recipe r) {
+        return List.of(r.getIngredients().size(), r.getSteps().size());
+    }
+
+    private Recipe recipe(String title, int lines, int steps) {
+        Recipe r = new Recipe();
+        r.setTitle(title);
+        for (int i = 0; i < lines; i++) {
+            RecipeIngredient ri = new RecipeIngredient();
+            ri.setRecipe(r);
+            ri.setIngredient(ingredientRepository.save(ingredient(title + " item " + i)));
+            ri.setAmount(1.0);
+            r.getIngredients().add(ri);
+        }
+        for (int n = 1; n <= steps; n++) {
+            RecipeStep s = new RecipeStep();
+            s.setRecipe(r);
+            s.setStepNo(n);
+            s.setInstruction("step " + n);
+            r.getSteps().add(s);
+        }
+        return r;
+    }
+
+    private static Ingredient ingredient(String name) {
+        Ingredient i = new Ingredient();
+        i.setName(name + " " + UUID.randomUUID());
+        i.setUnit("g");
+        i.setCategory(IngredientCategory.OTHER);
+        return i;
+    }
+
+    private static User user() {
+        User u = new User();
+        u.setEmail("cache-" + UUID.randomUUID() + "@test.com");
+        u.setName("Jan");
+        u.setPassword("x");
+        return u;
+    }
+}
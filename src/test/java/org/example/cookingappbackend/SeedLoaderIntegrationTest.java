@@ -0,0 +1,92 @@
+package org.example.cookingappbackend.integration;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.cookingappbackend.enums.IngredientCategory;
+import org.example.cookingappbackend.model.Ingredient;
+import org.example.cookingappbackend.model.Recipe;
+import org.example.cookingappbackend.model.RecipeIngredient;
+import org.example.cookingappbackend.model.RecipeStep;
+import org.example.cookingappbackend.repository.IngredientRepository;
+import org.example.cookingappbackend.repository.RecipeRepository;
+import org.example.cookingappbackend.seed.SeedLoader;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "app.seed.location=classpath:seeds/test_seed.json",
+        "app.seed.batch-size=2"
+})
+@ActiveProfiles("test")
+class SeedLoaderIntegrationTest {
+
+    @Autowired
+    SeedLoader seedLoader;
+
+    @Autowired
+    TransactionTemplate tx;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    IngredientRepository ingredientRepository;
+
+    @Autowired
+    RecipeRepository recipeRepository;
+
+    @Test
+    void runOnce_streamsRecipes_dedupesIngredients_andSkipsWhenSeeded() {
+        Ingredient salt = new Ingredient();
+        salt.setName("Salt");
+        salt.setUnit("g");
+        salt.setCategory(IngredientCategory.OTHER);
+        Long saltId = ingredientRepository.save(salt).getId();
+
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        seedLoader.runOnce();
+
+        // recipe count, ingredient preload and the two index refreshes; no lookup per ingredient line
+        assertThat(stats.getQueryExecutionCount()).isEqualTo(4);
+        assertThat(ingredientRepository.findAll()).extracting(Ingredient::getName)
+                .containsExactlyInAnyOrder("Salt", "Flour", "Milk");
+
+        List<Recipe> recipes = tx.execute(s -> {
+            List<Recipe> all = recipeRepository.findAll();
+            all.forEach(r -> {
+                r.getIngredients().forEach(ri -> ri.getIngredient().getName());
+                r.getSteps().size();
+            });
+            return all;
+        });
+        assertThat(recipes).extracting(Recipe::getTitle).containsExactlyInAnyOrder("Pancakes", "Bread", "Milk soup");
+
+        Recipe pancakes = recipes.stream().filter(r -> r.getTitle().equals("Pancakes")).findFirst().orElseThrow();
+        assertThat(pancakes.getDescription()).isEqualTo("Thin ones");
+        assertThat(pancakes.getAvgRating()).isEqualTo(4.5);
+        assertThat(pancakes.getIngredients()).extracting(RecipeIngredient::getAmount).containsExactly(200.0, 300.0, 0.0);
+        assertThat(pancakes.getIngredients().get(2).getIngredient().getId()).isEqualTo(saltId);
+        assertThat(pancakes.getSteps()).extracting(RecipeStep::getTimeMin).containsExactly(null, 10);
+
+        Recipe bread = recipes.stream().filter(r -> r.getTitle().equals("Bread")).findFirst().orElseThrow();
+        assertThat(bread.getIngredients().get(0).getIngredient().getId())
+                .isEqualTo(pancakes.getIngredients().get(0).getIngredient().getId());
+
+        // names are unique in the table, so the same name under another unit is the same ingredient
+        Recipe soup = recipes.stream().filter(r -> r.getTitle().equals("Milk soup")).findFirst().orElseThrow();
+        assertThat(soup.getIngredients().get(0).getIngredient().getId())
+                .isEqualTo(pancakes.getIngredients().get(1).getIngredient().getId());
+
+        seedLoader.runOnce();
+        assertThat(recipeRepository.count()).isEqualTo(3);
+    }
+}
@@ -63,26 +63,17 @@ class ShoppingListServiceTest {
     void list_returnsSummaries() {
         User u = user(1L);
 
-        ShoppingList l1 = new ShoppingList();
-        l1.setId(10L);
-        l1.setName("A");
-        l1.setItems(List.of(new ShoppingListItem()));
-
-        ShoppingList l2 = new ShoppingList();
-        l2.setId(11L);
-        l2.setName("B");
-        l2.setItems(List.of());
-
-        when(listRepo.findByUserOrderByCreatedAtDesc(u))
-                .thenReturn(List.of(l1, l2));
+        when(listRepo.findSummariesByUser(u))
+                .thenReturn(List.of(new ShoppingListSummaryRow(10L, "A", 1), new ShoppingListSummaryRow(11L, "B", 0)));
 
         List<ShoppingListSummaryResponse> res = service.list(u);
 
         assertThat(res).hasSize(2);
+        assertThat(res.get(0).getName()).isEqualTo("A");
         assertThat(res.get(0).getItemsCount()).isEqualTo(1);
         assertThat(res.get(1).getItemsCount()).isEqualTo(0);
 
-        verify(listRepo).findByUserOrderByCreatedAtDesc(u);
+        verify(listRepo).findSummariesByUser(u);
     }
 
     @Test
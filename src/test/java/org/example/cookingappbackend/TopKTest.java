@@ -0,0 +1,39 @@
+package org.example.cookingappbackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TopKTest {
+
+    @Test
+    void keepsSmallestK_inOrder() {
+        TopK<Integer> top = new TopK<>(3, Comparator.naturalOrder());
+        List.of(9, 1, 7, 3, 8, 2, 5).forEach(top::offer);
+
+        assertThat(top.sorted(0)).containsExactly(1, 2, 3);
+        assertThat(top.offered()).isEqualTo(7);
+    }
+
+    @Test
+    void sorted_skipsOffset() {
+        TopK<Integer> top = new TopK<>(6, Comparator.reverseOrder());
+        IntStream.rangeClosed(1, 100).forEach(top::offer);
+
+        assertThat(top.sorted(3)).containsExactly(97, 96, 95);
+        assertThat(top.sorted(6)).isEmpty();
+    }
+
+    @Test
+    void zeroCapacity_onlyCounts() {
+        TopK<Integer> top = new TopK<>(0, Comparator.naturalOrder());
+        top.offer(1);
+
+        assertThat(top.sorted(0)).isEmpty();
+        assertThat(top.offered()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,132 @@
+package org.example.cookingappbackend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class WriteBehindRatingAggregatorTest {
+
+    private final RatingAggregateWriter writer = mock(RatingAggregateWriter.class);
+    private final PlatformTransactionManager txManager = mock(PlatformTransactionManager.class);
+
+    private WriteBehindRatingAggregator aggregator;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        aggregator.close();
+    }
+
+    @Test
+    void burstOnOneRecipe_isCoalescedIntoFewWrites() throws InterruptedException {
+        aggregator = aggregator(Duration.ofMillis(200), 10_000);
+
+        for (int i = 0; i < 100; i++) {
+            aggregator.record(1L, RatingDelta.of(i % 2 == 0 ? 5 : 3, 0));
+        }
+        aggregator.record(2L, RatingDelta.of(4, 0));
+        aggregator.close();
+
+        ArgumentCaptor<RatingDelta> deltas = ArgumentCaptor.forClass(RatingDelta.class);
+        verify(writer, atMost(3)).apply(eq(1L), deltas.capture());
+        assertThat(deltas.getAllValues().stream().reduce(RatingDelta.ZERO, RatingDelta::plus))
+                .isEqualTo(new RatingDelta(100, 400, 0, 0, 50, 0, 50));
+        verify(writer).apply(2L, RatingDelta.of(4, 0));
+    }
+
+    @Test
+    void delta_isWrittenWithinTheFlushInterval_withoutWaitingForMore() {
+        aggregator = aggregator(Duration.ofMillis(50), 10_000);
+
+        aggregator.record(1L, RatingDelta.of(4, 0));
+
+        verify(writer, timeout(1_000)).apply(1L, RatingDelta.of(4, 0));
+    }
+
+    @Test
+    void delta_isQueuedOnlyOnceTheRatingCommits() throws InterruptedException {
+        aggregator = aggregator(Duration.ofMillis(50), 10_000);
+
+        TransactionSynchronizationManager.initSynchronization();
+        aggregator.record(1L, RatingDelta.of(4, 0));
+        List<TransactionSynchronization> rolledBack = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        rolledBack.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        TransactionSynchronizationManager.initSynchronization();
+        aggregator.record(2L, RatingDelta.of(5, 0));
+        List<TransactionSynchronization> committed = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        verifyNoInteractions(writer);
+        committed.forEach(TransactionSynchronization::afterCommit);
+
+        aggregator.close();
+        verify(writer).apply(2L, RatingDelta.of(5, 0));
+        verifyNoMoreInteractions(writer);
+    }
+
+    @Test
+    void fullQueue_makesTheCallerWriteItsOwnDelta() throws InterruptedException {
+        aggregator = aggregator(Duration.ofMillis(10), 1);
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Set<String> writerThreads = ConcurrentHashMap.newKeySet();
+        doAnswer(inv -> {
+            writerThreads.add(Thread.currentThread().getName());
+            if (inv.getArgument(0).equals(1L)) {
+                flushing.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return null;
+        }).when(writer).apply(any(), any());
+
+        aggregator.record(1L, RatingDelta.of(5, 0));
+        assertThat(flushing.await(5, TimeUnit.SECONDS)).isTrue();
+        aggregator.record(2L, RatingDelta.of(4, 0));
+        aggregator.record(3L, RatingDelta.of(3, 0));
+
+        verify(writer).apply(3L, RatingDelta.of(3, 0));
+        assertThat(writerThreads).contains(Thread.currentThread().getName());
+
+        release.countDown();
+        aggregator.close();
+        verify(writer).apply(2L, RatingDelta.of(4, 0));
+    }
+
+    @Test
+    void close_drainsQueuedDeltas_andLaterOnesAreWrittenByTheCaller() throws InterruptedException {
+        aggregator = aggregator(Duration.ofSeconds(30), 10_000);
+
+        aggregator.record(1L, RatingDelta.of(4, 0));
+        aggregator.record(1L, RatingDelta.of(0, 2));
+        aggregator.close();
+
+        verify(writer).apply(1L, new RatingDelta(0, 2, 0, -1, 0, 1, 0));
+
+        aggregator.record(2L, RatingDelta.of(5, 0));
+        verify(writer).apply(2L, RatingDelta.of(5, 0));
+    }
+
+    private WriteBehindRatingAggregator aggregator(Duration flushInterval, int queueCapacity) {
+        return new WriteBehindRatingAggregator(writer, txManager, new SimpleMeterRegistry(),
+                flushInterval, 1, queueCapacity, 500);
+    }
+}
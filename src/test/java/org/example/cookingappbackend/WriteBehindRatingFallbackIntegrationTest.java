@@ -0,0 +1,76 @@
+package org.example.cookingappbackend.integration;
+
+import org.example.cookingappbackend.model.Recipe;
+import org.example.cookingappbackend.model.User;
+import org.example.cookingappbackend.repository.RecipeRepository;
+import org.example.cookingappbackend.repository.UserRepository;
+import org.example.cookingappbackend.service.RatingAggregateWriter;
+import org.example.cookingappbackend.service.RatingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.example.cookingappbackend.integration.RatingFixtures.recipe;
+import static org.example.cookingappbackend.integration.RatingFixtures.stars;
+import static org.example.cookingappbackend.integration.RatingFixtures.user;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(properties = {
+        "app.ratings.aggregation=write-behind",
+        "app.ratings.write-behind.shards=1",
+        "app.ratings.write-behind.queue-capacity=1"
+})
+@ActiveProfiles("test")
+class WriteBehindRatingFallbackIntegrationTest {
+
+    @SpyBean
+    RatingAggregateWriter writer;
+
+    @Autowired
+    RatingService ratingService;
+
+    @Autowired
+    RecipeRepository recipeRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Test
+    void fullQueue_ratingWritesItsOwnDelta() throws InterruptedException {
+        Long busy = recipeRepository.save(recipe("Busy")).getId();
+        Long queued = recipeRepository.save(recipe("Queued")).getId();
+        Long rated = recipeRepository.save(recipe("Rated")).getId();
+        User rater = userRepository.save(user());
+
+        CountDownLatch consumerBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> {
+            consumerBusy.countDown();
+            release.await(10, SECONDS);
+            return inv.callRealMethod();
+        }).when(writer).apply(eq(busy), any());
+
+        try {
+            ratingService.upsertRating(busy, rater, stars(5));
+            assertThat(consumerBusy.await(5, SECONDS)).isTrue();
+            // the only slot of the only shard
+            ratingService.upsertRating(queued, rater, stars(5));
+
+            ratingService.upsertRating(rated, rater, stars(4));
+
+            Recipe r = recipeRepository.findById(rated).orElseThrow();
+            assertThat(r.getRatingCount()).isEqualTo(1);
+            assertThat(r.getRatingSum()).isEqualTo(4);
+        } finally {
+            release.countDown();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.cookingappbackend.integration;
+
+import org.example.cookingappbackend.model.Recipe;
+import org.example.cookingappbackend.model.User;
+import org.example.cookingappbackend.repository.RecipeRepository;
+import org.example.cookingappbackend.repository.UserRepository;
+import org.example.cookingappbackend.service.RatingService;
+import org.example.cookingappbackend.service.RecipeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.example.cookingappbackend.integration.RatingFixtures.recipe;
+import static org.example.cookingappbackend.integration.RatingFixtures.stars;
+import static org.example.cookingappbackend.integration.RatingFixtures.user;
+
+@SpringBootTest(properties = {
+        "app.ratings.aggregation=write-behind",
+        "app.ratings.write-behind.flush-interval=200ms"
+})
+@ActiveProfiles("test")
+class WriteBehindRatingIntegrationTest {
+
+    @Autowired
+    RatingService ratingService;
+
+    @Autowired
+    RecipeService recipeService;
+
+    @Autowired
+    RecipeRepository recipeRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Test
+    void burstOfRatings_reachesTheAggregatesAndTheDetailResponse() throws InterruptedException {
+        Long id = recipeRepository.save(recipe("Viral stew")).getId();
+        List<User> raters = IntStream.range(0, 20).mapToObj(i -> userRepository.save(user())).toList();
+        recipeService.get(id);
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            CompletableFuture.allOf(IntStream.range(0, raters.size())
+                    .mapToObj(i -> CompletableFuture.runAsync(
+                            () -> ratingService.upsertRating(id, raters.get(i), stars(i % 2 == 0 ? 5 : 4)), pool))
+                    .toArray(CompletableFuture[]::new)).join();
+        } finally {
+            pool.shutdown();
+        }
+
+        Recipe r = awaitRatingCount(id, 20);
+        assertThat(r.getRatingSum()).isEqualTo(90);
+        assertThat(r.getAvgRating()).isEqualTo(4.5);
+        // fewer version bumps than ratings: the burst was coalesced
+        assertThat(r.getVersion()).isLessThan(20);
+        assertThat(recipeService.get(id).getRatingHistogram()).containsExactly(0L, 0L, 0L, 10L, 10L);
+    }
+
+    private Recipe awaitRatingCount(Long id, long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        Recipe r = recipeRepository.findById(id).orElseThrow();
+        while (r.getRatingCount() != count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            r = recipeRepository.findById(id).orElseThrow();
+        }
+        assertThat(r.getRatingCount()).isEqualTo(count);
+        return r;
+    }
+}